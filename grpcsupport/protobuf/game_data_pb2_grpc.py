@@ -19,6 +19,11 @@ class BotStub(object):
         request_serializer=grpcsupport_dot_protobuf_dot_game__data__pb2.GameTickPacket.SerializeToString,
         response_deserializer=grpcsupport_dot_protobuf_dot_game__data__pb2.ControllerState.FromString,
         )
+    self.StreamControllerStates = channel.stream_stream(
+        '/rlbot.api.Bot/StreamControllerStates',
+        request_serializer=grpcsupport_dot_protobuf_dot_game__data__pb2.GameTickPacket.SerializeToString,
+        response_deserializer=grpcsupport_dot_protobuf_dot_game__data__pb2.ControllerState.FromString,
+        )
 
 
 class BotServicer(object):
@@ -32,6 +37,13 @@ class BotServicer(object):
     context.set_details('Method not implemented!')
     raise NotImplementedError('Method not implemented!')
 
+  def StreamControllerStates(self, request_iterator, context):
+    """One long-lived stream for a whole match. A ControllerState is sent back for every GameTickPacket, in order.
+    """
+    context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+    context.set_details('Method not implemented!')
+    raise NotImplementedError('Method not implemented!')
+
 
 def add_BotServicer_to_server(servicer, server):
   rpc_method_handlers = {
@@ -40,6 +52,11 @@ def add_BotServicer_to_server(servicer, server):
           request_deserializer=grpcsupport_dot_protobuf_dot_game__data__pb2.GameTickPacket.FromString,
           response_serializer=grpcsupport_dot_protobuf_dot_game__data__pb2.ControllerState.SerializeToString,
       ),
+      'StreamControllerStates': grpc.stream_stream_rpc_method_handler(
+          servicer.StreamControllerStates,
+          request_deserializer=grpcsupport_dot_protobuf_dot_game__data__pb2.GameTickPacket.FromString,
+          response_serializer=grpcsupport_dot_protobuf_dot_game__data__pb2.ControllerState.SerializeToString,
+      ),
   }
   generic_handler = grpc.method_handlers_generic_handler(
       'rlbot.api.Bot', rpc_method_handlers)
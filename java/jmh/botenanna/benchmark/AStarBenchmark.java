@@ -0,0 +1,60 @@
+package botenanna.benchmark;
+
+import botenanna.behaviortree.intentions.Intention;
+import botenanna.game.ActionSet;
+import botenanna.game.Arena;
+import botenanna.game.Situation;
+import botenanna.game.simulation.AStar;
+import botenanna.game.simulation.SearchArena;
+import botenanna.intentions.IntentionFunction;
+import botenanna.intentions.IntentionFunctionArriveAtPointAtTime;
+import botenanna.intentions.IntentionFunctionDriveOverPointWithAngle;
+import botenanna.intentions.IntentionFunctionShootInDirection;
+import botenanna.math.Vector3;
+import botenanna.physics.SteppedTimeLine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+/** Measures a complete {@link AStar} search for each kind of IntentionFunction, set up like the intentions of the
+ * behaviour trees do. Like an intention, the benchmark reuses one {@link SearchArena} for all its searches. */
+@State(Scope.Thread)
+public class AStarBenchmark {
+
+    @Param({"driveOverPoint", "arriveAtPoint", "shootInDirection"})
+    public String intention;
+
+    /** A synthetic scenario, see {@link Packets#SCENARIOS}, or a file of recorded packets. The first packet is used. */
+    @Param({"midfield"})
+    public String scenario;
+
+    private Situation situation;
+    private IntentionFunction intentionFunction;
+    private final SearchArena arena = new SearchArena();
+
+    @Setup
+    public void setup() throws IOException {
+        situation = new Situation(Packets.get(scenario)[0]);
+        Vector3 enemyGoal = Arena.getGoalPos(situation.enemyPlayerIndex);
+        switch (intention) {
+            case "driveOverPoint":
+                intentionFunction = new IntentionFunctionDriveOverPointWithAngle(s -> s.getBall().getPosition(), s -> enemyGoal, 0.7, 20, false);
+                break;
+            case "arriveAtPoint":
+                intentionFunction = new IntentionFunctionArriveAtPointAtTime(s -> s.getBall().getPosition(), 2, 0.2, 0.2);
+                break;
+            case "shootInDirection":
+                intentionFunction = new IntentionFunctionShootInDirection(s -> enemyGoal, 20, 20);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown intention: " + intention);
+        }
+    }
+
+    @Benchmark
+    public SteppedTimeLine<ActionSet> findSequence() {
+        AStar search = new AStar(situation, intentionFunction, Intention.STEPSIZE, null, arena);
+        search.search(Long.MAX_VALUE);
+        return search.getSequence();
+    }
+}
@@ -0,0 +1,53 @@
+package botenanna.benchmark;
+
+import botenanna.math.Vector3;
+import botenanna.physics.*;
+import org.openjdk.jmh.annotations.*;
+
+/** Measures the ball predictions: {@link BallPhysics} stepping, paths and trajectories, and the fixed-step
+ * {@link BallSimulator}. The ball bounces off the ground and a wall within a second. */
+@State(Scope.Thread)
+public class BallPhysicsBenchmark {
+
+    @Param({"0.1", "1", "6"})
+    public double time;
+
+    private Rigidbody ball;
+    private double[] state;
+
+    @Setup
+    public void setup() {
+        ball = new Rigidbody();
+        ball.setPosition(new Vector3(2500, 3000, 400));
+        ball.setVelocity(new Vector3(1800, 1500, -200));
+        ball.freeze();
+        state = BallSimulator.toState(ball);
+    }
+
+    @Benchmark
+    public Rigidbody step() {
+        return BallPhysics.step(ball.clone(), time);
+    }
+
+    @Benchmark
+    public Path getPath() {
+        return BallPhysics.getPath(ball, time, 1 / 60.0);
+    }
+
+    @Benchmark
+    public BallTrajectory getTrajectory() {
+        return BallPhysics.getTrajectory(ball, time);
+    }
+
+    @Benchmark
+    public Rigidbody simulatorStep() {
+        return BallSimulator.step(ball.clone(), time);
+    }
+
+    @Benchmark
+    public double[] simulatorTick() {
+        double[] copy = state.clone();
+        BallSimulator.tick(copy, 0, (int) (time / BallSimulator.TICK));
+        return copy;
+    }
+}
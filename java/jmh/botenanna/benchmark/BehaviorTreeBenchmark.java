@@ -0,0 +1,74 @@
+package botenanna.benchmark;
+
+import botenanna.behaviortree.BehaviorTree;
+import botenanna.behaviortree.NodeStatus;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.behaviortree.intentions.Intention;
+import botenanna.game.Situation;
+import botenanna.game.simulation.PlanningService;
+import org.openjdk.jmh.annotations.*;
+import rlbot.api.GameData;
+
+import java.io.File;
+import java.io.IOException;
+
+/** <p>Measures running each behaviour tree in the trees directory once, as the bot does every tick. Trees are read
+ * relative to the working directory, which is the project directory when run through Gradle.</p>
+ *
+ * <p>The packets of the scenario are repeated with increasing game time, so the trees see time pass like in a match,
+ * and intentions replan like they do in the game. With the "tick" planner, intentions search on the benchmark's thread
+ * within their per-tick budget, so the planning is measured too. With the "background" planner, they search on a
+ * {@link PlanningService}, and only the time spent on the bot's thread is measured.</p> */
+@State(Scope.Thread)
+public class BehaviorTreeBenchmark {
+
+    @Param({"boten_anna_tree.txt", "boten_anna_v1.txt", "collectboost.txt", "new_system_test.txt", "touchball.txt"})
+    public String tree;
+
+    /** A synthetic scenario, see {@link Packets#SCENARIOS}, or a file of recorded packets. */
+    @Param({"midfield"})
+    public String scenario;
+
+    @Param({"tick", "background"})
+    public String planner;
+
+    private BehaviorTree behaviorTree;
+    private PlanningService planningService;
+    private GameData.GameTickPacket[] packets;
+    private double duration;
+    private int next = 0;
+    private int repetition = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        if (planner.equals("background")) {
+            planningService = new PlanningService(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            Intention.setPlanningService(planningService);
+        } else if (!planner.equals("tick")) {
+            throw new IllegalArgumentException("Unknown planner: " + planner);
+        }
+        behaviorTree = new BehaviourTreeBuilder().build(new File("trees", tree));
+        packets = Packets.get(scenario);
+        duration = Packets.getDuration(packets);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (planningService != null) {
+            Intention.setPlanningService(null);
+            planningService.shutdown();
+        }
+    }
+
+    @Benchmark
+    public NodeStatus run() {
+        GameData.GameTickPacket packet = packets[next];
+        double gameTime = packet.getGameInfo().getSecondsElapsed() + repetition * duration;
+        next++;
+        if (next == packets.length) {
+            next = 0;
+            repetition++;
+        }
+        return behaviorTree.run(new Situation(Packets.withGameTime(packet, gameTime)));
+    }
+}
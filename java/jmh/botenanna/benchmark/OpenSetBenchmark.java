@@ -0,0 +1,110 @@
+package botenanna.benchmark;
+
+import botenanna.game.Situation;
+import botenanna.game.simulation.SearchArena;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/** Compares the open set of {@link SearchArena} with the TreeSet of nodes that AStar used before. Both run the same
+ * pattern as a search: the best node is taken, and a number of successors with random values are added. */
+@State(Scope.Thread)
+public class OpenSetBenchmark {
+
+    /** A node of the old open set, which was a TreeSet ordered by intention value and then by creation order. */
+    private static class TimeNode {
+        public final Situation situation;
+        public final int actionTaken;
+        public final TimeNode cameFrom;
+        public final double timeSpent;
+        public final double intentionValue;
+        public final long id;
+
+        public TimeNode(Situation situation, int actionTaken, TimeNode cameFrom, double timeSpent, double intentionValue, long id) {
+            this.situation = situation;
+            this.actionTaken = actionTaken;
+            this.cameFrom = cameFrom;
+            this.timeSpent = timeSpent;
+            this.intentionValue = intentionValue;
+            this.id = id;
+        }
+    }
+
+    private static final Comparator<TimeNode> TIME_NODE_ORDER =
+            Comparator.<TimeNode>comparingDouble(node -> node.intentionValue).thenComparingLong(node -> node.id);
+
+    /** The number of successors added for each node taken. */
+    @Param({"10", "30"})
+    public int branching;
+
+    /** The number of nodes taken in one search. */
+    @Param({"100"})
+    public int expansions;
+
+    private double[] values;
+    private Situation situation;
+    private SearchArena arena;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        values = new double[branching * expansions + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1000;
+        }
+        situation = new Situation(Packets.get("midfield")[0]);
+        situation.decode();
+        arena = new SearchArena(values.length);
+    }
+
+    @Benchmark
+    public long treeSet() {
+        TreeSet<TimeNode> openSet = new TreeSet<>(TIME_NODE_ORDER);
+        long id = 0;
+        openSet.add(new TimeNode(situation, 0, null, 0, values[0], id++));
+        long sum = 0;
+        for (int i = 0; i < expansions; i++) {
+            TimeNode current = openSet.first();
+            openSet.remove(current);
+            sum += current.id;
+            for (int j = 0; j < branching; j++) {
+                openSet.add(new TimeNode(situation, j, current, current.timeSpent + 0.05, values[(int) id], id++));
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long searchArena() {
+        arena.clear();
+        arena.add(0, SearchArena.NO_PARENT, 0, values[0]);
+        long sum = 0;
+        for (int i = 0; i < expansions; i++) {
+            int current = arena.poll();
+            sum += current;
+            for (int j = 0; j < branching; j++) {
+                arena.add(j, current, arena.getTimeSpent(current) + 0.05, values[arena.size()]);
+            }
+        }
+        return sum;
+    }
+
+    /** Like {@link #searchArena()}, but every node's situation is also copied to its slot, as AStar does. */
+    @Benchmark
+    public long searchArenaWithStates() {
+        arena.clear();
+        arena.add(situation, 0, SearchArena.NO_PARENT, 0, values[0]);
+        long sum = 0;
+        for (int i = 0; i < expansions; i++) {
+            int current = arena.poll();
+            sum += current;
+            for (int j = 0; j < branching; j++) {
+                arena.add(situation, j, current, arena.getTimeSpent(current) + 0.05, values[arena.size()]);
+            }
+        }
+        return sum;
+    }
+}
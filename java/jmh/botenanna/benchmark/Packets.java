@@ -0,0 +1,137 @@
+package botenanna.benchmark;
+
+import botenanna.game.Arena;
+import botenanna.game.Boostpad;
+import botenanna.physics.BallSimulator;
+import rlbot.api.GameData;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/** Packets for the benchmarks. A scenario is either the name of a synthetic scenario, see {@link #SCENARIOS}, or the
+ * path of a file of recorded packets. */
+public class Packets {
+
+    /** The names of the synthetic scenarios. */
+    public static final String[] SCENARIOS = {"kickoff", "midfield", "wall"};
+    /** The length of a synthetic scenario in game time. */
+    public static final double SCENARIO_DURATION = 2;
+    /** The time between two packets, like the game sends them. */
+    public static final double PACKET_INTERVAL = 1 / 60.0;
+
+    /** @return the packets of the given scenario. A synthetic scenario has a packet every {@link #PACKET_INTERVAL}
+     * for {@link #SCENARIO_DURATION}, where the cars drive straight on and the ball flies and bounces. */
+    public static GameData.GameTickPacket[] get(String scenario) throws IOException {
+        switch (scenario) {
+            case "kickoff": return createScenario(0, -4608, 0, 0, 0, 93, 0, 0, 0);
+            case "midfield": return createScenario(-1500, -2500, 900, 1200, 600, 300, 400, -300, 500);
+            case "wall": return createScenario(2800, 1000, 3900, 2200, 3850, 900, 600, 800, -200);
+            default: return load(scenario);
+        }
+    }
+
+    /** @return a copy of the packet with another game time. */
+    public static GameData.GameTickPacket withGameTime(GameData.GameTickPacket packet, double gameTime) {
+        return packet.toBuilder()
+                .setGameInfo(packet.getGameInfo().toBuilder().setSecondsElapsed((float) gameTime))
+                .build();
+    }
+
+    /** @return the game time from the first packet until the packet after the last, if the packets were continued. */
+    public static double getDuration(GameData.GameTickPacket[] packets) {
+        double first = packets[0].getGameInfo().getSecondsElapsed();
+        double last = packets[packets.length - 1].getGameInfo().getSecondsElapsed();
+        return last - first + PACKET_INTERVAL;
+    }
+
+    /** Create the packets of a synthetic scenario. Both cars start facing the ball and keep their velocity, and the
+     * ball is simulated by the {@link BallSimulator}.
+     * @param carX the x position of the first car. The second car mirrors it.
+     * @param carY the y position of the first car. The second car mirrors it. */
+    private static GameData.GameTickPacket[] createScenario(double carX, double carY, double carSpeed,
+                                                            double ballX, double ballY, double ballZ,
+                                                            double ballVx, double ballVy, double ballVz) {
+        double[] yaws = new double[2];
+        for (int team = 0; team < 2; team++) {
+            double sign = team == 0 ? 1 : -1;
+            yaws[team] = Math.atan2(ballY - sign * carY, ballX - sign * carX);
+        }
+        double[] ball = new double[BallSimulator.STATE_SIZE];
+        ball[BallSimulator.POS] = ballX;
+        ball[BallSimulator.POS + 1] = ballY;
+        ball[BallSimulator.POS + 2] = ballZ;
+        ball[BallSimulator.VEL] = ballVx;
+        ball[BallSimulator.VEL + 1] = ballVy;
+        ball[BallSimulator.VEL + 2] = ballVz;
+
+        int ticksPerPacket = (int) Math.round(PACKET_INTERVAL / BallSimulator.TICK);
+        GameData.GameTickPacket[] packets = new GameData.GameTickPacket[(int) Math.round(SCENARIO_DURATION / PACKET_INTERVAL)];
+        for (int i = 0; i < packets.length; i++) {
+            double time = i * PACKET_INTERVAL;
+            GameData.GameTickPacket.Builder packet = GameData.GameTickPacket.newBuilder().setPlayerIndex(0);
+            for (int team = 0; team < 2; team++) {
+                double sign = team == 0 ? 1 : -1;
+                double vx = Math.cos(yaws[team]) * carSpeed;
+                double vy = Math.sin(yaws[team]) * carSpeed;
+                // The cars stop at the walls
+                double x = clamp(sign * carX + vx * time, Arena.WALL_X - 100);
+                double y = clamp(sign * carY + vy * time, Arena.WALL_Y - 100);
+                packet.addPlayers(GameData.PlayerInfo.newBuilder()
+                        .setLocation(vector(x, y, 17))
+                        .setVelocity(vector(vx, vy, 0))
+                        .setRotation(GameData.Rotator.newBuilder().setYaw((float) yaws[team]))
+                        .setTeam(team)
+                        .setBoost(33));
+            }
+            // Boost pad 6 is skipped when the packet is read, so there is one extra
+            for (int pad = 0; pad <= Boostpad.COUNT_TOTAL_PADS; pad++) {
+                double angle = pad * 2 * Math.PI / (Boostpad.COUNT_TOTAL_PADS + 1);
+                packet.addBoostPads(GameData.BoostInfo.newBuilder()
+                        .setLocation(vector(Math.cos(angle) * 3000, Math.sin(angle) * 4000, 0))
+                        .setIsActive(true));
+            }
+            int p = BallSimulator.POS, v = BallSimulator.VEL, w = BallSimulator.ANG;
+            packet.setBall(GameData.BallInfo.newBuilder()
+                    .setLocation(vector(ball[p], ball[p + 1], ball[p + 2]))
+                    .setVelocity(vector(ball[v], ball[v + 1], ball[v + 2]))
+                    .setAngularVelocity(vector(ball[w], ball[w + 1], ball[w + 2])));
+            packet.setGameInfo(GameData.GameInfo.newBuilder().setSecondsElapsed((float) time).setIsRoundActive(true));
+            packets[i] = packet.build();
+
+            BallSimulator.tick(ball, 0, ticksPerPacket);
+        }
+        return packets;
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(-max, Math.min(max, value));
+    }
+
+    private static GameData.Vector3 vector(double x, double y, double z) {
+        return GameData.Vector3.newBuilder().setX((float) x).setY((float) y).setZ((float) z).build();
+    }
+
+    /** Read packets recorded as length-delimited GameTickPackets. The file may be gzipped, which is detected from the
+     * .gz extension. */
+    public static GameData.GameTickPacket[] load(String file) throws IOException {
+        List<GameData.GameTickPacket> packets = new ArrayList<>();
+        try (InputStream input = open(file)) {
+            GameData.GameTickPacket packet;
+            while ((packet = GameData.GameTickPacket.parseDelimitedFrom(input)) != null) {
+                packets.add(packet);
+            }
+        }
+        if (packets.isEmpty()) throw new IOException("No packets in " + file);
+        return packets.toArray(new GameData.GameTickPacket[0]);
+    }
+
+    private static InputStream open(String file) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+        return file.endsWith(".gz") ? new GZIPInputStream(input) : input;
+    }
+}
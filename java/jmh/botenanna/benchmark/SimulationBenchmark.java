@@ -0,0 +1,34 @@
+package botenanna.benchmark;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Situation;
+import botenanna.game.simulation.Simulation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+/** Measures one step of {@link Simulation#simulate(Situation, double, ActionSet)}, which the planners do for every
+ * node they expand. */
+@State(Scope.Thread)
+public class SimulationBenchmark {
+
+    /** A synthetic scenario, see {@link Packets#SCENARIOS}, or a file of recorded packets. The first packet is used. */
+    @Param({"kickoff", "midfield", "wall"})
+    public String scenario;
+
+    @Param({"0.1"})
+    public double stepsize;
+
+    private Situation situation;
+    private final ActionSet action = new ActionSet().withThrottle(1).withSteer(0.5).withBoost();
+
+    @Setup
+    public void setup() throws IOException {
+        situation = new Situation(Packets.get(scenario)[0]);
+    }
+
+    @Benchmark
+    public Situation simulate() {
+        return Simulation.simulate(situation, stepsize, action);
+    }
+}
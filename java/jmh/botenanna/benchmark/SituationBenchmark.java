@@ -0,0 +1,36 @@
+package botenanna.benchmark;
+
+import botenanna.game.Situation;
+import org.openjdk.jmh.annotations.*;
+import rlbot.api.GameData;
+
+import java.io.IOException;
+
+/** Measures reading a packet into a Situation, which happens on every tick. Situation reads lazily, so the benchmark
+ * also touches what every tick needs: the cars and the ball. */
+@State(Scope.Thread)
+public class SituationBenchmark {
+
+    /** A synthetic scenario, see {@link Packets#SCENARIOS}, or a file of recorded packets which are cycled through. */
+    @Param({"kickoff", "midfield", "wall"})
+    public String scenario;
+
+    private GameData.GameTickPacket[] packets;
+    private int next = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        packets = Packets.get(scenario);
+    }
+
+    @Benchmark
+    public Situation newSituation() {
+        GameData.GameTickPacket packet = packets[next];
+        next = (next + 1) % packets.length;
+        Situation situation = new Situation(packet);
+        situation.getMyCar();
+        situation.getEnemyCar();
+        situation.getBall();
+        return situation;
+    }
+}
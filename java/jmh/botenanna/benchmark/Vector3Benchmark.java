@@ -0,0 +1,65 @@
+package botenanna.benchmark;
+
+import botenanna.math.Vector3;
+import org.openjdk.jmh.annotations.*;
+
+/** Measures the Vector3 arithmetic used everywhere in the simulation and the intention functions. Every operation
+ * creates a new Vector3, so the allocation rate is as interesting as the time. */
+@State(Scope.Thread)
+public class Vector3Benchmark {
+
+    private Vector3 a;
+    private Vector3 b;
+
+    @Setup
+    public void setup() {
+        a = new Vector3(1200.5, -340.25, 93.1);
+        b = new Vector3(-20.75, 4410, 17.03);
+    }
+
+    @Benchmark
+    public Vector3 plus() {
+        return a.plus(b);
+    }
+
+    @Benchmark
+    public Vector3 minus() {
+        return a.minus(b);
+    }
+
+    @Benchmark
+    public Vector3 scale() {
+        return a.scale(0.5);
+    }
+
+    @Benchmark
+    public double dot() {
+        return a.dot(b);
+    }
+
+    @Benchmark
+    public Vector3 cross() {
+        return a.cross(b);
+    }
+
+    @Benchmark
+    public double getMagnitude() {
+        return a.getMagnitude();
+    }
+
+    @Benchmark
+    public Vector3 getNormalized() {
+        return a.getNormalized();
+    }
+
+    @Benchmark
+    public double getAngleTo() {
+        return a.getAngleTo(b);
+    }
+
+    /** A typical chain, like moving a point with constant acceleration. */
+    @Benchmark
+    public Vector3 chain() {
+        return a.plus(b.scale(0.1)).plus(Vector3.DOWN.scale(650 * 0.5 * 0.01));
+    }
+}
@@ -12,8 +12,9 @@ public class Bot {
 
     private final Team team;
     private final int playerIndex;
-    private BehaviorTree behaviorTree;
-    private Situation lastInputReceived;
+    // Both are read by the display window's thread too
+    private volatile BehaviorTree behaviorTree;
+    private volatile Situation lastInputReceived;
 
     /** A Rocket League agent. */
     public Bot(int playerIndex, int teamIndex, BehaviorTree tree) {
@@ -0,0 +1,40 @@
+package botenanna;
+
+import botenanna.game.Situation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/** <p>The BotUpdateMailbox hands the latest Situation of each bot from the tick threads to a reader, like the
+ * display window, that samples at its own rate.</p>
+ *
+ * <p>Each bot has one slot holding only the latest Situation. Posting never blocks and simply overwrites
+ * what the reader has not taken yet, so a slow reader never stalls a tick, and updates coalesce instead.</p> */
+public class BotUpdateMailbox {
+
+    private final ConcurrentMap<Bot, AtomicReference<Situation>> slots = new ConcurrentHashMap<>();
+
+    /** Replace the bot's latest Situation. Called from the tick threads. */
+    public void post(Bot bot, Situation situation) {
+        AtomicReference<Situation> slot = slots.get(bot);
+        if (slot == null) {
+            // Only happens the first time a bot posts
+            slot = slots.computeIfAbsent(bot, b -> new AtomicReference<>());
+        }
+        slot.set(situation);
+    }
+
+    /** Give {@code reader} the latest Situation of every bot that has posted since the last call. Each Situation is
+     * given at most once. Bots that have not posted since are skipped. */
+    public void drain(BiConsumer<Bot, Situation> reader) {
+        for (Map.Entry<Bot, AtomicReference<Situation>> entry : slots.entrySet()) {
+            Situation situation = entry.getValue().getAndSet(null);
+            if (situation != null) {
+                reader.accept(entry.getKey(), situation);
+            }
+        }
+    }
+}
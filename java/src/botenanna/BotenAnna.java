@@ -2,7 +2,9 @@ package botenanna;
 
 import botenanna.behaviortree.builder.BehaviourTreeBuilder;
 import botenanna.display.BallInfoDisplay;
+import botenanna.display.BehaviourTreeChooser;
 import botenanna.display.BotInfoDisplay;
+import botenanna.game.Situation;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.beans.property.LongProperty;
@@ -13,12 +15,12 @@ import javafx.scene.layout.*;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
 
 public class BotenAnna extends Application {
 
     public static BehaviourTreeBuilder defaultBTBuilder;
 
+    private BehaviourTreeChooser treeChooser;
     private Pane root;
     private Pane botInfoDisplayRoot;
     private GrpcServer grpc;
@@ -54,23 +56,23 @@ public class BotenAnna extends Application {
 
     private void startGrpcServerAndInputPoll() throws Exception {
         // The javafx application thread does not allow other threads to call its methods
-        // so a multi-thread safe queue is used to send data between the window and the server
-        final ArrayBlockingQueue<Bot> botUpdateQueue = new ArrayBlockingQueue<>(3);
-        grpc = new GrpcServer(botUpdateQueue);
+        // so a mailbox holding the latest situation of each bot is used to send data between the window and the server
+        final BotUpdateMailbox botUpdateMailbox = new BotUpdateMailbox();
+        grpc = new GrpcServer(defaultBTBuilder);
+        grpc.getService().setBotUpdateMailbox(botUpdateMailbox);
         grpc.start();
         System.out.println(String.format("Grpc server started on port %s. Listening for Rocket League data!", grpc.getPort()));
 
-        // Setup timer that acts each frame and checks bot updates placed in botUpdateQueue
+        // Setup timer that acts each frame and shows the latest situation of each bot placed in botUpdateMailbox
         final LongProperty lastUpdate = new SimpleLongProperty();
         AnimationTimer timer = new AnimationTimer() {
             @Override
             public void handle(long now) {
                 if (now - lastUpdate.get() > 0) {
-                    final Bot bot = botUpdateQueue.poll();
-                    if (bot != null) {
-                        updateBotInfoDisplay(bot);
-                        ballInfoDisplay.update(bot.getLastInputReceived());
-                    }
+                    botUpdateMailbox.drain((bot, situation) -> {
+                        updateBotInfoDisplay(bot, situation);
+                        ballInfoDisplay.update(situation);
+                    });
                     lastUpdate.set(now);
                 }
             }
@@ -79,8 +81,9 @@ public class BotenAnna extends Application {
     }
 
     private void createDefaultBehaviourTreeBuilder(Stage stage) {
-        defaultBTBuilder = new BehaviourTreeBuilder(stage);
-        defaultBTBuilder.setupDefaultFile();
+        defaultBTBuilder = new BehaviourTreeBuilder();
+        treeChooser = new BehaviourTreeChooser(stage, defaultBTBuilder);
+        treeChooser.setupDefaultFile();
         try {
             // Build a behaviour tree to make sure file is valid. The tree is immediately discarded
             defaultBTBuilder.buildUsingDefault();
@@ -90,13 +93,13 @@ public class BotenAnna extends Application {
         }
     }
 
-    public void updateBotInfoDisplay(Bot bot) {
+    public void updateBotInfoDisplay(Bot bot, Situation situation) {
         // Create new display if it is a new bot
         if (!botInfoDisplays.containsKey(bot)) {
-            BotInfoDisplay display = new BotInfoDisplay(bot);
+            BotInfoDisplay display = new BotInfoDisplay(bot, treeChooser);
             botInfoDisplayRoot.getChildren().add(display);
             botInfoDisplays.put(bot, display);
         }
-        botInfoDisplays.get(bot).update();
+        botInfoDisplays.get(bot).update(situation);
     }
 }
@@ -1,13 +1,17 @@
 package botenanna;
 
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.behaviortree.intentions.Intention;
+import botenanna.game.simulation.PlanningService;
+import botenanna.replay.ReplayRecorder;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Optional;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.stream.Stream;
 
 public class GrpcServer {
@@ -16,9 +20,66 @@ public class GrpcServer {
     private static final String PORT_FILE_NAME = "port.txt";
 
     private final int port;
+    private final GrpcService service;
     private final Server server;
 
-    public GrpcServer(ArrayBlockingQueue<Bot> botUpdateQueue) throws IOException {
+    /** Headless entry point. Serves bots without any window and without loading JavaFX. The path of the behaviour tree
+     * file can be given as the first argument. Otherwise the tree used last time is used. With
+     * {@code --record <file>} every packet received is recorded to the file, see {@link ReplayRecorder}. */
+    public static void main(String[] args) throws Exception {
+        long startTime = System.nanoTime();
+
+        File treeFile = null;
+        File recordFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--record") && i + 1 < args.length) {
+                recordFile = new File(args[++i]);
+            } else if (treeFile == null) {
+                treeFile = new File(args[i]);
+            }
+        }
+        if (treeFile == null) treeFile = BehaviourTreeBuilder.getPreviouslyUsedTreeFile();
+        if (treeFile == null || !treeFile.exists()) {
+            System.out.println("No behaviour tree source file found. Give the path of one as the first argument.");
+            System.exit(-1);
+        }
+
+        BehaviourTreeBuilder treeBuilder = new BehaviourTreeBuilder(treeFile);
+        try {
+            // Build a behaviour tree to make sure file is valid. The tree is immediately discarded
+            treeBuilder.buildUsingDefault();
+        } catch (Exception e) {
+            System.out.println("Error when opening behaviour tree source file: " + e.getMessage());
+            System.exit(-1);
+        }
+
+        // Search for plans in the background, so the ticks never wait for a search
+        PlanningService planningService = new PlanningService(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        Intention.setPlanningService(planningService);
+
+        GrpcServer grpc = new GrpcServer(treeBuilder);
+        if (recordFile != null) {
+            ReplayRecorder recorder = ReplayRecorder.open(recordFile);
+            grpc.getService().setReplayRecorder(recorder);
+            // The server is usually stopped by ending the JVM, so the replay is closed then, which writes what remains
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recorder.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close the replay: " + e.getMessage());
+                }
+            }));
+            System.out.println("Recording packets to " + recordFile.getPath());
+        }
+        grpc.start();
+        System.out.println(String.format("Grpc server started on port %s in %d ms using %s. Listening for Rocket League data!",
+                grpc.getPort(), (System.nanoTime() - startTime) / 1_000_000, treeFile.getName()));
+        grpc.blockUntilShutdown();
+        planningService.shutdown();
+    }
+
+    /** @param treeBuilder used to build the behaviour tree of each new bot from its default file. */
+    public GrpcServer(BehaviourTreeBuilder treeBuilder) throws IOException {
 
         // Scenario: you finished your bot and submitted it to a tournament. Your opponent hard-coded the same
         // as you, and the match can't start because of the conflict. Because of this line, you can ask the
@@ -26,7 +87,8 @@ public class GrpcServer {
         // This matches code in JavaAgent.py
         port = readPortFromFile().orElse(DEFAULT_PORT);
 
-        server = ServerBuilder.forPort(port).addService(new GrpcService(botUpdateQueue)).build();
+        service = new GrpcService(treeBuilder);
+        server = ServerBuilder.forPort(port).addService(service).build();
     }
 
     /** Start serving requests. */
@@ -45,6 +107,12 @@ public class GrpcServer {
         if (server != null) {
             server.shutdown();
         }
+        service.shutdown();
+    }
+
+    /** Wait until the server has been shut down. */
+    public void blockUntilShutdown() throws InterruptedException {
+        server.awaitTermination();
     }
 
     private static Optional<Integer> readPortFromFile() {
@@ -63,4 +131,9 @@ public class GrpcServer {
     public int getPort() {
         return port;
     }
+
+    /** @return the service evaluating the ticks. Observers like a display window can be attached to it. */
+    public GrpcService getService() {
+        return service;
+    }
 }
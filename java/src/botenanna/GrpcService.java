@@ -1,25 +1,51 @@
 package botenanna;
 
 import botenanna.behaviortree.BehaviorTree;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
 import botenanna.game.ActionSet;
 import botenanna.game.Situation;
 import botenanna.physics.TimeTracker;
+import botenanna.replay.ReplayRecorder;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import rlbot.api.BotGrpc;
 import rlbot.api.GameData;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 public class GrpcService extends BotGrpc.BotImplBase {
     public Bot bot;
     private TimeTracker timeTracker = new TimeTracker();
-    private Map<Integer, Bot> registeredBots = new HashMap<>();
-    private ArrayBlockingQueue<Bot> botUpdateQueue;
+    // Bots are only ever created and used on the lane of their player index
+    private final ConcurrentMap<Integer, Bot> registeredBots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, ExecutorService> lanes = new ConcurrentHashMap<>();
+    private final BehaviourTreeBuilder treeBuilder;
+    private volatile BotUpdateMailbox botUpdateMailbox;
+    private volatile ReplayRecorder replayRecorder;
+    private volatile boolean isShutdown = false;
 
-    public GrpcService(ArrayBlockingQueue<Bot> botUpdateQueue) {
-        this.botUpdateQueue = botUpdateQueue;
+    /** @param treeBuilder used to build a behaviour tree from its default file for each new bot. */
+    public GrpcService(BehaviourTreeBuilder treeBuilder) {
+        this.treeBuilder = treeBuilder;
+    }
+
+    /** Attach a mailbox that receives the latest situation of each bot, e.g. for a display window. Null detaches it.
+     * Without a mailbox no time is spent on observers. */
+    public void setBotUpdateMailbox(BotUpdateMailbox botUpdateMailbox) {
+        this.botUpdateMailbox = botUpdateMailbox;
+    }
+
+    /** Attach a recorder that receives every packet before it is evaluated. Null detaches it. */
+    public void setReplayRecorder(ReplayRecorder replayRecorder) {
+        this.replayRecorder = replayRecorder;
     }
 
     /**
@@ -29,47 +55,201 @@ public class GrpcService extends BotGrpc.BotImplBase {
     @Override
     public void getControllerState(GameData.GameTickPacket request, StreamObserver<GameData.ControllerState> responseObserver) {
         // Evaluate the message (GameTickPacket) and respond with a ControllerState
-        responseObserver.onNext(evaluateGameTick(request));
+        GameData.ControllerState state;
+        try {
+            state = evaluateGameTick(request);
+        } catch (RejectedExecutionException e) {
+            responseObserver.onError(Status.UNAVAILABLE.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(state);
         responseObserver.onCompleted();
     }
 
+    /**
+     * The streaming version of {@link #getControllerState(GameData.GameTickPacket, StreamObserver)}. The client keeps
+     * one stream open for the whole match and sends a GameTickPacket every tick. Each packet is answered with exactly
+     * one ControllerState, and the answers are sent in the same order as the packets arrived, also when the stream
+     * mixes players. The players' lanes still evaluate their ticks in parallel, but an answer that is ready early waits
+     * for the answers before it. When the client completes the stream, it is completed once every packet is answered.
+     * If the service is shut down, the stream fails with UNAVAILABLE. The time spent on each tick, including time
+     * waiting for the player's lane, is recorded and summarized when the stream closes.
+     */
+    @Override
+    public StreamObserver<GameData.GameTickPacket> streamControllerStates(StreamObserver<GameData.ControllerState> responseObserver) {
+        final LatencyStats latency = new LatencyStats();
+        final OrderedResponses responses = new OrderedResponses(responseObserver);
+        return new StreamObserver<GameData.GameTickPacket>() {
+            @Override
+            public void onNext(GameData.GameTickPacket packet) {
+                long start = System.nanoTime();
+                long sequence = responses.nextSequence();
+                try {
+                    evaluateGameTickAsync(packet, state -> {
+                        latency.record(System.nanoTime() - start);
+                        responses.answer(sequence, state);
+                    });
+                } catch (RejectedExecutionException e) {
+                    responses.fail(Status.UNAVAILABLE.withDescription(e.getMessage()).asRuntimeException());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                System.out.println("Tick stream closed with error: " + t.getMessage() + ". " + latency);
+                responses.cancel();
+            }
+
+            @Override
+            public void onCompleted() {
+                System.out.println("Tick stream closed. " + latency);
+                responses.complete();
+            }
+        };
+    }
+
+    /**
+     * The answers of one tick stream. Lanes of different players finish their ticks in any order, so answers are
+     * given a sequence number when their packet arrives, and are only sent when all answers before them are sent.
+     * A StreamObserver is not thread safe, so it is only used while holding this object's lock.
+     */
+    private static class OrderedResponses {
+        private final StreamObserver<GameData.ControllerState> observer;
+        private final Map<Long, GameData.ControllerState> waiting = new HashMap<>();
+        private long received = 0;
+        private long sent = 0;
+        private boolean isCompleted = false;
+        private boolean isClosed = false;
+
+        OrderedResponses(StreamObserver<GameData.ControllerState> observer) {
+            this.observer = observer;
+        }
+
+        /** @return the sequence number of a packet that just arrived. */
+        synchronized long nextSequence() {
+            return received++;
+        }
+
+        /** Send the answer to the packet with the given sequence number, and any waiting answers after it. */
+        synchronized void answer(long sequence, GameData.ControllerState state) {
+            if (isClosed) return;
+            waiting.put(sequence, state);
+            GameData.ControllerState next;
+            while ((next = waiting.remove(sent)) != null) {
+                observer.onNext(next);
+                sent++;
+            }
+            completeIfAnswered();
+        }
+
+        /** No more packets arrive. The stream is completed when every packet is answered. */
+        synchronized void complete() {
+            isCompleted = true;
+            completeIfAnswered();
+        }
+
+        /** Close the stream with an error. Answers that arrive later are dropped. */
+        synchronized void fail(Throwable error) {
+            if (isClosed) return;
+            cancel();
+            observer.onError(error);
+        }
+
+        /** The client closed the stream. Answers that arrive later are dropped. */
+        synchronized void cancel() {
+            isClosed = true;
+            waiting.clear();
+        }
+
+        private void completeIfAnswered() {
+            if (isCompleted && !isClosed && sent == received) {
+                isClosed = true;
+                observer.onCompleted();
+            }
+        }
+    }
+
     /**
      * This is the method were we evaluate the GameTickPacket from the grpc server.
      * It returns a ControllerState, which is then sent to Rocket League.
-     * In other words, THIS IS WHERE THE MAGIC HAPPENS
+     * The packet is evaluated on the lane of its player, and the calling thread waits for the result.
+     * @throws RejectedExecutionException if the service is shut down.
      */
     public GameData.ControllerState evaluateGameTick(GameData.GameTickPacket request) {
+        record(request);
+        int playerIndex = request.getPlayerIndex();
+
+        // If the index of this player is greater than the playerCount,
+        // then we don't know anything about this car
+        if (request.getPlayersCount() <= playerIndex) {
+            return new ActionSet().toControllerState();
+        }
+
         try {
-            int playerIndex = request.getPlayerIndex();
+            return getLane(playerIndex).submit(() -> processGameTick(request)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ActionSet().toControllerState();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return new ActionSet().toControllerState();
+        }
+    }
 
-            // If the index of this player is greater than the playerCount,
-            // then we don't know anything about this car
-            if (request.getPlayersCount() <= playerIndex) {
-                return new ActionSet().toControllerState();
-            }
+    /**
+     * Evaluate the GameTickPacket on the lane of its player without waiting for the result. The {@code callback}
+     * receives the ControllerState on the lane's thread.
+     * @throws RejectedExecutionException if the service is shut down. The callback is not called then.
+     */
+    public void evaluateGameTickAsync(GameData.GameTickPacket request, Consumer<GameData.ControllerState> callback) {
+        record(request);
+        int playerIndex = request.getPlayerIndex();
 
-            request.getGameInfo().getGameTimeRemaining();
+        if (request.getPlayersCount() <= playerIndex) {
+            callback.accept(new ActionSet().toControllerState());
+            return;
+        }
+
+        getLane(playerIndex).execute(() -> callback.accept(processGameTick(request)));
+    }
+
+    /** Give the packet to the replay recorder, if there is one. */
+    private void record(GameData.GameTickPacket request) {
+        ReplayRecorder recorder = replayRecorder;
+        if (recorder != null) {
+            recorder.record(request);
+        }
+    }
+
+    /**
+     * Here THE MAGIC HAPPENS. Must only be called from the lane of the packet's player, which means all ticks
+     * of one bot are processed in order, one at a time, while bots of other players run on their own lanes.
+     */
+    private GameData.ControllerState processGameTick(GameData.GameTickPacket request) {
+        try {
+            int playerIndex = request.getPlayerIndex();
 
             // Rework the package
             Situation input = new Situation(request);
 
-
-            // Create and register bot from this packet if necessary
-            synchronized (this) {
-                if (!registeredBots.containsKey(playerIndex)) {
-                    int teamIndex = request.getPlayers(playerIndex).getTeam() % 2;
-                    BehaviorTree tree = BotenAnna.defaultBTBuilder.buildUsingDefault();
-                    Bot bot = new Bot(playerIndex, teamIndex, tree);
-                    registeredBots.put(playerIndex, bot);
-                }
+            // Create and register bot from this packet if necessary. Only this lane creates this player's bot
+            Bot bot = registeredBots.get(playerIndex);
+            if (bot == null) {
+                int teamIndex = request.getPlayers(playerIndex).getTeam() % 2;
+                BehaviorTree tree = treeBuilder.buildUsingDefault();
+                bot = new Bot(playerIndex, teamIndex, tree);
+                registeredBots.put(playerIndex, bot);
             }
 
-            // This is the bot that needs to think
-            Bot bot = registeredBots.get(playerIndex);
             bot.setLastInputReceived(input);
 
-            // Put bot in queue, so window can show the new state of the bot
-            botUpdateQueue.put(bot);
+            // Leave the newest situation in the mailbox, so window can show the new state of the bot. Never blocks.
+            // The window reads it on another thread, so everything is decoded before it is shared
+            BotUpdateMailbox mailbox = botUpdateMailbox;
+            if (mailbox != null) {
+                input.decode();
+                mailbox.post(bot, input);
+            }
 
             return bot.process(input).toControllerState();
 
@@ -79,4 +259,23 @@ public class GrpcService extends BotGrpc.BotImplBase {
             return new ActionSet().toControllerState();
         }
     }
+
+    /** @return the single-threaded executor that evaluates all ticks of the given player. Created on first use.
+     * @throws RejectedExecutionException if the service is shut down. */
+    private ExecutorService getLane(int playerIndex) {
+        if (isShutdown) throw new RejectedExecutionException("The bot is shut down.");
+        return lanes.computeIfAbsent(playerIndex, index -> Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Bot lane #" + index);
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /** Stop all lanes. Ticks already submitted are still evaluated, but new ticks are rejected. */
+    public void shutdown() {
+        isShutdown = true;
+        for (ExecutorService lane : lanes.values()) {
+            lane.shutdown();
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package botenanna;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** Collects the duration of ticks, so the time spent per tick can be measured. Durations are recorded in nanoseconds.
+ * Every duration is kept, so percentiles are exact. A tick costs 8 bytes, e.g. about 2 MB for an hour at 60 ticks per
+ * second. */
+public class LatencyStats {
+
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private long[] durations = new long[1024];
+
+    /** Record the duration of one tick.
+     * @param nanos the duration in nanoseconds. */
+    public synchronized void record(long nanos) {
+        if (count == durations.length) {
+            durations = Arrays.copyOf(durations, durations.length * 2);
+        }
+        durations[(int) count] = nanos;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /** @return the mean duration in milliseconds, or 0 if nothing has been recorded. */
+    public synchronized double getMeanMillis() {
+        return count == 0 ? 0 : toMillis(totalNanos) / count;
+    }
+
+    /** @return the longest duration in milliseconds. */
+    public synchronized double getMaxMillis() {
+        return toMillis(maxNanos);
+    }
+
+    /** @return the duration in milliseconds that the given percentage of the ticks were at most, using the nearest rank,
+     * or 0 if nothing has been recorded.
+     * @param percentile must be between 0 and 100. */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        if (count == 0) return 0;
+
+        long[] sorted = Arrays.copyOf(durations, (int) count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return toMillis(sorted[Math.max(0, rank - 1)]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** @return "Ticks: n, mean: x ms, p50: x ms, p90: x ms, p99: x ms, max: y ms" */
+    @Override
+    public synchronized String toString() {
+        return String.format("Ticks: %d, mean: %.3f ms, p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, max: %.3f ms",
+                count, getMeanMillis(), getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99),
+                getMaxMillis());
+    }
+}
@@ -2,11 +2,6 @@ package botenanna.behaviortree.builder;
 
 import botenanna.behaviortree.BehaviorTree;
 import botenanna.behaviortree.Node;
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonBar;
-import javafx.scene.control.ButtonType;
-import javafx.stage.FileChooser;
-import javafx.stage.Stage;
 
 import java.io.*;
 import java.util.*;
@@ -17,43 +12,29 @@ public class BehaviourTreeBuilder {
 
     private static final File previousTreeSetupFile = new File(System.getProperty("user.home"), ".botenanna");
 
-    private Stage parent;
     private File defaultFile;
 
-    /** A BehaviourTreeBuilder is an assisting tool for building BehaviourTrees from files. The defaultFile can be specified
-     * with a FileChooser. */
-    public BehaviourTreeBuilder(Stage parent) {
-        this.parent = parent;
+    /** A BehaviourTreeBuilder is an assisting tool for building BehaviourTrees from files. The defaultFile must be
+     * set with {@link #setDefaultFile(File)} before {@link #buildUsingDefault()} can be used. */
+    public BehaviourTreeBuilder() {
     }
 
-    /** Set the defaultFile used to generate a behaviour tree with the buildUsingDefault method. This method will open a defaultFile chooser
-     * window, where the user can specify which defaultFile to open. */
-    public void setupDefaultFile() throws MissingBehaviourTreeException {
-        File previouslyUsedTree = getPreviouslyUsedTreeFile();
-        if (previouslyUsedTree != null) {
-            Alert defaultConfirmation = new Alert(Alert.AlertType.CONFIRMATION);
-            defaultConfirmation.setTitle("Default Behaviour Tree");
-            defaultConfirmation.setHeaderText("Would you like to use the same BT file as last time?");
-            defaultConfirmation.setContentText("Previously used BT file was:\n" + previouslyUsedTree.toPath());
-
-            ButtonType yesOption = new ButtonType("Yes");
-            ButtonType chooseOption = new ButtonType("Choose another");
-            ButtonType cancelOption = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
-            defaultConfirmation.getButtonTypes().setAll(yesOption, chooseOption, cancelOption);
-
-            Optional<ButtonType> result = defaultConfirmation.showAndWait();
-            if (result.get() == yesOption) {
-                defaultFile = previouslyUsedTree;
-            } else if (result.get() == chooseOption) {
-                defaultFile = getFileWithFileChooser();
-            }
-        } else {
-            defaultFile = getFileWithFileChooser();
-        }
+    /** A BehaviourTreeBuilder is an assisting tool for building BehaviourTrees from files.
+     * @param defaultFile the file used by {@link #buildUsingDefault()}. */
+    public BehaviourTreeBuilder(File defaultFile) {
+        this.defaultFile = defaultFile;
+    }
 
-        if (defaultFile != null) {
-            saveDefaultFilePath();
-        }
+    /** Set the defaultFile used to generate a behaviour tree with the buildUsingDefault method. The path of the file
+     * is remembered, so it can be found with {@link #getPreviouslyUsedTreeFile()} next time. */
+    public void setDefaultFile(File defaultFile) {
+        this.defaultFile = defaultFile;
+        saveDefaultFilePath();
+    }
+
+    /** @return the defaultFile used to generate a behaviour tree with the buildUsingDefault method. Can be null. */
+    public File getDefaultFile() {
+        return defaultFile;
     }
 
     /** Save the path of the default BT file in config file. */
@@ -74,8 +55,9 @@ public class BehaviourTreeBuilder {
         }
     }
 
-    /** Check if a config file exists and get BT file from it. */
-    private File getPreviouslyUsedTreeFile() {
+    /** Check if a config file exists and get BT file from it.
+     * @return the BT file used last time, or null if there is none. */
+    public static File getPreviouslyUsedTreeFile() {
         if (previousTreeSetupFile.exists()) {
             try (BufferedReader reader = new BufferedReader(new FileReader(previousTreeSetupFile))) {
 
@@ -92,14 +74,6 @@ public class BehaviourTreeBuilder {
         return null;
     }
 
-    /** Choose a behaviour tree with a file chooser window*/
-    private File getFileWithFileChooser() {
-        FileChooser fc = new FileChooser();
-        fc.setTitle("Open Behaviour Tree Source File");
-        fc.setInitialDirectory(new File(System.getProperty("user.home"), "documents/"));
-        return fc.showOpenDialog(parent);
-    }
-
     /** Build a BehaviourTree from the defaultFile specified with the {@code setupDefaultFile} method. Throws a MissingBehaviourTreeException
      * if the defaultFile has not been specified.
      * @return a BehaviourTree. */
@@ -108,13 +82,6 @@ public class BehaviourTreeBuilder {
         return build(defaultFile);
     }
 
-    /** Build a BehaviourTree from a file chosen with a file chooser */
-    public BehaviorTree buildFromFileChooser() throws FileNotFoundException, IOException {
-        File file = getFileWithFileChooser();
-        if (file == null) return null;
-        return build(file);
-    }
-
     /** Build a behaviour tree from a File. */
     public BehaviorTree build(File file) throws FileNotFoundException, IOException {
         return build(file, new HashSet<>());
@@ -188,15 +155,15 @@ public class BehaviourTreeBuilder {
         }
     }
 
-    /** Construct a behaviour tree subtree from a parent defaultFile and the name of the defaultFile of the subtree. This method
-     * expects that the subtree is in the same directory or a subdirectory of the parent defaultFile's directory. If
+    /** Construct a behaviour tree subtree from a parent file and the name of the file of the subtree. This method
+     * expects that the subtree is in the same directory or a subdirectory of the parent file's directory. If
      * {@code parentFile} is null or {@code subtreeName}'s length is zero, an IllegalArgument is thrown. An IOException
      * is thrown if the subtree defaultFile does not exist. */
     private Node buildSubtree(File parentFile, String subtreeName, Set<File> visitedFiles) throws IOException {
         if (parentFile == null) throw new IllegalArgumentException("Parent defaultFile cannot be null.");
         if (subtreeName.length() == 0) throw new IllegalArgumentException("Length of subtree's name cannot be zero.");
 
-        File subtree = new File(defaultFile.toPath().getParent().toString(), subtreeName);
+        File subtree = new File(parentFile.getAbsoluteFile().getParentFile(), subtreeName);
         if (!subtree.exists()) {
             throw new FileNotFoundException("Could not find subtree \"" + subtreeName + "\".");
         }
@@ -2,14 +2,12 @@ package botenanna.behaviortree.guards;
 
 import botenanna.game.Situation;
 import botenanna.behaviortree.ArgumentTranslator;
-import botenanna.Ball;
 import botenanna.behaviortree.Leaf;
 import botenanna.behaviortree.MissingNodeException;
 import botenanna.behaviortree.NodeStatus;
 import botenanna.math.Vector3;
 import botenanna.math.zone.Box;
-import botenanna.physics.BallPhysics;
-import botenanna.physics.SimplePhysics;
+import botenanna.physics.BallPrediction;
 
 import java.util.function.Function;
 
@@ -39,10 +37,12 @@ public class GuardWillBallHitGoal extends Leaf {
     public NodeStatus run(Situation situation) throws MissingNodeException {
 
         // Determine time it will take for ball to hit next Y-positive wall
-        double time = SimplePhysics.predictArrivalAtWallYPositive(situation.getBall(), Ball.RADIUS);
+        BallPrediction prediction = situation.getBallPrediction();
+        double time = prediction.getFirstTimeAtWallYPositive();
+        if (Double.isNaN(time)) return NodeStatus.DEFAULT_FAILURE;
 
         // Find position when hitting wall
-        Vector3 destination = BallPhysics.step(situation.getBall(), time).getPosition();
+        Vector3 destination = prediction.getPosition(time);
 
         // Determine area
         Box boxArea = (Box) areaFunc.apply(situation);
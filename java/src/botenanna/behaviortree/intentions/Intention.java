@@ -5,26 +5,160 @@ import botenanna.intentions.IntentionFunction;
 import botenanna.game.ActionSet;
 import botenanna.game.Situation;
 import botenanna.game.simulation.AStar;
-import botenanna.physics.TimeLine;
-import botenanna.physics.TimeTracker;
+import botenanna.game.simulation.BeamSearch;
+import botenanna.game.simulation.MonteCarloTreeSearch;
+import botenanna.game.simulation.Plan;
+import botenanna.game.simulation.Planner;
+import botenanna.game.simulation.PlanningService;
+import botenanna.game.simulation.SearchArena;
+import botenanna.physics.SteppedTimeLine;
 
-/** Intentions are nodes with no children. They use a intention function, the A*-algorithm, and simulation of the game to
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/** Intentions are nodes with no children. They use a intention function, a {@link Planner}, and simulation of the game to
  * find a sequence of ActionSets that will fulfil the intention. They return FAILURE when the method
  * {@link #shouldInterrupt(Situation)} returns true, and they return SUCCESS when the sequence is over. When there are
- * steps left in the sequence, they will return RUNNING with the evaluated ActionSet. */
+ * steps left in the sequence, they will return RUNNING with the evaluated ActionSet.
+ *
+ * Plans are timed using the game time of the Situations. If a {@link PlanningService} is set, the searching happens on
+ * its threads, and the intention keeps following its current plan until the new one arrives. Otherwise the search runs
+ * on the tick's thread for at most {@link #PLANNING_BUDGET_NANOS} each tick.
+ *
+ * The planner is chosen with options given after the other arguments, e.g. {@code "IntentionTouchBall planner=mcts
+ * iterations=500"}. The options are {@code planner=astar|mcts|beam}, which defaults to astar. For mcts:
+ * {@code iterations}, {@code depth}, {@code threads}, {@code rollout=random|repeat}, {@code exploration} and
+ * {@code seed}, see {@link MonteCarloTreeSearch.Settings}. For beam: {@code width} and {@code depth}, see
+ * {@link BeamSearch.Settings}. */
 public abstract class Intention extends Leaf {
 
     public static final double STEPSIZE = 0.05;
+    /** The maximum time spent searching for a sequence each tick. If the search is not finished, it continues next tick. */
+    public static final long PLANNING_BUDGET_NANOS = 4_000_000;
+    /** How often a new sequence is searched for from the current situation. The rest of the old sequence is used as
+     * the starting point of the new search. */
+    public static final double REPLAN_INTERVAL = 2 * STEPSIZE;
+
+    /** Pool used to search in parallel by all intentions. If null, searches are serial. */
+    private static volatile ForkJoinPool planningPool = null;
+    /** Service used to search in the background by all intentions. If null, searches happen during the ticks. */
+    private static volatile PlanningService planningService = null;
+    /** The maximum time spent searching each tick by all intentions, when they search during the ticks. */
+    private static volatile long planningBudgetNanos = PLANNING_BUDGET_NANOS;
 
+    private final MonteCarloTreeSearch.Settings mctsSettings; // Null if another planner is used
+    private final BeamSearch.Settings beamSettings; // Null if another planner is used
     private boolean isRunning = false;
     private IntentionFunction intentionFunction;
-    private TimeLine<ActionSet> sequence;
-    private TimeTracker timeTracker = new TimeTracker();
+    private SearchArena arena = new SearchArena();
+    private Planner search; // The search in progress on the tick's thread
+    private MonteCarloTreeSearch previousTree; // The last finished Monte-Carlo tree search, which can be reused
+    private double previousTreeStartTime;
+    private double searchStartTime;
+    private Future<Plan> pendingPlan; // The search in progress on the planning service
+    private Plan plan;
 
     public Intention(String[] arguments) throws IllegalArgumentException {
         super(arguments);
 
-        if (!isValidNumberOfArguments(arguments.length)) throw new IllegalArgumentException();
+        Map<String, String> options = parseOptions(arguments);
+        if (!isValidNumberOfArguments(arguments.length - options.size())) throw new IllegalArgumentException();
+        String planner = options.getOrDefault("planner", "astar");
+        switch (planner) {
+            case "astar":
+                if (options.size() > (options.containsKey("planner") ? 1 : 0))
+                    throw new IllegalArgumentException("The astar planner has no options. Options: " + options);
+                mctsSettings = null;
+                beamSettings = null;
+                break;
+            case "mcts":
+                mctsSettings = parseMctsOptions(options);
+                beamSettings = null;
+                break;
+            case "beam":
+                mctsSettings = null;
+                beamSettings = parseBeamOptions(options);
+                break;
+            default: throw new IllegalArgumentException("Unknown planner: " + planner);
+        }
+    }
+
+    /** Helper method for the constructor. The options are the trailing arguments of the form {@code key=value}.
+     * @return a map from key to value of the options. */
+    private static Map<String, String> parseOptions(String[] arguments) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = arguments.length - 1; i >= 0; i--) {
+            int split = arguments[i].indexOf('=');
+            if (split <= 0) break;
+            options.put(arguments[i].substring(0, split), arguments[i].substring(split + 1));
+        }
+        return options;
+    }
+
+    /** Helper method for the constructor.
+     * @return the settings of a Monte-Carlo tree search. */
+    private static MonteCarloTreeSearch.Settings parseMctsOptions(Map<String, String> options) throws IllegalArgumentException {
+        MonteCarloTreeSearch.Settings settings = new MonteCarloTreeSearch.Settings();
+        try {
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                String value = option.getValue();
+                switch (option.getKey()) {
+                    case "planner": break;
+                    case "iterations": settings.withIterations(Integer.parseInt(value)); break;
+                    case "depth": settings.withDepth(Integer.parseInt(value)); break;
+                    case "threads": settings.withThreads(Integer.parseInt(value)); break;
+                    case "rollout": settings.withRollout(MonteCarloTreeSearch.RolloutPolicy.valueOf(value.toUpperCase())); break;
+                    case "exploration": settings.withExploration(Double.parseDouble(value)); break;
+                    case "seed": settings.withSeed(Long.parseLong(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option for the mcts planner: " + option.getKey());
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option is not a number. Options: " + options, e);
+        }
+        return settings;
+    }
+
+    /** Helper method for the constructor.
+     * @return the settings of a beam search. */
+    private static BeamSearch.Settings parseBeamOptions(Map<String, String> options) throws IllegalArgumentException {
+        BeamSearch.Settings settings = new BeamSearch.Settings();
+        try {
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                String value = option.getValue();
+                switch (option.getKey()) {
+                    case "planner": break;
+                    case "width": settings.withWidth(Integer.parseInt(value)); break;
+                    case "depth": settings.withDepth(Integer.parseInt(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option for the beam planner: " + option.getKey());
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option is not a number. Options: " + options, e);
+        }
+        return settings;
+    }
+
+    /** Set the pool used to search in parallel by all intentions. If null, searches are serial. */
+    public static void setPlanningPool(ForkJoinPool pool) {
+        planningPool = pool;
+    }
+
+    /** Set the service used to search in the background by all intentions. If null, searches happen during the ticks. */
+    public static void setPlanningService(PlanningService service) {
+        planningService = service;
+    }
+
+    /** Set the maximum time spent searching each tick by all intentions, when they search during the ticks. Default is
+     * {@link #PLANNING_BUDGET_NANOS}. With {@code Long.MAX_VALUE}, every search finishes in the tick it starts, which
+     * makes the plans independent of how fast the computer is. */
+    public static void setPlanningBudget(long nanos) {
+        if (nanos < 0) throw new IllegalArgumentException("The planning budget must be zero or positive.");
+        planningBudgetNanos = nanos;
     }
 
     protected boolean isValidNumberOfArguments(int argumentCount) {
@@ -35,35 +169,150 @@ public abstract class Intention extends Leaf {
     public void reset() {
         isRunning = false;
         intentionFunction = null;
-        sequence = null;
+        stopPlanning();
+        previousTree = null;
+        plan = null;
     }
 
     @Override
     public NodeStatus run(Situation input) throws MissingNodeException {
+        double time = input.getGameTime();
+
         if (!isRunning) {
             intentionFunction = getIntentionFunction(input);
-            sequence = AStar.findSequence(input, intentionFunction, STEPSIZE);
-            timeTracker.startTimer();
+            plan = null;
+            startPlanning(input, null);
             isRunning = true;
         }
 
+        continuePlanning();
+
         // Interrupted?
         if (shouldInterrupt(input)) {
             isRunning = false;
+            stopPlanning();
             return NodeStatus.DEFAULT_FAILURE;
         }
 
-        // Out of next steps?
-        if (sequence.getLastTime() < timeTracker.getElapsedSecondsTimer() + STEPSIZE) {
-            // Start over
-            reset();
-            return run(input);
+        // Waiting for the first plan?
+        if (plan == null) {
+            if (!isPlanning()) {
+                // The search found nothing. Try again
+                intentionFunction = getIntentionFunction(input);
+                startPlanning(input, null);
+            }
+            return new NodeStatus(Status.RUNNING, new ActionSet(), this);
         }
 
-        ActionSet action = sequence.evaluate(timeTracker.getElapsedSecondsTimer());
+        if (!isPlanning()) {
+            if (plan.getEndTime() < time + STEPSIZE) {
+                // Out of next steps. Start over
+                intentionFunction = getIntentionFunction(input);
+                startPlanning(input, null);
+                continuePlanning();
+
+            } else if (time - plan.getStartTime() >= REPLAN_INTERVAL) {
+                // Time to search again from the current situation, starting with the actions not yet begun
+                intentionFunction = getIntentionFunction(input);
+                startPlanning(input, plan.getActionsAfter(time));
+                continuePlanning();
+            }
+        }
+
+        ActionSet action = plan.evaluate(time);
         return new NodeStatus(Status.RUNNING, action, this);
     }
 
+    /** Start a new search from the given situation. Any search in progress is stopped.
+     * @param incumbent actions to seed the search with. May be null. */
+    private void startPlanning(Situation situation, List<ActionSet> incumbent) {
+        stopPlanning();
+
+        PlanningService service = planningService;
+        if (service != null) {
+            situation.decode();
+            ForkJoinPool pool = service.getExpansionPool() != null ? service.getExpansionPool() : planningPool;
+            pendingPlan = service.submit(situation, createPlanner(situation, pool), incumbent);
+        } else {
+            search = createPlanner(situation, planningPool);
+            if (incumbent != null) {
+                search.setIncumbent(incumbent);
+            }
+        }
+        searchStartTime = situation.getGameTime();
+    }
+
+    /** Helper method for {@link #startPlanning(Situation, List)}. A Monte-Carlo tree search continues the tree of the
+     * previous search, if the current plan was found by it. */
+    private Planner createPlanner(Situation situation, ForkJoinPool pool) {
+        if (beamSettings != null) {
+            return new BeamSearch(situation, intentionFunction, STEPSIZE, beamSettings);
+        }
+        if (mctsSettings == null) {
+            return new AStar(situation, intentionFunction, STEPSIZE, pool, arena);
+        }
+
+        MonteCarloTreeSearch previous = null;
+        List<ActionSet> performed = null;
+        if (previousTree != null && plan != null && plan.getStartTime() == previousTreeStartTime) {
+            previous = previousTree;
+            performed = plan.getActionsUntil(situation.getGameTime());
+        }
+        MonteCarloTreeSearch tree = new MonteCarloTreeSearch(situation, intentionFunction, STEPSIZE, mctsSettings, pool, previous, performed);
+        previousTree = tree;
+        previousTreeStartTime = situation.getGameTime();
+        return tree;
+    }
+
+    /** Continue the search on the tick's thread, or adopt the plan from the planning service, if it has arrived.
+     * Until the search on the tick's thread is finished, the best sequence found so far is used. */
+    private void continuePlanning() {
+        if (search != null) {
+            boolean isFinished = search.search(planningBudgetNanos);
+            SteppedTimeLine<ActionSet> sequence = search.getSequence();
+            if (sequence != null && !sequence.isEmpty()) {
+                plan = new Plan(sequence, searchStartTime);
+            }
+            if (isFinished) {
+                search = null;
+            }
+
+        } else if (pendingPlan != null && pendingPlan.isDone()) {
+            try {
+                Plan newPlan = pendingPlan.get();
+                if (newPlan != null) {
+                    plan = newPlan;
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+            pendingPlan = null;
+        }
+    }
+
+    /** @return whether a search is in progress. */
+    private boolean isPlanning() {
+        return search != null || pendingPlan != null;
+    }
+
+    /** Stop any search in progress. */
+    private void stopPlanning() {
+        if (search != null) {
+            // The unfinished tree is not reused
+            previousTree = null;
+            search = null;
+        }
+        if (pendingPlan != null) {
+            if (!pendingPlan.isDone()) {
+                pendingPlan.cancel(true);
+                // The cancelled search may still use the arena and the tree for a moment
+                arena = new SearchArena();
+                previousTree = null;
+            }
+            pendingPlan = null;
+        }
+    }
+
     protected abstract IntentionFunction getIntentionFunction(Situation input);
     protected abstract boolean shouldInterrupt(Situation input);
 }
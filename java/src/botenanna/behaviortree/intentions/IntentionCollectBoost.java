@@ -18,7 +18,7 @@ public class IntentionCollectBoost extends Intention {
 
     @Override
     protected IntentionFunction getIntentionFunction(Situation input) {
-        final Vector3 bestPadPos = input.getBestBoostPad().getPosition(); // Not dynamic, since that will confuse the algorithms
+        final Vector3 bestPadPos = input.getBestBoostPadPosition(); // Not dynamic, since that will confuse the algorithms
         return new IntentionFunctionDriveOverPointWithAngle(s -> bestPadPos, s -> s.getBall().getPosition(), 0.45, Boostpad.PAD_RADIUS, false);
     }
 
@@ -77,7 +77,7 @@ public class TaskBallTowardsGoal extends Leaf {
             predictSeconds = 0;
         }*/
         double predictSeconds = input.getCollisionTime();
-        Vector3 expectedBallLocation = input.getBall().getPosition().plus(input.getBall().getVelocity().scale(predictSeconds));
+        Vector3 expectedBallLocation = input.getBallPrediction().getPosition(predictSeconds);
 
         //Vector2 ballToRightGoalPostVector = new Vector2(0,0);
         //Vector2 ballToLeftGoalPostVector = new Vector2(0,0);
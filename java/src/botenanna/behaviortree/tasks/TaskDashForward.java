@@ -12,8 +12,9 @@ public class TaskDashForward extends Leaf {
 
     private SteppedTimeLine<NodeStatus> timeLine;
     private boolean currentlyActive;
+    private double startTime;
 
-    /** <p>The TaskDashForward makes the car dash forward.</p>
+    /** <p>The TaskDashForward makes the car dash forward. The dash is timed using the game time of the Situations.</p>
      *  <p>It's signature is non existing </p>*/
     public TaskDashForward(String[] arguments) throws IllegalArgumentException {
         super(arguments);
@@ -37,23 +38,23 @@ public class TaskDashForward extends Leaf {
     @Override
     public void reset() {
         this.currentlyActive = false;
-        timeLine.reset();
     }
 
     @Override
     public NodeStatus run(Situation input) throws MissingNodeException {
 
         if(currentlyActive == false){
-            timeLine.reset();
+            startTime = input.getGameTime();
             currentlyActive = true;
             return new NodeStatus(Status.RUNNING, new ActionSet().withJump(false).withThrottle(1), this, true);
         }
 
-        if (timeLine.evaluate() == null){
+        NodeStatus status = timeLine.evaluate(input.getGameTime() - startTime);
+        if (status == null){
             currentlyActive = false;
             return new NodeStatus(Status.RUNNING, new ActionSet().withJump(false).withThrottle(1), this, true);
         }
 
-        return timeLine.evaluate();
+        return status;
     }
 }
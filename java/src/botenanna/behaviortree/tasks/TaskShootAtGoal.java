@@ -7,6 +7,7 @@ import botenanna.behaviortree.*;
 import botenanna.math.RLMath;
 import botenanna.math.Vector2;
 import botenanna.math.Vector3;
+import botenanna.physics.BallPrediction;
 import botenanna.physics.Rigidbody;
 
 public class TaskShootAtGoal extends Leaf {
@@ -36,6 +37,7 @@ public class TaskShootAtGoal extends Leaf {
     public NodeStatus run(Situation input) throws MissingNodeException {
 
         Rigidbody ball = input.getBall();
+        BallPrediction prediction = input.getBallPrediction();
         Car myCar = input.getMyCar();
 
         Vector3 expectedBall;
@@ -54,7 +56,7 @@ public class TaskShootAtGoal extends Leaf {
         //That way the agent should always be able to choose the right amount of prediction seconds, although this will probably change a little bit every tick as
         //the carvelocity changes.
         while(predictSeconds < 0.02 && counter <= 5 && !isBallStill){
-            expectedBall = ball.getPosition().plus(ball.getVelocity().scale(predict));
+            expectedBall = prediction.getPosition(predict);
 
             // If the car is not really driving, it should overextend its prediction to the future.
             if (myCar.getVelocity().getMagnitude() < 800){
@@ -81,7 +83,7 @@ public class TaskShootAtGoal extends Leaf {
         }
 
         //double predictSeconds = input.getCollisionTime();
-        Vector3 expectedBallLocation = ball.getPosition().plus(ball.getVelocity().scale(predictSeconds));
+        Vector3 expectedBallLocation = prediction.getPosition(predictSeconds);
 
         Vector2 middleOfGoal;
 
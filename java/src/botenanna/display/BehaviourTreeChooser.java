@@ -0,0 +1,74 @@
+package botenanna.display;
+
+import botenanna.behaviortree.BehaviorTree;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.behaviortree.builder.MissingBehaviourTreeException;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+/** The BehaviourTreeChooser lets the user pick behaviour tree files with dialogs and builds them using a
+ * BehaviourTreeBuilder. This is the only part of behaviour tree building that depends on JavaFX. */
+public class BehaviourTreeChooser {
+
+    private final Stage parent;
+    private final BehaviourTreeBuilder builder;
+
+    public BehaviourTreeChooser(Stage parent, BehaviourTreeBuilder builder) {
+        this.parent = parent;
+        this.builder = builder;
+    }
+
+    /** Set the builder's defaultFile. This method will ask whether to use the file from last time, or open a file
+     * chooser window, where the user can specify which file to open. */
+    public void setupDefaultFile() throws MissingBehaviourTreeException {
+        File defaultFile = null;
+        File previouslyUsedTree = BehaviourTreeBuilder.getPreviouslyUsedTreeFile();
+        if (previouslyUsedTree != null) {
+            Alert defaultConfirmation = new Alert(Alert.AlertType.CONFIRMATION);
+            defaultConfirmation.setTitle("Default Behaviour Tree");
+            defaultConfirmation.setHeaderText("Would you like to use the same BT file as last time?");
+            defaultConfirmation.setContentText("Previously used BT file was:\n" + previouslyUsedTree.toPath());
+
+            ButtonType yesOption = new ButtonType("Yes");
+            ButtonType chooseOption = new ButtonType("Choose another");
+            ButtonType cancelOption = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
+            defaultConfirmation.getButtonTypes().setAll(yesOption, chooseOption, cancelOption);
+
+            Optional<ButtonType> result = defaultConfirmation.showAndWait();
+            if (result.get() == yesOption) {
+                defaultFile = previouslyUsedTree;
+            } else if (result.get() == chooseOption) {
+                defaultFile = getFileWithFileChooser();
+            }
+        } else {
+            defaultFile = getFileWithFileChooser();
+        }
+
+        if (defaultFile != null) {
+            builder.setDefaultFile(defaultFile);
+        }
+    }
+
+    /** Build a BehaviourTree from a file chosen with a file chooser.
+     * @return the BehaviourTree, or null if no file was chosen. */
+    public BehaviorTree buildFromFileChooser() throws IOException {
+        File file = getFileWithFileChooser();
+        if (file == null) return null;
+        return builder.build(file);
+    }
+
+    /** Choose a behaviour tree with a file chooser window*/
+    private File getFileWithFileChooser() {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Open Behaviour Tree Source File");
+        fc.setInitialDirectory(new File(System.getProperty("user.home"), "documents/"));
+        return fc.showOpenDialog(parent);
+    }
+}
@@ -1,6 +1,5 @@
 package botenanna.display;
 
-import botenanna.BotenAnna;
 import botenanna.behaviortree.BehaviorTree;
 import botenanna.game.Situation;
 import botenanna.Bot;
@@ -18,10 +17,12 @@ public class BotInfoDisplay extends InfoDisplay {
     private static final Color ORANGE = new Color(1, 0.7, 0.3, 1);
 
     private Bot bot;
+    private BehaviourTreeChooser treeChooser;
 
-    public BotInfoDisplay(Bot bot) {
+    public BotInfoDisplay(Bot bot, BehaviourTreeChooser treeChooser) {
         super("Car #" + bot.getPlayerIndex(), bot.getPlayerIndex() == 0 ? BLUE : ORANGE);
         this.bot = bot;
+        this.treeChooser = treeChooser;
 
         addChangeBtButton();
     }
@@ -36,9 +37,8 @@ public class BotInfoDisplay extends InfoDisplay {
         header.getChildren().add(changeBt);
     }
 
-    /** Update info displayed. */
-    public void update() {
-        Situation input = bot.getLastInputReceived();
+    /** Update info displayed. A new situation must be provided. */
+    public void update(Situation input) {
         if (input == null || input.getMyCar().getPosition() == null)
             return;
 
@@ -58,7 +58,7 @@ public class BotInfoDisplay extends InfoDisplay {
     /** Change the behaviour tree of the bot connected to this display. */
     private void changeBehaviourTree() {
         try {
-            BehaviorTree tree = BotenAnna.defaultBTBuilder.buildFromFileChooser();
+            BehaviorTree tree = treeChooser.buildFromFileChooser();
             if (tree != null) {
                 bot.setBehaviorTree(tree);
             }
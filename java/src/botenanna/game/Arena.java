@@ -42,7 +42,8 @@ public class Arena {
     }
 
     /** @return a Zone that is equal to the whole field, but all walls are offset.
-     * This makes i useful to test if things are close to the walls. Positive offsets inwards. */
+     * This makes i useful to test if things are close to the walls. Positive offsets inwards.
+     * {@link ArenaDistanceField#isNearWall(Vector3, double)} does the same without creating a Box. */
     public static Box getFieldWithWallOffset(double offset) {
         double wx = WALL_X - offset;
         double wy = WALL_Y - offset;
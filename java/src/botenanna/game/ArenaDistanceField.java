@@ -0,0 +1,92 @@
+package botenanna.game;
+
+import botenanna.math.Vector3;
+
+/** <p>The ArenaDistanceField describes the shape of the arena as a signed distance function. It tells how far any point
+ * is from the nearest surface of the arena, and in which direction that surface is, in constant time and without
+ * allocating.</p>
+ *
+ * <p>The arena is built from a few analytic shapes: the field is a box with rounded edges between the walls, the floor
+ * and the ceiling, and is cut by diagonal walls in the corners. The two goals are boxes open towards the field.</p> */
+public class ArenaDistanceField {
+
+    /** The radius of the curves between the walls, the floor and the ceiling. */
+    public static final double CURVE_RADIUS = 256;
+    /** The corners are cut by diagonal walls where |x| + |y| equals this. */
+    public static final double CORNER = Arena.WALL_X + Arena.WALL_Y - 1152;
+
+    /** The distance used for finding normals by central differences. */
+    public static final double NORMAL_EPSILON = 0.5;
+    private static final double SQRT_HALF = Math.sqrt(0.5);
+
+    /** @return the distance from the point to the nearest surface of the arena. It is positive inside the arena and
+     * negative outside. */
+    public static double getDistance(double x, double y, double z) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+
+        // The field is a box with rounded edges, cut by the diagonal corners
+        double halfHeight = Arena.HEIGHT / 2;
+        double qx = ax - (Arena.WALL_X - CURVE_RADIUS);
+        double qy = ay - (Arena.WALL_Y - CURVE_RADIUS);
+        double qz = Math.abs(z - halfHeight) - (halfHeight - CURVE_RADIUS);
+        double ox = Math.max(qx, 0), oy = Math.max(qy, 0), oz = Math.max(qz, 0);
+        double outside = Math.sqrt(ox * ox + oy * oy + oz * oz);
+        double inside = Math.min(Math.max(qx, Math.max(qy, qz)), 0);
+        double field = Math.min(CURVE_RADIUS - outside - inside, getDistanceToCorner(ax, ay));
+
+        // The goals are boxes open towards the field
+        double goal = Math.min(Math.min(Arena.GOAL_POST_X_OFFSET - ax, Arena.WALL_Y + Arena.GOAL_DEPHT - ay),
+                Math.min(z, Arena.GOAL_HEIGHT - z));
+
+        return Math.max(field, goal);
+    }
+
+    /** @return the distance from the point to the nearest surface of the arena. It is positive inside the arena and
+     * negative outside. */
+    public static double getDistance(Vector3 point) {
+        return getDistance(point.x, point.y, point.z);
+    }
+
+    /** Find the normal of the nearest surface, which points into the arena, and store it in the given array at
+     * {@code offset} as x, y, z. The normal is zero if there is no single nearest surface, e.g. in the exact middle. */
+    public static void getNormal(double x, double y, double z, double[] normal, int offset) {
+        double nx = getDistance(x + NORMAL_EPSILON, y, z) - getDistance(x - NORMAL_EPSILON, y, z);
+        double ny = getDistance(x, y + NORMAL_EPSILON, z) - getDistance(x, y - NORMAL_EPSILON, z);
+        double nz = getDistance(x, y, z + NORMAL_EPSILON) - getDistance(x, y, z - NORMAL_EPSILON);
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0) {
+            normal[offset] = normal[offset + 1] = normal[offset + 2] = 0;
+            return;
+        }
+        normal[offset] = nx / length;
+        normal[offset + 1] = ny / length;
+        normal[offset + 2] = nz / length;
+    }
+
+    /** @return the normal of the nearest surface, which points into the arena. See
+     * {@link #getNormal(double, double, double, double[], int)}. */
+    public static Vector3 getNormal(Vector3 point) {
+        double[] normal = new double[3];
+        getNormal(point.x, point.y, point.z, normal, 0);
+        return new Vector3(normal[0], normal[1], normal[2]);
+    }
+
+    /** @return the horizontal distance from the point to the nearest wall of the field, including the diagonal corner
+     * walls. The floor, the ceiling and the goals are ignored, so a point inside a goal is behind the wall and has a
+     * negative distance. */
+    public static double getDistanceToWalls(double x, double y) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        return Math.min(Math.min(Arena.WALL_X - ax, Arena.WALL_Y - ay), getDistanceToCorner(ax, ay));
+    }
+
+    /** @return whether the point is closer than the given distance to a wall. See {@link #getDistanceToWalls(double, double)}. */
+    public static boolean isNearWall(Vector3 point, double distance) {
+        return getDistanceToWalls(point.x, point.y) < distance;
+    }
+
+    private static double getDistanceToCorner(double ax, double ay) {
+        return (CORNER - ax - ay) * SQRT_HALF;
+    }
+}
@@ -3,6 +3,7 @@ package botenanna.game;
 import botenanna.math.Vector2;
 import botenanna.math.Vector3;
 
+/** A boost pad in the arena. A Boostpad can be frozen, after which it is read-only and can be shared without copying. */
 public class Boostpad {
 
     public static final int PAD_RADIUS = 165;
@@ -25,6 +26,7 @@ public class Boostpad {
     private Vector3 position;
     private double respawnTimeLeft;
     private boolean isBigBoostPad;
+    private boolean isFrozen = false;
 
     public Boostpad(double x, double y, double respawnTimeLeft) {
         this.position = new Vector3(x, y);
@@ -32,12 +34,24 @@ public class Boostpad {
         determineIfBig();
     }
 
+    /** Copy a Boostpad. The copy is never frozen. */
     public Boostpad(Boostpad from) {
-        this.position = new Vector3(from.position.x, from.position.y);
-        setRespawnTimeLeft(respawnTimeLeft);
+        this.position = from.position;
+        this.respawnTimeLeft = from.respawnTimeLeft;
         isBigBoostPad = from.isBigBoostPad;
     }
 
+    /** Make this Boostpad read-only. Any later attempt to modify it throws an IllegalStateException.
+     * @return this Boostpad. */
+    public Boostpad freeze() {
+        isFrozen = true;
+        return this;
+    }
+
+    private void checkNotFrozen() {
+        if (isFrozen) throw new IllegalStateException("The Boostpad is frozen. Modify a copy instead.");
+    }
+
     private void determineIfBig() {
         double allowedDiff = 20;
         for (Vector3 bigBoostPadsPosition : BIG_BOOST_PADS_POSITIONS) {
@@ -68,6 +82,7 @@ public class Boostpad {
     }
 
     public void setRespawnTimeLeft(double respawnTimeLeft) {
+        checkNotFrozen();
         this.respawnTimeLeft = Math.max(0, respawnTimeLeft);
     }
 
@@ -78,10 +93,12 @@ public class Boostpad {
     }
 
     public void refreshRespawnTimer() {
+        checkNotFrozen();
         respawnTimeLeft = isBigBoostPad ? RESPAWN_TIME_BIG : RESPAWN_TIME_SMALL;
     }
 
     public void setActive() {
+        checkNotFrozen();
         respawnTimeLeft = 0;
     }
 
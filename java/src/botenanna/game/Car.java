@@ -2,7 +2,6 @@ package botenanna.game;
 
 import botenanna.math.RLMath;
 import botenanna.math.Vector3;
-import botenanna.math.zone.Box;
 import botenanna.physics.Rigidbody;
 import rlbot.api.GameData;
 
@@ -19,6 +18,8 @@ public class Car extends Rigidbody {
     public final static double SUPERSONIC_SPEED_REQUIRED = MAX_VELOCITY_BOOST * 0.95;
     public final static double DECELERATION = -18;
     public final static double GROUND_OFFSET = 17.03;
+    /** Cars closer than this to a wall are near it, see {@link #isNearWall()}. */
+    public final static double NEAR_WALL_DISTANCE = 28;
 
     private final int team;
     private final int playerIndex;
@@ -61,20 +62,44 @@ public class Car extends Rigidbody {
         isSupersonic = packet.getPlayers(index).getIsSupersonic();
         isMidAir = packet.getPlayers(index).getIsMidair();
         setBallDependentVariables(Vector3.convert(packet.getBall().getLocation()));
+    }
+
+    /** Constructor for a car where all values are given. Used when converting from other representations of a car.
+     * @param ballPosition used to calculate the distance and angle to the ball. */
+    public Car(int index, int team, Vector3 position, Vector3 velocity, Vector3 acceleration, Vector3 rotation,
+               Vector3 angularVelocity, int boost, boolean hasJumped, boolean hasDoubleJumped, boolean isDemolished,
+               boolean isSupersonic, boolean isMidAir, Vector3 ballPosition) {
+
+        playerIndex = index;
+        this.team = team;
+
+        setPosition(position);
+        setVelocity(velocity);
+        setAcceleration(acceleration);
+        setRotation(rotation);
+        setAngularVelocity(angularVelocity);
 
-        isNearWall = !Arena.getFieldWithWallOffset(28).isPointInBoxArea(getPosition());
+        this.boost = boost;
+        this.hasJumped = hasJumped;
+        this.hasDoubleJumped = hasDoubleJumped;
+        this.isDemolished = isDemolished;
+        this.isSupersonic = isSupersonic;
+        this.isMidAir = isMidAir;
+        setBallDependentVariables(ballPosition);
     }
 
-    /** Constructor for new car based on an old instance of car */
+    /** Constructor for new car based on an old instance of car. The new car is never frozen. */
     public Car(Car oldCar) {
 
         team = oldCar.team;
         playerIndex = oldCar.playerIndex;
 
-        setPosition(oldCar.getPosition());
-        setVelocity(oldCar.getVelocity());
-        setRotation(oldCar.getRotation());
-        setAngularVelocity(oldCar.getAngularVelocity());
+        // The dependent variables are copied too, so they don't have to be recalculated
+        super.setPosition(oldCar.getPosition());
+        super.setVelocity(oldCar.getVelocity());
+        super.setAcceleration(oldCar.getAcceleration());
+        super.setRotation(oldCar.getRotation());
+        super.setAngularVelocity(oldCar.getAngularVelocity());
 
         boost = oldCar.boost;
         hasJumped = oldCar.hasJumped;
@@ -85,7 +110,12 @@ public class Car extends Rigidbody {
         distanceToBall = oldCar.distanceToBall;
         angleToBall = oldCar.angleToBall;
 
-        isNearWall = !Arena.getFieldWithWallOffset(28).isPointInBoxArea(getPosition());
+        upVector = oldCar.upVector;
+        frontVector = oldCar.frontVector;
+        sideVector = oldCar.sideVector;
+        isCarOnGround = oldCar.isCarOnGround;
+        isCarUpsideDown = oldCar.isCarUpsideDown;
+        isNearWall = oldCar.isNearWall;
     }
 
     @Override
@@ -93,6 +123,14 @@ public class Car extends Rigidbody {
         return new Car(this);
     }
 
+    /** Make this Car read-only. Any later attempt to modify it throws an IllegalStateException.
+     * @return this Car. */
+    @Override
+    public Car freeze() {
+        super.freeze();
+        return this;
+    }
+
     public int getTeam() {
         return team;
     }
@@ -109,6 +147,7 @@ public class Car extends Rigidbody {
     public void setPosition(Vector3 position) {
         super.setPosition(position);
         isCarOnGround = position.z < 20;
+        isNearWall = ArenaDistanceField.isNearWall(position, NEAR_WALL_DISTANCE);
     }
 
     @Override
@@ -137,15 +176,18 @@ public class Car extends Rigidbody {
     }
 
     public void setBallDependentVariables(Vector3 ballPosition) {
+        checkNotFrozen();
         angleToBall = RLMath.carsAngleToPoint(getPosition().asVector2(),  getRotation().yaw, ballPosition.asVector2());
         distanceToBall = getPosition().getDistanceTo(ballPosition);
     }
 
     public void setBoost(int amount) {
+        checkNotFrozen();
         this.boost = Math.min(Math.max(0, amount), 100);
     }
 
     public void addBoost(int amount) {
+        checkNotFrozen();
         this.boost = Math.min(Math.max(0, this.boost + amount), 100);
     }
 
@@ -154,6 +196,7 @@ public class Car extends Rigidbody {
     }
 
     public void setHasJumped(boolean hasJumped) {
+        checkNotFrozen();
         this.hasJumped = hasJumped;
     }
 
@@ -162,6 +205,7 @@ public class Car extends Rigidbody {
     }
 
     public void setHasDoubleJumped(boolean hasDoubleJumped) {
+        checkNotFrozen();
         if (hasDoubleJumped) hasJumped = true;
         this.hasDoubleJumped = hasDoubleJumped;
     }
@@ -171,6 +215,7 @@ public class Car extends Rigidbody {
     }
 
     public void setDemolished(boolean demolished) {
+        checkNotFrozen();
         isDemolished = demolished;
     }
 
@@ -215,6 +260,7 @@ public class Car extends Rigidbody {
     }
 
     public void setIsMidAir(boolean midAir) {
+        checkNotFrozen();
         isMidAir = midAir;
     }
 }
\ No newline at end of file
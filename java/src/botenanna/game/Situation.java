@@ -4,63 +4,56 @@ import botenanna.Ball;
 import botenanna.math.RLMath;
 import botenanna.math.Vector2;
 import botenanna.math.Vector3;
-import botenanna.math.zone.Box;
+import botenanna.physics.BallPrediction;
 import botenanna.physics.Rigidbody;
-import botenanna.physics.SimplePhysics;
-import com.sun.javafx.scene.control.behavior.OptionalBoolean;
 import rlbot.api.GameData;
 
 import java.util.List;
 
 /** The Situation is a data class that represents a situation in the game, partly constructed from the
- * GameTickPacket and our own calculations. */
+ * GameTickPacket and our own calculations. When created from a GameTickPacket, the cars, the ball, the boost pads,
+ * the ball's prediction and its landing are first decoded from the packet when they are needed, and then remembered.
+ *
+ * The cars, the ball and the boost pads of a Situation are frozen, so they are returned without copying. Clone them
+ * to get modifiable copies. */
 public class Situation {
 
     public final int myPlayerIndex;
     public final int enemyPlayerIndex;
 
-    private final Car myCar;
-    private final Car enemyCar;
-
-    private final Rigidbody ball;
-    private final double ballLandingTime;
-    private final Vector3 ballLandingPosition;
-
+    // Decoded or calculated on first access. Use the private accessors
+    private Car myCar;
+    private Car enemyCar;
+    private Rigidbody ball;
+    private Boostpad[] boostpads;
+    private BallPrediction ballPrediction;
+    private boolean isBallLandingPredicted = false;
+    private double ballLandingTime;
+    private Vector3 ballLandingPosition;
+
+    private final double gameTime;
     private final boolean isKickOffPause;
     private final boolean isMatchOver;
     private final boolean isOvertime;
     private final boolean isRoundActive;
     private final int gamePlayerCount;
-    private final Boostpad[] boostpads;
 
     private GameData.GameTickPacket packet;
 
+    private boolean isBestBoostpadFound = false;
     private Boostpad bestBoostpad = null;
-    private OptionalBoolean blueHasPossession = OptionalBoolean.ANY;
+    private Boolean blueHasPossession = null;
 
-    /** Create a Situation from GameTickPacket. */
+    /** Create a Situation from GameTickPacket. Nothing expensive is decoded until it is needed. */
     public Situation(GameData.GameTickPacket packet) {
         this.packet = packet;
-        this.boostpads = constructBoostpadArray(packet.getBoostPadsList());
 
         // Cars
         myPlayerIndex = packet.getPlayerIndex();
-        myCar = new Car(myPlayerIndex, packet);
         enemyPlayerIndex = this.myPlayerIndex == 1 ? 0 : 1;
-        enemyCar = new Car(enemyPlayerIndex, packet);
-
-        // Ball
-        this.ball = Ball.get(packet.getBall());
-        double landingTime = SimplePhysics.predictArrivalAtHeight(ball, Ball.RADIUS, true);
-        if (Double.isNaN(landingTime)) {
-            this.ballLandingTime = 0;
-            this.ballLandingPosition = ball.getPosition();
-        } else {
-            this.ballLandingTime = landingTime;
-            this.ballLandingPosition = SimplePhysics.step(ball.clone(), ballLandingTime, true).getPosition();
-        }
 
         // Game
+        this.gameTime = packet.getGameInfo().getSecondsElapsed();
         this.isKickOffPause = packet.getGameInfo().getIsKickoffPause();
         this.isMatchOver = packet.getGameInfo().getIsMatchEnded();
         this.isOvertime = packet.getGameInfo().getIsOvertime();
@@ -68,24 +61,22 @@ public class Situation {
         this.gamePlayerCount = packet.getPlayersCount();
     }
 
-    /** Create Situation by providing the pieces. */
+    /** Create Situation by providing the pieces. The pieces become part of the Situation and are frozen.
+     * The game time is 0. */
     public Situation(Car car, Car enemyCar, Rigidbody ball, Boostpad[] boostpads) {
+        this(car, enemyCar, ball, boostpads, 0);
+    }
+
+    /** Create Situation by providing the pieces. The pieces become part of the Situation and are frozen.
+     * @param gameTime the time in seconds since the game started. */
+    public Situation(Car car, Car enemyCar, Rigidbody ball, Boostpad[] boostpads, double gameTime) {
+        this.gameTime = gameTime;
         this.myPlayerIndex = car.getPlayerIndex();
         this.enemyPlayerIndex = enemyCar.getPlayerIndex();
-        this.myCar = car;
-        this.enemyCar = enemyCar;
-        this.ball = ball;
-        this.boostpads = boostpads;
-
-        // Ball landing
-        double landingTime = SimplePhysics.predictArrivalAtHeight(ball, Ball.RADIUS, true);
-        if (Double.isNaN(landingTime)) {
-            this.ballLandingTime = 0;
-            this.ballLandingPosition = ball.getPosition();
-        } else {
-            this.ballLandingTime = landingTime;
-            this.ballLandingPosition = SimplePhysics.step(ball.clone(), ballLandingTime, true).getPosition();
-        }
+        this.myCar = car.freeze();
+        this.enemyCar = enemyCar.freeze();
+        this.ball = ball.freeze();
+        this.boostpads = freezeAll(boostpads);
 
         // TODO Currently no way to determine if we have entered a new phase
         this.isKickOffPause = false;
@@ -95,6 +86,84 @@ public class Situation {
         this.gamePlayerCount = 2;
     }
 
+    /** @return my car. Decoded from the packet on first access. */
+    private Car myCar() {
+        if (myCar == null) {
+            myCar = new Car(myPlayerIndex, packet).freeze();
+        }
+        return myCar;
+    }
+
+    /** @return the enemy car. Decoded from the packet on first access. */
+    private Car enemyCar() {
+        if (enemyCar == null) {
+            enemyCar = new Car(enemyPlayerIndex, packet).freeze();
+        }
+        return enemyCar;
+    }
+
+    /** @return the ball. Decoded from the packet on first access. */
+    private Rigidbody ball() {
+        if (ball == null) {
+            ball = Ball.get(packet.getBall()).freeze();
+        }
+        return ball;
+    }
+
+    /** @return the boost pads. Decoded from the packet on first access. */
+    private Boostpad[] boostpads() {
+        if (boostpads == null) {
+            boostpads = freezeAll(constructBoostpadArray(packet.getBoostPadsList()));
+        }
+        return boostpads;
+    }
+
+    /** Decode everything from the packet and do the remembered calculations now. The lazy decoding is not
+     * thread-safe, so this must be called before the Situation is shared between threads. */
+    public void decode() {
+        myCar();
+        enemyCar();
+        ball();
+        boostpads();
+        ballPrediction();
+        predictBallLanding();
+        getBestBoostPad();
+        hasPossession(myPlayerIndex);
+    }
+
+    /** @return the prediction of the ball. Shared with other Situations of the same ball at the same game time. */
+    private BallPrediction ballPrediction() {
+        if (ballPrediction == null) {
+            ballPrediction = BallPrediction.get(ball(), gameTime);
+        }
+        return ballPrediction;
+    }
+
+    /** Predict when and where the ball lands, if it has not been done yet. */
+    private void predictBallLanding() {
+        if (isBallLandingPredicted) return;
+
+        BallPrediction prediction = ballPrediction();
+        double landingTime = prediction.getFirstTimeAtHeight(Ball.RADIUS);
+        if (Double.isNaN(landingTime)) {
+            this.ballLandingTime = 0;
+            this.ballLandingPosition = ball().getPosition();
+        } else {
+            this.ballLandingTime = landingTime;
+            this.ballLandingPosition = prediction.getPosition(landingTime);
+        }
+        isBallLandingPredicted = true;
+    }
+
+    /** Freeze all boost pads in the array.
+     * @return the array. */
+    private static Boostpad[] freezeAll(Boostpad[] boostpads) {
+        for (Boostpad pad : boostpads) {
+            pad.freeze();
+        }
+        return boostpads;
+    }
+
     /** Construct an array of boost pads from the packet's list of BoostpadInfo. */
     private Boostpad[] constructBoostpadArray(List<GameData.BoostInfo> boostInfoList) {
         Boostpad[] boostpads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
@@ -112,16 +181,18 @@ public class Situation {
     }
 
     /** Used to get the best boostpad based on utility theory.
-     * @return the best boostpad for myCar. */
+     * @return the best boostpad for myCar, or null if no active boostpad is ahead of it. */
     public Boostpad getBestBoostPad() {
-        // Already calculated?
-        if (bestBoostpad != null) {
+        // Already calculated? It can be null, so whether it was calculated is remembered separately
+        if (isBestBoostpadFound) {
             return bestBoostpad;
         }
 
         double bestBoostUtility = 0;
         Boostpad bestpad = null;
 
+        Boostpad[] boostpads = boostpads();
+        Car myCar = myCar();
         for (int i = 0; i < Boostpad.COUNT_TOTAL_PADS; i++) {
 
             Boostpad pad = boostpads[i];
@@ -140,28 +211,60 @@ public class Situation {
             }
         }
 
+        isBestBoostpadFound = true;
         return bestBoostpad = bestpad;
     }
 
+    /** @return the position of the best boostpad for myCar, see {@link #getBestBoostPad()}. If no active boostpad is in
+     * front of myCar, the position of the nearest active boostpad is returned instead, and if no boostpad is active,
+     * the position of the one that is active again first. Without any boostpads, the ball's position is returned. */
+    public Vector3 getBestBoostPadPosition() {
+        Boostpad pad = getBestBoostPad();
+        if (pad == null) pad = getNearestBoostPad();
+        return pad == null ? getBall().getPosition() : pad.getPosition();
+    }
+
+    /** Helper method for {@link #getBestBoostPadPosition()}.
+     * @return the active boostpad nearest to myCar, or the one that is active again first, if none are active, or null
+     * if there are no boostpads. */
+    private Boostpad getNearestBoostPad() {
+        Vector3 carPosition = myCar().getPosition();
+        Boostpad nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        Boostpad soonest = null;
+        for (Boostpad pad : boostpads()) {
+            if (pad.isActive()) {
+                double distance = carPosition.getDistanceTo(pad.getPosition());
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = pad;
+                }
+            } else if (soonest == null || pad.getRespawnTimeLeft() < soonest.getRespawnTimeLeft()) {
+                soonest = pad;
+            }
+        }
+        return nearest != null ? nearest : soonest;
+    }
+
     /** Returns true if car of playerIndex has ball possession. */
     public boolean hasPossession(int playerIndex){
         // Already calculated?
-        if (blueHasPossession != OptionalBoolean.ANY) {
-            return blueHasPossession.equals(playerIndex == 0);
+        if (blueHasPossession != null) {
+            return blueHasPossession == (playerIndex == 0);
         }
 
         double blueUtility = possessionUtility(getCar(0));
         double orangeUtility = possessionUtility(getCar(1));
         boolean bluePossesses = blueUtility >= orangeUtility;
 
-        blueHasPossession = bluePossesses ? OptionalBoolean.TRUE : OptionalBoolean.FALSE;
+        blueHasPossession = bluePossesses;
         return (bluePossesses && playerIndex == 0) || (!bluePossesses && playerIndex == 1);
     }
 
     /** Helper function to calculate and return the possession utility of a given car
     * Currently weighed equally and therefore can be considered inaccurate. Requires more testing. */
     private double possessionUtility (Car car){
-        double distanceUtility = 1 - car.getPosition().getDistanceTo(ball.getPosition()) / Arena.LENGTH;
+        double distanceUtility = 1 - car.getPosition().getDistanceTo(ball().getPosition()) / Arena.LENGTH;
         double angleUtility = Math.cos(car.getAngleToBall());
         double velocityUtility = car.getVelocity().getMagnitude() / Car.MAX_VELOCITY;
 
@@ -182,22 +285,28 @@ public class Situation {
         return packet;
     }
 
-    /** @return a players Car */
+    /** @return a players Car. It is frozen, clone it to get a modifiable copy. */
     public Car getCar(int index) {
-        return index == myPlayerIndex ? myCar.clone() : enemyCar.clone();
+        return index == myPlayerIndex ? myCar() : enemyCar();
     }
 
+    /** @return my Car. It is frozen, clone it to get a modifiable copy. */
     public Car getMyCar() {
-        return myCar.clone();
+        return myCar();
     }
 
+    /** @return the enemy's Car. It is frozen, clone it to get a modifiable copy. */
     public Car getEnemyCar() {
-        return enemyCar.clone();
+        return enemyCar();
     }
 
     /** @return time in seconds to expected collision between ball and my car  */
     public double getCollisionTime() {
 
+        Rigidbody ball = ball();
+        BallPrediction prediction = ballPrediction();
+        Car myCar = myCar();
+
         // TODO CLEAN UP THE CODE AND IMPROVE PREDICTION
         Vector3 expectedBall;
         double predictSeconds = 0;
@@ -215,7 +324,7 @@ public class Situation {
         //That way the agent should always be able to choose the right amount of prediction seconds, although this will probably change a little bit every tick as
         //the car velocity changes.
         while (predictSeconds < 0.1 && counter <= 5 && !isBallStill) {
-            expectedBall = ball.getVelocity().plus(ball.getVelocity().scale(predict));
+            expectedBall = prediction.getPosition(predict);
 
             // If the car is not really driving, it should overextend its prediction to the future.
             if (myCar.getVelocity().getMagnitude() < 800) {
@@ -242,9 +351,7 @@ public class Situation {
 
     /** Returns true if the ball is near a wall */
     public boolean isBallNearWall() {
-        Vector3 point = ball.getPosition();
-        Box field = Arena.getFieldWithWallOffset(Ball.RADIUS * 3);
-        return !field.isPointInBoxArea(point);
+        return ArenaDistanceField.isNearWall(ball().getPosition(), Ball.RADIUS * 3);
     }
 
     /** Returns true if the car is near or on a wall
@@ -253,16 +360,30 @@ public class Situation {
         return getCar(playerIndex).isNearWall();
     }
 
+    /** @return the ball. It is frozen, clone it to get a modifiable copy. */
     public Rigidbody getBall() {
-        return ball.clone();
+        return ball();
+    }
+
+    /** @return the prediction of the ball's future. Computed on first access and shared with other Situations of the
+     * same ball at the same game time. */
+    public BallPrediction getBallPrediction() {
+        return ballPrediction();
     }
 
     public double getBallLandingTime() {
+        predictBallLanding();
         return ballLandingTime;
     }
 
     public Vector3 getBallLandingPosition() {
-        return new Vector3(ballLandingPosition);
+        predictBallLanding();
+        return ballLandingPosition;
+    }
+
+    /** @return the time in seconds since the game started. */
+    public double getGameTime() {
+        return gameTime;
     }
 
     public boolean isKickOffPause() {
@@ -285,11 +406,8 @@ public class Situation {
         return gamePlayerCount;
     }
 
+    /** @return the boost pads. They are frozen, copy them to get modifiable boost pads. The array must not be modified. */
     public Boostpad[] getBoostpads() {
-        Boostpad[] copies = new Boostpad[boostpads.length];
-        for (int i = 0; i < copies.length; i++) {
-            copies[i] = new Boostpad(boostpads[i]);
-        }
-        return copies;
+        return boostpads();
     }
 }
@@ -6,77 +6,264 @@ import botenanna.game.Car;
 import botenanna.game.Situation;
 import botenanna.physics.SteppedTimeLine;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.TreeSet;
+import java.util.*;
+import java.util.concurrent.*;
 
-public class AStar {
+/** A Planner using a modified version of A*. It is a best-first search, where the intention value of a situation is
+ * used as the estimate of the remaining work. */
+public class AStar implements Planner {
 
     private static final int FORCED_STOP_ITERATIONS = 4;
 
-    /** The TimeNode wraps the Situation which enables us to build a tree of Situations and remember details about
-     * the evaluation of each node. */
-    private static class TimeNode {
-        public final Situation situation;
-        public final ActionSet actionTaken;
-        public final TimeNode cameFrom;
-        public final double timeSpent;
+    /** A successor of a node, which has been simulated and evaluated, but not yet added to the search. */
+    private static class Successor {
+        public final int action;
+        public final SituationState state;
         public final double intentionValue;
+        public final boolean isFulfilled;
 
-        public TimeNode(Situation situation, ActionSet actionTaken, TimeNode cameFrom, double timeSpent, IntentionFunction intentionFunction) {
-            this.cameFrom = cameFrom;
-            this.situation = situation;
-            this.actionTaken = actionTaken;
-            this.timeSpent = timeSpent;
-            intentionValue = intentionFunction.compute(situation, timeSpent);
+        public Successor(int action, SituationState state, double intentionValue, boolean isFulfilled) {
+            this.action = action;
+            this.state = state;
+            this.intentionValue = intentionValue;
+            this.isFulfilled = isFulfilled;
+        }
+    }
+
+    private final IntentionFunction intention;
+    private final double stepsize;
+    private final ForkJoinPool pool;
+    private final SearchArena arena;
+    private final Set<StateKey> closedSet = new HashSet<>();
+    private int expandedCount = 0;
+    private int prunedCount = 0;
+    private int bestNode = SearchArena.NO_PARENT;
+    private SteppedTimeLine<ActionSet> result = null;
+    private boolean isFinished = false;
+
+    /** Create a search for a sequence of actions that steers the agent from the {@code startSituation} towards a desired
+     * intention defined by an intention function. Nothing is searched before {@link #search(long)} is called.
+     * The search can be continued over multiple calls, e.g. one per tick, until it is finished. */
+    public AStar(Situation startSituation, IntentionFunction intention, double stepsize) {
+        this(startSituation, intention, stepsize, null);
+    }
+
+    /** Create a search like {@link #AStar(Situation, IntentionFunction, double)}, where the successors of each node are
+     * simulated and evaluated in parallel using the given pool. The result is the same as the serial search, so the
+     * intention function must be safe to use from multiple threads.
+     * @param pool the pool used for simulation. If null, the search is serial. */
+    public AStar(Situation startSituation, IntentionFunction intention, double stepsize, ForkJoinPool pool) {
+        this(startSituation, intention, stepsize, pool, new SearchArena());
+    }
+
+    /** Create a search like {@link #AStar(Situation, IntentionFunction, double, ForkJoinPool)}, where the nodes are stored
+     * in the given arena. The arena is cleared, so it must not be used by another search at the same time.
+     * @param pool the pool used for simulation. If null, the search is serial.
+     * @param arena the arena to store the nodes in. Reusing an arena avoids allocating its arrays again. */
+    public AStar(Situation startSituation, IntentionFunction intention, double stepsize, ForkJoinPool pool, SearchArena arena) {
+        this.intention = intention;
+        this.stepsize = stepsize;
+        this.pool = pool;
+        this.arena = arena;
+
+        arena.clear();
+
+        // The start node is node 0. Like all other nodes, its situation is kept in its slot and successors are stepped from there
+        int start = arena.add(startSituation, ActionSetTable.NEUTRAL, SearchArena.NO_PARENT, 0, intention.compute(startSituation, 0));
+        arena.setFulfilled(start, intention.isDeviationFulfilled(startSituation, 0));
+        closedSet.add(new StateKey(startSituation, 0, stepsize));
+    }
+
+    /** <p>Seed the search with a sequence of actions, typically the rest of a previous plan. The actions are simulated
+     * from the start situation and added to the search as a chain of nodes, so the search can continue from the end of
+     * the chain instead of finding the same actions again. If the actions are no longer good, the search simply
+     * continues elsewhere.</p>
+     * <p>Must be called before {@link #search(long)}.</p>
+     * @param actions the actions in the order they are performed. Their throttle, steer, pitch and roll must be -1, 0 or 1. */
+    @Override
+    public void setIncumbent(List<ActionSet> actions) {
+        if (expandedCount > 0) throw new IllegalStateException("The incumbent must be given before searching.");
+
+        int node = 0; // The start node
+        for (ActionSet actionSet : actions) {
+            double timeSpent = arena.getTimeSpent(node) + stepsize;
+            if (timeSpent > stepsize * FORCED_STOP_ITERATIONS || arena.getFreeCapacity() == 0) break;
+
+            int action = ActionSetTable.getId(actionSet);
+            SituationState state = stepToNextState(arena.getState(node), action);
+            if (!closedSet.add(new StateKey(state, timeSpent, stepsize))) break;
+
+            Situation newSituation = state.toSituation();
+            node = addNode(action, node, timeSpent, intention.compute(newSituation, timeSpent),
+                    intention.isDeviationFulfilled(newSituation, timeSpent));
         }
     }
 
     /** Find a sequence of actions that steers the agent towards a desired intention defined by an intention function.
-     * The method uses a modified version of A*. */
+     * The method uses a modified version of A*. The search runs until it is finished, no matter how long it takes. */
     public static SteppedTimeLine<ActionSet> findSequence(Situation startSituation, IntentionFunction intention, double stepsize) {
+        AStar search = new AStar(startSituation, intention, stepsize);
+        search.search(Long.MAX_VALUE);
+        return search.getSequence();
+    }
 
-        TimeNode startNode = new TimeNode(startSituation, new ActionSet(), null, 0, intention);
+    /** Continue the search until it is finished or the time budget is spent. At least one node is expanded per call,
+     * so the search always makes progress. The remaining nodes are kept, so the search can continue in a later call.
+     * The search is also finished when its arena is full, and the sequence is then the best found so far.
+     * @param timeBudgetNanos the maximum time to spend searching in nanoseconds.
+     * @return whether the search is finished. */
+    @Override
+    public boolean search(long timeBudgetNanos) {
+        long startTime = System.nanoTime();
 
-        TreeSet<TimeNode> openSet = new TreeSet<>((n1, n2) -> {
-            if (n1 == n2) return 0; // Must be consistent with equals
-            double fit = n1.intentionValue - n2.intentionValue;
-            // Even if the situations have the same value, they are not the same
-            if (fit < 0) return -1;
-            else return 1;
-        });
+        while (!isFinished) {
+            if (arena.isOpenSetEmpty()) {
+                isFinished = true;
+                break;
+            }
 
-        openSet.add(startNode);
+            int current = arena.peek();
+            double currentTimeSpent = arena.getTimeSpent(current);
 
-        while (!openSet.isEmpty()) {
-            TimeNode current = openSet.first();
+            // Is this situation a fulfilling destination? That was decided when the node was added
+            if (currentTimeSpent >= stepsize * FORCED_STOP_ITERATIONS || arena.isFulfilled(current)) {
+                List<ActionSet> sequence = reconstructSequence(current);
+                result = toTimeLine(sequence, stepsize);
+                isFinished = true;
+                break;
+            }
+
+            if (arena.getFreeCapacity() == 0) {
+                // The arena is full, so the best node found so far will have to do
+                List<ActionSet> sequence = reconstructSequence(bestNode == SearchArena.NO_PARENT ? current : bestNode);
+                result = toTimeLine(sequence, stepsize);
+                isFinished = true;
+                break;
+            }
+
+            arena.poll();
+            expandedCount++;
+
+            // Try all sensible actions and simulate what situations they create. Stop adding them if the arena is full
+            SituationState currentState = arena.getState(current);
+            int car = SituationState.getCarOffset(0);
+            int[] followingActions = ActionSetTable.getFollowing(arena.getAction(current),
+                    currentState.getBoolean(car + SituationState.CAR_MID_AIR),
+                    currentState.get(car + SituationState.CAR_BOOST) > 0,
+                    currentState.getBoolean(car + SituationState.CAR_DOUBLE_JUMPED));
+            double timeSpent = currentTimeSpent + stepsize;
+            if (pool == null) {
+                for (int action : followingActions) {
+                    if (arena.getFreeCapacity() == 0) break;
+                    SituationState state = stepToNextState(currentState, action);
+
+                    // Skip situations equivalent to one we have already seen. Their slot is used by the next action
+                    if (!closedSet.add(new StateKey(state, timeSpent, stepsize))) {
+                        prunedCount++;
+                        continue;
+                    }
+
+                    Situation newSituation = state.toSituation();
+                    addNode(action, current, timeSpent, intention.compute(newSituation, timeSpent),
+                            intention.isDeviationFulfilled(newSituation, timeSpent));
+                }
+            } else {
+                // Nodes are added in the same order as the serial search, so the result is the same
+                for (Successor successor : simulateInParallel(currentState, followingActions, timeSpent)) {
+                    if (arena.getFreeCapacity() == 0) break;
+                    if (!closedSet.add(new StateKey(successor.state, timeSpent, stepsize))) {
+                        prunedCount++;
+                        continue;
+                    }
 
-            // Is this situation a fulfilling destination?
-            if (current.actionTaken != null) {
-                if (current.timeSpent >= stepsize * FORCED_STOP_ITERATIONS || intention.isDeviationFulfilled(current.situation, current.timeSpent)) {
-                    List<ActionSet> sequence = reconstructSequence(current);
-                    return toTimeLine(sequence, stepsize);
+                    arena.getNextState().copyFrom(successor.state);
+                    addNode(successor.action, current, timeSpent, successor.intentionValue, successor.isFulfilled);
                 }
             }
 
-            openSet.remove(current);
+            if (System.nanoTime() - startTime >= timeBudgetNanos) break;
+        }
+
+        return isFinished;
+    }
 
-            // Try all sensible actions and simulate what situations they create
-            List<ActionSet> followingActions = getFollowingActionSets(current.situation, current.actionTaken);
-            for (ActionSet action : followingActions) {
-                Situation newSituation = Simulation.simulate(current.situation, stepsize, action);
-                TimeNode node = new TimeNode(newSituation, action, current, current.timeSpent + stepsize, intention);
-                openSet.add(node);
+    /** Helper method for {@link #search(long)} and {@link #setIncumbent(List)}. Copies a node's situation to the slot
+     * of the next node and simulates the action there. The node is not added.
+     * @return the slot of the next node. */
+    private SituationState stepToNextState(SituationState from, int action) {
+        SituationState state = arena.getNextState();
+        state.copyFrom(from);
+        state.step(ActionSetTable.get(action), stepsize);
+        return state;
+    }
+
+    /** Helper method for {@link #search(long)}. Simulates and evaluates each of the actions from the current node
+     * using the pool. Each action is stepped in its own copy of the state, since the slots of the arena are not known
+     * until the successors are added. The successors are returned in the same order as the actions. */
+    private List<Successor> simulateInParallel(SituationState current, int[] actions, double timeSpent) {
+        List<Callable<Successor>> tasks = new ArrayList<>(actions.length);
+        for (int action : actions) {
+            tasks.add(() -> {
+                SituationState state = current.copy();
+                state.step(ActionSetTable.get(action), stepsize);
+                Situation newSituation = state.toSituation();
+                return new Successor(action, state, intention.compute(newSituation, timeSpent),
+                        intention.isDeviationFulfilled(newSituation, timeSpent));
+            });
+        }
+
+        List<Successor> successors = new ArrayList<>(actions.length);
+        for (Future<Successor> future : pool.invokeAll(tasks)) {
+            try {
+                successors.add(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Failed to simulate a successor.", e);
             }
         }
+        return successors;
+    }
+
+    /** Helper method for {@link #search(long)}. Adds a new node to the open set and remembers it, if it is the best so far.
+     * The node's situation must already be in {@link SearchArena#getNextState()}.
+     * @return the index of the new node. */
+    private int addNode(int action, int cameFrom, double timeSpent, double intentionValue, boolean isFulfilled) {
+        int node = arena.add(action, cameFrom, timeSpent, intentionValue);
+        arena.setFulfilled(node, isFulfilled);
+
+        if (bestNode == SearchArena.NO_PARENT || intentionValue < arena.getIntentionValue(bestNode)) {
+            bestNode = node;
+        }
+        return node;
+    }
 
-        return null;
+    /** @return the number of nodes expanded so far. */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /** @return the number of simulated situations skipped so far, because an equivalent situation had already been seen. */
+    public int getPrunedCount() {
+        return prunedCount;
+    }
+
+    /** @return whether the search is finished. When it is, {@link #getSequence()} returns the final sequence. */
+    @Override
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /** @return the found sequence, if the search is finished. Otherwise the sequence leading to the best node found so far.
+     * Returns null, if nothing has been searched yet. */
+    @Override
+    public SteppedTimeLine<ActionSet> getSequence() {
+        if (result != null) return result;
+        if (bestNode == SearchArena.NO_PARENT) return null;
+        return toTimeLine(reconstructSequence(bestNode), stepsize);
     }
 
     /** Helper method for the {@link #findSequence(Situation, IntentionFunction, double)}.
      * Takes a list of ActionSets and places them in a TimeLine with stepsize interval between each. */
-    private static SteppedTimeLine<ActionSet> toTimeLine(List<ActionSet> sequence, double stepsize) {
+    static SteppedTimeLine<ActionSet> toTimeLine(List<ActionSet> sequence, double stepsize) {
         SteppedTimeLine<ActionSet> timeLine = new SteppedTimeLine<>();
         double time = 0;
         for (ActionSet action : sequence) {
@@ -88,73 +275,32 @@ public class AStar {
 
     /** Helper method for the {@link #findSequence(Situation, IntentionFunction, double)} to backtrack the actions taken
      * and create the sequence. */
-    private static List<ActionSet> reconstructSequence(TimeNode destination) {
-        TimeNode current = destination;
+    private List<ActionSet> reconstructSequence(int destination) {
+        int current = destination;
         List<ActionSet> sequence = new ArrayList<>();
-        while (current.cameFrom != null) {
-            sequence.add(current.actionTaken);
-            current = current.cameFrom;
+        while (arena.getParent(current) != SearchArena.NO_PARENT) {
+            sequence.add(ActionSetTable.create(arena.getAction(current)));
+            current = arena.getParent(current);
         }
+        // The actions were found backwards
+        Collections.reverse(sequence);
         return sequence;
     }
 
     /** This method will generate all valid ActionSet that sensibly follow a given ActionSet in a Situation.
+     * See {@link ActionSetTable#getFollowing(int, boolean, boolean, boolean)}.
      * @param situation the Situation.
-     * @param current the ActionSet prior to the ones generated. */
+     * @param current the ActionSet prior to the ones generated. Its throttle, steer, pitch and roll must be -1, 0 or 1. */
     public static List<ActionSet> getFollowingActionSets(Situation situation, ActionSet current) {
 
-        List<ActionSet> following = new LinkedList<>();
-
         Car myCar = situation.getMyCar();
+        int currentId = current == null ? ActionSetTable.NEUTRAL : ActionSetTable.getId(current);
+        int[] ids = ActionSetTable.getFollowing(currentId, myCar.isMidAir(), myCar.getBoost() > 0, myCar.hasDoubleJumped());
 
-        double[] newThrottles = getFollowingDirections(current == null ? 0 : current.getThrottle());
-        double[] newSteerings = getFollowingDirections(current == null ? 0 : current.getSteer());
-        // pitch and roll is 0, if car is grounded
-        double[] newPitches = myCar.isMidAir() ? getFollowingDirections(current == null ? 0 : current.getPitch()) : new double[]{0};
-        double[] newRolls = myCar.isMidAir() ? getFollowingDirections(current == null ? 0 : current.getRoll()) : new double[]{0};
-        // jump is false, if jumping has no effect // FIXME With current implementation, second jump will always be one step long
-        boolean[] newJumps = !myCar.hasDoubleJumped() ? new boolean[]{true, false} : new boolean[]{false};
-        // boost is false, if car has no boost
-        boolean[] newBoosts = myCar.getBoost() > 0 ? new boolean[]{true, false} : new boolean[]{false};
-        boolean[] newSlides = new boolean[]{true, false};
-
-        for (double throttle : newThrottles) {
-            for (double steer : newSteerings) {
-                for (double pitch : newPitches) {
-                    for (double roll : newRolls) {
-                        for (boolean jump : newJumps) {
-                            for (boolean boost : newBoosts) {
-                                // boost is false, if throttle is 0 or -1
-                                if (boost && throttle != 1) continue;
-
-                                for (boolean slide : newSlides) {
-                                    // slide is false, when boost is true, or when steer == 0
-                                    if (slide && (boost || steer == 0)) continue;
-
-                                    following.add(new ActionSet()
-                                            .withThrottle(throttle)
-                                            .withSteer(steer)
-                                            .withPitch(pitch)
-                                            .withRoll(roll)
-                                            .withJump(jump)
-                                            .withBoost(boost)
-                                            .withSlide(slide));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        List<ActionSet> following = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            following.add(ActionSetTable.create(id));
         }
-
         return following;
     }
-
-    /** A helper method that returns an array of directions that are close to a given direction. */
-    private static double[] getFollowingDirections(double value) {
-        if (value == 1) return new double[]{1, 0};
-        if (value == -1) return new double[]{0, -1};
-        if (value == 0) return new double[]{1, 0, -1};
-        return new double[0];
-    }
 }
@@ -0,0 +1,159 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+
+/** <p>The ActionSetTable gives every ActionSet used by the search a small id, and contains precomputed tables of which
+ * ActionSets sensibly follow each other. This way the search does not have to create ActionSets, and its nodes can
+ * store an id instead of an ActionSet.</p>
+ *
+ * <p>The ActionSets in the table are shared, so they must not be modified. Use {@link #create(int)} to get one that
+ * can be modified.</p> */
+public class ActionSetTable {
+
+    private static final double[] DIRECTIONS = {-1, 0, 1};
+    private static final boolean[] BUTTONS = {false, true};
+
+    /** The number of ActionSets. Each of throttle, steer, pitch and roll is -1, 0 or 1, and each of jump, boost and slide
+     * is pressed or not. */
+    public static final int COUNT = 3 * 3 * 3 * 3 * 2 * 2 * 2;
+
+    /** The id of the ActionSet where nothing is pressed. */
+    public static final int NEUTRAL = getId(new ActionSet());
+
+    private static final ActionSet[] ACTION_SETS = new ActionSet[COUNT];
+    private static final int[][] FOLLOWING = new int[COUNT * 8][];
+
+    static {
+        for (int id = 0; id < COUNT; id++) {
+            ACTION_SETS[id] = create(id);
+        }
+
+        for (int id = 0; id < COUNT; id++) {
+            for (int state = 0; state < 8; state++) {
+                FOLLOWING[id * 8 + state] = computeFollowing(ACTION_SETS[id], (state & 4) != 0, (state & 2) != 0, (state & 1) != 0);
+            }
+        }
+    }
+
+    /** @return the id of an ActionSet. Its throttle, steer, pitch and roll must be -1, 0 or 1. */
+    public static int getId(ActionSet action) {
+        int id = directionIndex(action.getThrottle());
+        id = id * 3 + directionIndex(action.getSteer());
+        id = id * 3 + directionIndex(action.getPitch());
+        id = id * 3 + directionIndex(action.getRoll());
+        id = id * 2 + (action.isJumpDepressed() ? 1 : 0);
+        id = id * 2 + (action.isBoostDepressed() ? 1 : 0);
+        id = id * 2 + (action.isSlideDepressed() ? 1 : 0);
+        return id;
+    }
+
+    /** @return the shared ActionSet with the given id. It must not be modified. */
+    public static ActionSet get(int id) {
+        return ACTION_SETS[id];
+    }
+
+    /** @return a new ActionSet with the given id. */
+    public static ActionSet create(int id) {
+        boolean slide = BUTTONS[id % 2];
+        id /= 2;
+        boolean boost = BUTTONS[id % 2];
+        id /= 2;
+        boolean jump = BUTTONS[id % 2];
+        id /= 2;
+        double roll = DIRECTIONS[id % 3];
+        id /= 3;
+        double pitch = DIRECTIONS[id % 3];
+        id /= 3;
+        double steer = DIRECTIONS[id % 3];
+        id /= 3;
+        double throttle = DIRECTIONS[id];
+
+        return new ActionSet()
+                .withThrottle(throttle)
+                .withSteer(steer)
+                .withPitch(pitch)
+                .withRoll(roll)
+                .withJump(jump)
+                .withBoost(boost)
+                .withSlide(slide);
+    }
+
+    /** Get the ids of all ActionSets that sensibly follow a given ActionSet. The returned array must not be modified.
+     * @param previousId the id of the prior ActionSet.
+     * @param isMidAir whether the car is in the air.
+     * @param hasBoost whether the car has boost.
+     * @param hasDoubleJumped whether the car has double jumped.
+     * @return the ids in the same order as {@link AStar#getFollowingActionSets(botenanna.game.Situation, ActionSet)}. */
+    public static int[] getFollowing(int previousId, boolean isMidAir, boolean hasBoost, boolean hasDoubleJumped) {
+        int state = (isMidAir ? 4 : 0) + (hasBoost ? 2 : 0) + (hasDoubleJumped ? 1 : 0);
+        return FOLLOWING[previousId * 8 + state];
+    }
+
+    /** Helper method for the static initializer. Generates the ids of the ActionSets that sensibly follow the
+     * {@code current} ActionSet. */
+    private static int[] computeFollowing(ActionSet current, boolean isMidAir, boolean hasBoost, boolean hasDoubleJumped) {
+
+        int[] following = new int[COUNT];
+        int count = 0;
+
+        double[] newThrottles = getFollowingDirections(current.getThrottle());
+        double[] newSteerings = getFollowingDirections(current.getSteer());
+        // pitch and roll is 0, if car is grounded
+        double[] newPitches = isMidAir ? getFollowingDirections(current.getPitch()) : new double[]{0};
+        double[] newRolls = isMidAir ? getFollowingDirections(current.getRoll()) : new double[]{0};
+        // jump is false, if jumping has no effect // FIXME With current implementation, second jump will always be one step long
+        boolean[] newJumps = !hasDoubleJumped ? new boolean[]{true, false} : new boolean[]{false};
+        // boost is false, if car has no boost
+        boolean[] newBoosts = hasBoost ? new boolean[]{true, false} : new boolean[]{false};
+        boolean[] newSlides = new boolean[]{true, false};
+
+        for (double throttle : newThrottles) {
+            for (double steer : newSteerings) {
+                for (double pitch : newPitches) {
+                    for (double roll : newRolls) {
+                        for (boolean jump : newJumps) {
+                            for (boolean boost : newBoosts) {
+                                // boost is false, if throttle is 0 or -1
+                                if (boost && throttle != 1) continue;
+
+                                for (boolean slide : newSlides) {
+                                    // slide is false, when boost is true, or when steer == 0
+                                    if (slide && (boost || steer == 0)) continue;
+
+                                    following[count++] = getId(new ActionSet()
+                                            .withThrottle(throttle)
+                                            .withSteer(steer)
+                                            .withPitch(pitch)
+                                            .withRoll(roll)
+                                            .withJump(jump)
+                                            .withBoost(boost)
+                                            .withSlide(slide));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        int[] result = new int[count];
+        System.arraycopy(following, 0, result, 0, count);
+        return result;
+    }
+
+    /** A helper method that returns an array of directions that are close to a given direction. */
+    private static double[] getFollowingDirections(double value) {
+        if (value == 1) return new double[]{1, 0};
+        if (value == -1) return new double[]{0, -1};
+        if (value == 0) return new double[]{1, 0, -1};
+        return new double[0];
+    }
+
+    /** @return the index of a direction in {@link #DIRECTIONS}. */
+    private static int directionIndex(double value) {
+        if (value == -1) return 0;
+        if (value == 0) return 1;
+        if (value == 1) return 2;
+        throw new IllegalArgumentException("Only directions of -1, 0 and 1 have an id. Was: " + value);
+    }
+}
@@ -0,0 +1,222 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.intentions.IntentionFunction;
+import botenanna.physics.SteppedTimeLine;
+
+import java.util.*;
+
+/** <p>A Planner using beam search. The search goes one step deeper at a time, and only the {@code width} best
+ * situations of each depth are expanded further. This makes it possible to plan much further ahead than {@link AStar},
+ * since the time and memory used are bounded by width × depth × the number of following actions.</p>
+ *
+ * <p>The found sequence leads to the best situation at the deepest depth, unless the intention is fulfilled earlier.</p> */
+public class BeamSearch implements Planner {
+
+    /** The settings of a beam search. All setters return the Settings itself. */
+    public static class Settings {
+        private int width = 8;
+        private int depth = 20;
+
+        /** Set the number of situations kept at each depth. Default is 8. */
+        public Settings withWidth(int width) {
+            if (width <= 0) throw new IllegalArgumentException("Width must be positive.");
+            this.width = width;
+            return this;
+        }
+
+        /** Set the number of steps searched. Default is 20, which is 1 second with a step size of 0.05. */
+        public Settings withDepth(int depth) {
+            if (depth <= 0) throw new IllegalArgumentException("Depth must be positive.");
+            this.depth = depth;
+            return this;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /** A situation in the search and the action leading to it from its parent. */
+    private static class Node {
+        public final Node parent;
+        public final int action;
+        public final Situation situation;
+        public final double intentionValue;
+
+        public Node(Node parent, int action, Situation situation, double intentionValue) {
+            this.parent = parent;
+            this.action = action;
+            this.situation = situation;
+            this.intentionValue = intentionValue;
+        }
+    }
+
+    /** Worst first, so the worst of the next beam can be replaced quickly. */
+    private static final Comparator<Node> WORST_FIRST = (a, b) -> Double.compare(b.intentionValue, a.intentionValue);
+
+    private final IntentionFunction intention;
+    private final double stepsize;
+    private final Settings settings;
+    private final Set<StateKey> seen = new HashSet<>();
+    private final List<Node> incumbent = new ArrayList<>(); // The incumbent's node at each depth
+
+    private List<Node> beam = new ArrayList<>(); // The nodes at the current depth
+    private int beamIndex = 0; // The next node of the beam to expand
+    private PriorityQueue<Node> nextBeam;
+    private int depth = 0;
+    private Node result = null;
+    private boolean isFinished = false;
+
+    /** Create a search for a sequence of actions from the {@code startSituation}. Nothing is searched before
+     * {@link #search(long)} is called. */
+    public BeamSearch(Situation startSituation, IntentionFunction intention, double stepsize, Settings settings) {
+        this.intention = intention;
+        this.stepsize = stepsize;
+        this.settings = settings;
+        this.nextBeam = new PriorityQueue<>(settings.getWidth() + 1, WORST_FIRST);
+
+        beam.add(new Node(null, ActionSetTable.NEUTRAL, startSituation, intention.compute(startSituation, 0)));
+        seen.add(new StateKey(startSituation, 0, stepsize));
+    }
+
+    /** Seed the search with a sequence of actions, typically the rest of a previous plan. The situation reached by the
+     * actions at each depth is always considered for the beam of that depth, so the search can only replace the
+     * sequence with a better one.
+     * @param actions the actions in the order they are performed. Their throttle, steer, pitch and roll must be -1, 0 or 1. */
+    @Override
+    public void setIncumbent(List<ActionSet> actions) {
+        if (depth > 0 || beamIndex > 0) throw new IllegalStateException("The incumbent must be given before searching.");
+
+        Node node = beam.get(0);
+        for (ActionSet actionSet : actions) {
+            if (incumbent.size() >= settings.getDepth()) break;
+
+            double timeSpent = (incumbent.size() + 1) * stepsize;
+            int action = ActionSetTable.getId(actionSet);
+            Situation situation = Simulation.simulate(node.situation, stepsize, ActionSetTable.get(action));
+            node = new Node(node, action, situation, intention.compute(situation, timeSpent));
+            incumbent.add(node);
+        }
+    }
+
+    @Override
+    public boolean search(long timeBudgetNanos) {
+        long startTime = System.nanoTime();
+
+        while (!isFinished) {
+            if (beamIndex == 0) {
+                // Is any situation at this depth a fulfilling destination?
+                for (Node node : beam) {
+                    if (intention.isDeviationFulfilled(node.situation, depth * stepsize)) {
+                        finish(node);
+                        return true;
+                    }
+                }
+                if (depth == settings.getDepth() || beam.isEmpty()) {
+                    finish(getBest(beam));
+                    return true;
+                }
+            }
+
+            expand(beam.get(beamIndex));
+            beamIndex++;
+
+            if (beamIndex == beam.size()) {
+                nextDepth();
+            }
+
+            if (System.nanoTime() - startTime >= timeBudgetNanos) break;
+        }
+
+        return isFinished;
+    }
+
+    /** Helper method for {@link #search(long)}. Simulate all actions following the node and keep the successors that
+     * belong in the next beam. */
+    private void expand(Node node) {
+        double timeSpent = (depth + 1) * stepsize;
+        Car myCar = node.situation.getMyCar();
+        int[] followingActions = ActionSetTable.getFollowing(node.action, myCar.isMidAir(), myCar.getBoost() > 0, myCar.hasDoubleJumped());
+
+        for (int action : followingActions) {
+            Situation situation = Simulation.simulate(node.situation, stepsize, ActionSetTable.get(action));
+            Node successor = new Node(node, action, situation, intention.compute(situation, timeSpent));
+            if (isBetterThanWorst(successor) && seen.add(new StateKey(situation, timeSpent, stepsize))) {
+                addToNextBeam(successor);
+            }
+        }
+    }
+
+    /** @return whether the node belongs in the next beam as it is now. */
+    private boolean isBetterThanWorst(Node node) {
+        return nextBeam.size() < settings.getWidth() || node.intentionValue < nextBeam.peek().intentionValue;
+    }
+
+    /** Add the node to the next beam, replacing the worst node if the beam is full. */
+    private void addToNextBeam(Node node) {
+        nextBeam.add(node);
+        if (nextBeam.size() > settings.getWidth()) {
+            nextBeam.poll();
+        }
+    }
+
+    /** Helper method for {@link #search(long)}. Make the next beam the current one. */
+    private void nextDepth() {
+        // The incumbent competes even if an equivalent situation has been seen
+        if (depth < incumbent.size() && isBetterThanWorst(incumbent.get(depth))) {
+            addToNextBeam(incumbent.get(depth));
+        }
+
+        beam = new ArrayList<>(nextBeam);
+        beam.sort(WORST_FIRST.reversed());
+        nextBeam.clear();
+        beamIndex = 0;
+        depth++;
+    }
+
+    private void finish(Node node) {
+        result = node;
+        isFinished = true;
+    }
+
+    private static Node getBest(List<Node> nodes) {
+        Node best = null;
+        for (Node node : nodes) {
+            if (best == null || node.intentionValue < best.intentionValue) best = node;
+        }
+        return best;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /** @return the found sequence, if the search is finished. Otherwise the sequence leading to the best situation of
+     * the deepest beam so far. Returns null, if nothing has been searched yet or the sequence would be empty. */
+    @Override
+    public SteppedTimeLine<ActionSet> getSequence() {
+        Node node = isFinished ? result : getBest(beam);
+        if (node == null || node.parent == null) return null;
+
+        List<ActionSet> sequence = new ArrayList<>();
+        for (; node.parent != null; node = node.parent) {
+            sequence.add(ActionSetTable.create(node.action));
+        }
+        // The actions were found backwards
+        Collections.reverse(sequence);
+        return AStar.toTimeLine(sequence, stepsize);
+    }
+
+    /** @return the number of steps searched so far. */
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,373 @@
+package botenanna.game.simulation;
+
+import botenanna.Ball;
+import botenanna.Bot;
+import botenanna.behaviortree.BehaviorTree;
+import botenanna.behaviortree.intentions.Intention;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.game.ActionSet;
+import botenanna.game.Arena;
+import botenanna.game.ArenaDistanceField;
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.physics.BallSimulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static botenanna.game.simulation.SituationState.*;
+
+/** <p>A Match plays two behaviour trees against each other in a simulated arena, without the game. Blue is in slot 0
+ * of the {@link SituationState} and orange in slot 1. Each step both bots get a Situation seen from their own car, and
+ * their actions are simulated. The cars move like in {@link SituationState#stepCars(ActionSet, ActionSet, double)}, but
+ * they also use boost, are stopped by the walls and can hit the ball. The ball is simulated by the
+ * {@link BallSimulator}. When the ball crosses a goal line, a goal is scored, and the match continues from a kickoff.</p>
+ *
+ * <p>Cars are treated as spheres and stay on the ground, so the result says more about positioning than mechanics.
+ * Nothing is random except the kickoff positions, which come from the seed, so a match can be repeated. For that,
+ * creating a Match removes the planning budget of all Intentions, see {@link Intention#setPlanningBudget(long)}, so
+ * their plans do not depend on how fast or busy the computer is.</p>
+ *
+ * <p>A Match can be run on any thread, and many matches can run in parallel with {@link #playAll(List, ForkJoinPool)},
+ * as long as each match has its own trees. Intentions should not have a {@link PlanningService} then, so that they
+ * plan on the match's thread, and the match can be repeated.</p> */
+public class Match implements Callable<MatchResult> {
+
+    /** The settings of a match. All setters return the Settings itself. */
+    public static class Settings {
+        private double duration = 300;
+        private int ticksPerStep = 2;
+        private long seed = 0;
+
+        /** Set the length of the match in game time. Default is 300 seconds, like the game. */
+        public Settings withDuration(double duration) {
+            if (duration <= 0) throw new IllegalArgumentException("Duration must be positive.");
+            this.duration = duration;
+            return this;
+        }
+
+        /** Set how many ticks of {@link BallSimulator#TICK} are simulated between the bots' decisions.
+         * Default is 2, which is the 60 Hz that bots get packets at in the game. */
+        public Settings withTicksPerStep(int ticksPerStep) {
+            if (ticksPerStep <= 0) throw new IllegalArgumentException("Ticks per step must be positive.");
+            this.ticksPerStep = ticksPerStep;
+            return this;
+        }
+
+        /** Set the seed used to choose kickoff positions. Default is 0. */
+        public Settings withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public double getDuration() {
+            return duration;
+        }
+
+        public int getTicksPerStep() {
+            return ticksPerStep;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+    }
+
+    /** The radius of the sphere used for a car's collisions. */
+    public static final double CAR_RADIUS = 60;
+    /** Boost used per second while boosting. */
+    public static final double BOOST_USAGE = 100 / 3.0;
+    public static final double CAR_MASS = 180;
+    public static final double BALL_MASS = 30;
+    /** The fraction of the velocity towards each other that is kept after a car hits the ball. */
+    public static final double HIT_RESTITUTION = 0.6;
+    public static final double KICKOFF_BOOST = 33;
+
+    /** Blue's kickoff positions as x, y. Orange's are the same, mirrored through the centre. */
+    private static final double[][] KICKOFF_POSITIONS = {
+            {-2048, -2560}, {2048, -2560}, {-256, -3840}, {256, -3840}, {0, -4608}
+    };
+
+    /** The positions of the boost pads in a standard arena as x, y. */
+    private static final double[][] BOOSTPAD_POSITIONS = {
+            {0, -4240}, {-1792, -4184}, {1792, -4184}, {-3072, -4096}, {3072, -4096}, {-940, -3308}, {940, -3308},
+            {0, -2816}, {-3584, -2484}, {3584, -2484}, {-1788, -2300}, {1788, -2300}, {-2048, -1036}, {0, -1024},
+            {2048, -1036}, {-3584, 0}, {-1024, 0}, {1024, 0}, {3584, 0}, {-2048, 1036}, {0, 1024}, {2048, 1036},
+            {-1788, 2300}, {1788, 2300}, {-3584, 2484}, {3584, 2484}, {0, 2816}, {-940, 3308}, {940, 3308},
+            {-3072, 4096}, {3072, 4096}, {-1792, 4184}, {1792, 4184}, {0, 4240}
+    };
+
+    private final Bot[] bots;
+    private final Settings settings;
+    private final SituationState state = new SituationState();
+    private final double[] ball = new double[BallSimulator.STATE_SIZE];
+    private final double[] normal = new double[3];
+    private final boolean[] isTouchingBall = new boolean[CAR_COUNT];
+    private final int[] goals = new int[CAR_COUNT];
+    private final int[] touches = new int[CAR_COUNT];
+    private final Random random;
+    private final int ticksPerStep;
+    private final double stepsize;
+    private long steps = 0;
+
+    /** Create a match between two trees. The trees must not be used by anything else while the match runs.
+     * Intentions plan without a time budget from now on, see {@link Intention#setPlanningBudget(long)}. */
+    public Match(BehaviorTree blueTree, BehaviorTree orangeTree, Settings settings) {
+        this.bots = new Bot[]{new Bot(0, 0, blueTree), new Bot(1, 1, orangeTree)};
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+        this.ticksPerStep = settings.getTicksPerStep();
+        this.stepsize = ticksPerStep * BallSimulator.TICK;
+        Intention.setPlanningBudget(Long.MAX_VALUE);
+    }
+
+    /** Play the match from the first kickoff until the time is up. */
+    @Override
+    public MatchResult call() {
+        long startTime = System.nanoTime();
+
+        kickoff();
+        while (state.getGameTime() < settings.getDuration()) {
+            step();
+        }
+
+        return new MatchResult(goals, touches, steps, state.getGameTime(), System.nanoTime() - startTime);
+    }
+
+    /** Let the bots decide and simulate one step. */
+    void step() {
+        ActionSet blueAction = bots[0].process(state.toSituation(0));
+        ActionSet orangeAction = bots[1].process(state.toSituation(1));
+
+        state.stepCars(blueAction, orangeAction, stepsize);
+        useBoost(0, blueAction);
+        useBoost(1, orangeAction);
+        for (int slot = 0; slot < CAR_COUNT; slot++) {
+            keepInsideWalls(slot);
+        }
+
+        stepBall();
+        // The car handled first has an advantage when both hit the ball, so they take turns
+        int first = (int) (steps % CAR_COUNT);
+        for (int i = 0; i < CAR_COUNT; i++) {
+            hitBall((first + i) % CAR_COUNT);
+        }
+
+        double ballY = state.get(BALL + BALL_POS + 1);
+        if (Math.abs(ballY) > Arena.WALL_Y + Ball.RADIUS) {
+            // The ball is behind a goal line. Blue attacks the goal at positive y
+            goals[ballY > 0 ? 0 : 1]++;
+            kickoff();
+        }
+        steps++;
+    }
+
+    /** Reset cars, ball and boost pads to a kickoff. The game time continues. */
+    void kickoff() {
+        double[] position = KICKOFF_POSITIONS[random.nextInt(KICKOFF_POSITIONS.length)];
+        for (int slot = 0; slot < CAR_COUNT; slot++) {
+            int car = getCarOffset(slot);
+            double sign = slot == 0 ? 1 : -1;
+            double x = position[0] * sign;
+            double y = position[1] * sign;
+            for (int i = 0; i < CAR_SIZE; i++) {
+                state.set(car + i, 0);
+            }
+            state.set(car + CAR_POS, x);
+            state.set(car + CAR_POS + 1, y);
+            state.set(car + CAR_POS + 2, Car.GROUND_OFFSET);
+            // Facing the ball
+            state.set(car + CAR_ROT + 2, Math.atan2(-y, -x));
+            state.set(car + CAR_BOOST, KICKOFF_BOOST);
+            state.set(car + CAR_TEAM, slot);
+            state.setPlayerIndex(slot, bots[slot].getPlayerIndex());
+            isTouchingBall[slot] = false;
+            bots[slot].getBehaviorTree().reset();
+        }
+
+        for (int i = 0; i < BALL_SIZE; i++) {
+            state.set(BALL + i, 0);
+        }
+        state.set(BALL + BALL_POS + 2, Ball.RADIUS);
+
+        for (int i = 0; i < Boostpad.COUNT_TOTAL_PADS; i++) {
+            int pad = getPadOffset(i);
+            double x = BOOSTPAD_POSITIONS[i][0], y = BOOSTPAD_POSITIONS[i][1];
+            state.set(pad + PAD_X, x);
+            state.set(pad + PAD_Y, y);
+            state.set(pad + PAD_TIMER, 0);
+            state.set(pad + PAD_BIG, new Boostpad(x, y, 0).getBoostAmount() == Boostpad.AMOUNT_IN_BIG ? 1 : 0);
+        }
+    }
+
+    /** Remove the boost used by a car during a step. Cars only boost on the ground, see SituationState. */
+    private void useBoost(int slot, ActionSet action) {
+        int car = getCarOffset(slot);
+        if (action != null && action.isBoostDepressed() && state.get(car + CAR_MID_AIR) == 0) {
+            state.set(car + CAR_BOOST, Math.max(0, state.get(car + CAR_BOOST) - BOOST_USAGE * stepsize));
+        }
+    }
+
+    /** Push a car out of the walls and remove its velocity into them. Cars can drive into the goals. */
+    private void keepInsideWalls(int slot) {
+        int car = getCarOffset(slot);
+        double x = state.get(car + CAR_POS), y = state.get(car + CAR_POS + 1);
+
+        if (Math.abs(x) < Arena.GOAL_POST_X_OFFSET - CAR_RADIUS && Math.abs(y) > Arena.WALL_Y - CAR_RADIUS) {
+            double maxY = Arena.WALL_Y + Arena.GOAL_DEPHT - CAR_RADIUS;
+            if (Math.abs(y) > maxY) {
+                state.set(car + CAR_POS + 1, Math.copySign(maxY, y));
+                state.set(car + CAR_VEL + 1, 0);
+            }
+            return;
+        }
+
+        double distance = ArenaDistanceField.getDistanceToWalls(x, y);
+        if (distance >= CAR_RADIUS) return;
+
+        // The walls are vertical, so the normal is found at half height, away from the floor and the ceiling
+        ArenaDistanceField.getNormal(x, y, Arena.HEIGHT / 2, normal, 0);
+        double push = CAR_RADIUS - distance;
+        state.set(car + CAR_POS, x + normal[0] * push);
+        state.set(car + CAR_POS + 1, y + normal[1] * push);
+
+        double velocityIntoWall = state.get(car + CAR_VEL) * normal[0] + state.get(car + CAR_VEL + 1) * normal[1];
+        if (velocityIntoWall < 0) {
+            state.set(car + CAR_VEL, state.get(car + CAR_VEL) - normal[0] * velocityIntoWall);
+            state.set(car + CAR_VEL + 1, state.get(car + CAR_VEL + 1) - normal[1] * velocityIntoWall);
+        }
+    }
+
+    /** Simulate the ball with the BallSimulator. Its acceleration is not used and left at zero. */
+    private void stepBall() {
+        for (int i = 0; i < 3; i++) {
+            ball[BallSimulator.POS + i] = state.get(BALL + BALL_POS + i);
+            ball[BallSimulator.VEL + i] = state.get(BALL + BALL_VEL + i);
+            ball[BallSimulator.ANG + i] = state.get(BALL + BALL_ANG_VEL + i);
+        }
+        BallSimulator.tick(ball, 0, ticksPerStep);
+        for (int i = 0; i < 3; i++) {
+            state.set(BALL + BALL_POS + i, ball[BallSimulator.POS + i]);
+            state.set(BALL + BALL_VEL + i, ball[BallSimulator.VEL + i]);
+            state.set(BALL + BALL_ANG_VEL + i, ball[BallSimulator.ANG + i]);
+        }
+    }
+
+    /** If the car overlaps the ball, push the ball out and exchange an impulse between them. The car's vertical velocity
+     * does not change, since cars stay on the ground. A touch is counted when a car starts touching the ball. */
+    private void hitBall(int slot) {
+        int car = getCarOffset(slot);
+        double dx = state.get(BALL + BALL_POS) - state.get(car + CAR_POS);
+        double dy = state.get(BALL + BALL_POS + 1) - state.get(car + CAR_POS + 1);
+        double dz = state.get(BALL + BALL_POS + 2) - state.get(car + CAR_POS + 2);
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double contactDistance = Ball.RADIUS + CAR_RADIUS;
+
+        boolean wasTouching = isTouchingBall[slot];
+        isTouchingBall[slot] = distance < contactDistance;
+        if (!isTouchingBall[slot] || distance == 0) return;
+        if (!wasTouching) touches[slot]++;
+
+        double nx = dx / distance, ny = dy / distance, nz = dz / distance;
+        double push = contactDistance - distance;
+        state.set(BALL + BALL_POS, state.get(BALL + BALL_POS) + nx * push);
+        state.set(BALL + BALL_POS + 1, state.get(BALL + BALL_POS + 1) + ny * push);
+        state.set(BALL + BALL_POS + 2, state.get(BALL + BALL_POS + 2) + nz * push);
+
+        double relativeVelocity = (state.get(BALL + BALL_VEL) - state.get(car + CAR_VEL)) * nx
+                + (state.get(BALL + BALL_VEL + 1) - state.get(car + CAR_VEL + 1)) * ny
+                + (state.get(BALL + BALL_VEL + 2) - state.get(car + CAR_VEL + 2)) * nz;
+        if (relativeVelocity >= 0) return;
+
+        double impulse = -(1 + HIT_RESTITUTION) * relativeVelocity / (1 / BALL_MASS + 1 / CAR_MASS);
+        double ballChange = impulse / BALL_MASS, carChange = impulse / CAR_MASS;
+        state.set(BALL + BALL_VEL, state.get(BALL + BALL_VEL) + nx * ballChange);
+        state.set(BALL + BALL_VEL + 1, state.get(BALL + BALL_VEL + 1) + ny * ballChange);
+        state.set(BALL + BALL_VEL + 2, state.get(BALL + BALL_VEL + 2) + nz * ballChange);
+        state.set(car + CAR_VEL, state.get(car + CAR_VEL) - nx * carChange);
+        state.set(car + CAR_VEL + 1, state.get(car + CAR_VEL + 1) - ny * carChange);
+    }
+
+    /** @return the current state of the match. Cars and ball can be placed by modifying it between steps. */
+    SituationState getState() {
+        return state;
+    }
+
+    /** @return the goals scored by the team so far. */
+    public int getGoals(int team) {
+        return goals[team];
+    }
+
+    /** Play all matches on the pool and wait for them to finish.
+     * @return the results in the same order as the matches. */
+    public static List<MatchResult> playAll(List<Match> matches, ForkJoinPool pool) {
+        List<MatchResult> results = new ArrayList<>(matches.size());
+        for (Future<MatchResult> future : pool.invokeAll(matches)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Failed to play a match.", e);
+            }
+        }
+        return results;
+    }
+
+    /** Play matches between two tree files and print the results. Every match gets new trees and its own seed.
+     * Arguments: {@code <blue tree> <orange tree> [matches] [--threads n] [--duration seconds] [--seed n]}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: Match <blue tree> <orange tree> [matches] [--threads n] [--duration seconds] [--seed n]");
+            System.exit(-1);
+        }
+
+        int matchCount = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double duration = 300;
+        long seed = 0;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--duration": duration = Double.parseDouble(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: matchCount = Integer.parseInt(args[i]);
+            }
+        }
+
+        File blueFile = new File(args[0]);
+        File orangeFile = new File(args[1]);
+        BehaviourTreeBuilder builder = new BehaviourTreeBuilder();
+        List<Match> matches = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            Settings settings = new Settings().withDuration(duration).withSeed(seed + i);
+            matches.add(new Match(builder.build(blueFile), builder.build(orangeFile), settings));
+        }
+
+        long startTime = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<MatchResult> results;
+        try {
+            results = playAll(matches, pool);
+        } finally {
+            pool.shutdown();
+        }
+        long wallNanos = System.nanoTime() - startTime;
+
+        int[] wins = new int[3];
+        double simulatedSeconds = 0;
+        for (int i = 0; i < results.size(); i++) {
+            MatchResult result = results.get(i);
+            System.out.println("Match " + i + ": " + result);
+            wins[result.getWinner() + 1]++;
+            simulatedSeconds += result.getSimulatedSeconds();
+        }
+        System.out.println(String.format("Blue %d wins, orange %d wins, %d draws. %.0f s simulated in %d ms on %d threads (%.0fx real time).",
+                wins[1], wins[2], wins[0], simulatedSeconds, wallNanos / 1_000_000, threads, simulatedSeconds / (wallNanos / 1E9)));
+    }
+}
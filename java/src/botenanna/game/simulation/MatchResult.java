@@ -0,0 +1,61 @@
+package botenanna.game.simulation;
+
+/** The result of a {@link Match}. Teams are indexed like in the game, 0 is blue and 1 is orange. */
+public class MatchResult {
+
+    private final int[] goals;
+    private final int[] touches;
+    private final long steps;
+    private final double simulatedSeconds;
+    private final long wallNanos;
+
+    public MatchResult(int[] goals, int[] touches, long steps, double simulatedSeconds, long wallNanos) {
+        this.goals = goals.clone();
+        this.touches = touches.clone();
+        this.steps = steps;
+        this.simulatedSeconds = simulatedSeconds;
+        this.wallNanos = wallNanos;
+    }
+
+    /** @return the number of goals scored by the team. */
+    public int getGoals(int team) {
+        return goals[team];
+    }
+
+    /** @return the number of times a car of the team started touching the ball. */
+    public int getTouches(int team) {
+        return touches[team];
+    }
+
+    /** @return the team with the most goals, or -1 if it is a draw. */
+    public int getWinner() {
+        if (goals[0] == goals[1]) return -1;
+        return goals[0] > goals[1] ? 0 : 1;
+    }
+
+    /** @return the number of steps simulated. The bots are evaluated once per step. */
+    public long getSteps() {
+        return steps;
+    }
+
+    /** @return the length of the match in game time. */
+    public double getSimulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    /** @return the time it took to simulate the match. */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /** @return how many times faster than real time the match was simulated. */
+    public double getSpeedup() {
+        return wallNanos == 0 ? 0 : simulatedSeconds / (wallNanos / 1E9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d - %d, touches %d - %d, %.0f s simulated in %d ms (%.0fx real time)",
+                goals[0], goals[1], touches[0], touches[1], simulatedSeconds, wallNanos / 1_000_000, getSpeedup());
+    }
+}
@@ -0,0 +1,413 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.intentions.IntentionFunction;
+import botenanna.physics.SteppedTimeLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/** <p>A Planner using Monte-Carlo tree search with UCT. Each iteration selects a sequence of actions in the tree,
+ * expands it with one new action, continues with a rollout to a fixed depth, and scores the reached situation with the
+ * intention function.</p>
+ *
+ * <p>The tree is open-loop: it stores statistics about sequences of actions, not situations. Every iteration simulates
+ * from the start situation. This makes it possible to reuse a tree from a previous search, after some of its actions
+ * have been performed, since only the statistics are kept.</p>
+ *
+ * <p>With more than one thread, independent trees are searched in parallel, and their statistics are combined when the
+ * sequence is chosen (root parallelism).</p> */
+public class MonteCarloTreeSearch implements Planner {
+
+    /** The RolloutPolicy decides which action to take after leaving the tree. */
+    public enum RolloutPolicy {
+        /** Any of the following actions. */
+        RANDOM,
+        /** The previous action, if possible. Otherwise any of the following actions. */
+        REPEAT;
+
+        /** @return the id of the chosen action.
+         * @param following the ids of the actions that may follow the previous action. */
+        int choose(int[] following, int previous, Random random) {
+            if (this == REPEAT) {
+                for (int action : following) {
+                    if (action == previous) return action;
+                }
+            }
+            return following[random.nextInt(following.length)];
+        }
+    }
+
+    /** The settings of a Monte-Carlo tree search. All setters return the Settings itself. */
+    public static class Settings {
+        private int iterations = 1000;
+        private int depth = 4;
+        private int threads = 1;
+        private RolloutPolicy rollout = RolloutPolicy.RANDOM;
+        private double exploration = Math.sqrt(2);
+        private long seed = 0;
+
+        /** Set the number of iterations per tree, before the search is finished. Default is 1000. */
+        public Settings withIterations(int iterations) {
+            if (iterations <= 0) throw new IllegalArgumentException("Iterations must be positive.");
+            this.iterations = iterations;
+            return this;
+        }
+
+        /** Set the number of steps simulated in each iteration. Default is 4. */
+        public Settings withDepth(int depth) {
+            if (depth <= 0) throw new IllegalArgumentException("Depth must be positive.");
+            this.depth = depth;
+            return this;
+        }
+
+        /** Set the number of trees searched in parallel. Default is 1. */
+        public Settings withThreads(int threads) {
+            if (threads <= 0) throw new IllegalArgumentException("Threads must be positive.");
+            this.threads = threads;
+            return this;
+        }
+
+        /** Set the rollout policy. Default is {@link RolloutPolicy#RANDOM}. */
+        public Settings withRollout(RolloutPolicy rollout) {
+            this.rollout = rollout;
+            return this;
+        }
+
+        /** Set the exploration constant of UCT. Default is sqrt(2). */
+        public Settings withExploration(double exploration) {
+            if (exploration < 0) throw new IllegalArgumentException("Exploration must be zero or positive.");
+            this.exploration = exploration;
+            return this;
+        }
+
+        /** Set the seed of the random numbers. The trees use consecutive seeds. Default is 0. */
+        public Settings withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public RolloutPolicy getRollout() {
+            return rollout;
+        }
+
+        public double getExploration() {
+            return exploration;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+    }
+
+    /** A node in the tree. It represents the sequence of actions leading to it from the root. */
+    private static class Node {
+        public final int action;
+        public final List<Node> children = new ArrayList<>();
+        public int visits = 0;
+        public double totalReward = 0;
+
+        public Node(int action) {
+            this.action = action;
+        }
+
+        /** @return the child reached by the given action, or null. */
+        public Node getChild(int action) {
+            for (Node child : children) {
+                if (child.action == action) return child;
+            }
+            return null;
+        }
+    }
+
+    /** One of the trees searched in parallel. Only used by one thread at a time. */
+    private static class Tree {
+        public final Node root;
+        /** The id of the action performed just before the root. */
+        public final int rootAction;
+        public final Random random;
+        public final List<Node> path = new ArrayList<>();
+        public int iterations = 0;
+
+        public Tree(Node root, int rootAction, Random random) {
+            this.root = root;
+            this.rootAction = rootAction;
+            this.random = random;
+        }
+    }
+
+    private final Situation rootSituation;
+    private final IntentionFunction intention;
+    private final double stepsize;
+    private final Settings settings;
+    private final ForkJoinPool pool;
+    private final Tree[] trees;
+    private boolean isFinished = false;
+
+    /** Create a search for a sequence of actions from the {@code startSituation}. Nothing is searched before
+     * {@link #search(long)} is called.
+     * @param pool the pool used when searching more than one tree. If null, the common pool is used. */
+    public MonteCarloTreeSearch(Situation startSituation, IntentionFunction intention, double stepsize, Settings settings, ForkJoinPool pool) {
+        this(startSituation, intention, stepsize, settings, pool, null, null);
+    }
+
+    /** Create a search that reuses the trees of a previous search. The trees are continued from the node reached by
+     * the actions performed since the previous search started, and the previous search must not be used afterwards.
+     * @param previous the previous search. If null, new trees are created.
+     * @param performed the actions performed since the previous search started. */
+    public MonteCarloTreeSearch(Situation startSituation, IntentionFunction intention, double stepsize, Settings settings,
+                                ForkJoinPool pool, MonteCarloTreeSearch previous, List<ActionSet> performed) {
+        this.rootSituation = startSituation;
+        this.intention = intention;
+        this.stepsize = stepsize;
+        this.settings = settings;
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+
+        if (settings.getThreads() > 1) {
+            // The situation will be simulated from multiple threads
+            startSituation.decode();
+        }
+
+        trees = new Tree[settings.getThreads()];
+        for (int i = 0; i < trees.length; i++) {
+            Random random = new Random(settings.getSeed() + i);
+            Tree reused = previous != null && i < previous.trees.length ? reuseTree(previous.trees[i], performed, random) : null;
+            trees[i] = reused != null ? reused : new Tree(new Node(ActionSetTable.NEUTRAL), ActionSetTable.NEUTRAL, random);
+        }
+    }
+
+    /** Helper method for the constructor. Find the node reached by the performed actions and make it the new root.
+     * @return the new tree, or null if the tree contains no such node. */
+    private static Tree reuseTree(Tree previous, List<ActionSet> performed, Random random) {
+        if (performed == null || performed.isEmpty()) return null;
+
+        Node node = previous.root;
+        int action = previous.rootAction;
+        for (ActionSet actionSet : performed) {
+            action = ActionSetTable.getId(actionSet);
+            node = node.getChild(action);
+            if (node == null) return null;
+        }
+        return new Tree(node, action, random);
+    }
+
+    /** Seed the trees by searching the sequence of actions once in each tree. */
+    @Override
+    public void setIncumbent(List<ActionSet> actions) {
+        for (Tree tree : trees) {
+            Node node = tree.root;
+            Situation situation = rootSituation;
+            double time = 0;
+            tree.path.clear();
+            tree.path.add(node);
+
+            for (ActionSet actionSet : actions) {
+                if (tree.path.size() > settings.getDepth()) break;
+
+                int action = ActionSetTable.getId(actionSet);
+                Node child = node.getChild(action);
+                if (child == null) {
+                    child = new Node(action);
+                    node.children.add(child);
+                }
+                node = child;
+                tree.path.add(node);
+
+                situation = Simulation.simulate(situation, stepsize, ActionSetTable.get(action));
+                time += stepsize;
+            }
+
+            backpropagate(tree, getReward(situation, time));
+        }
+    }
+
+    @Override
+    public boolean search(long timeBudgetNanos) {
+        if (isFinished) return true;
+
+        if (trees.length == 1) {
+            searchTree(trees[0], timeBudgetNanos);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(trees.length);
+            for (Tree tree : trees) {
+                tasks.add(() -> {
+                    searchTree(tree, timeBudgetNanos);
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new RuntimeException("Failed to search a tree.", e);
+                }
+            }
+        }
+
+        isFinished = true;
+        for (Tree tree : trees) {
+            if (tree.iterations < settings.getIterations()) isFinished = false;
+        }
+        return isFinished;
+    }
+
+    /** Helper method for {@link #search(long)}. Iterate a tree until it has done enough iterations or the time budget
+     * is spent. At least one iteration is done. */
+    private void searchTree(Tree tree, long timeBudgetNanos) {
+        long startTime = System.nanoTime();
+        while (tree.iterations < settings.getIterations()) {
+            iterate(tree);
+            if (System.nanoTime() - startTime >= timeBudgetNanos) break;
+        }
+    }
+
+    /** Do one iteration: select, expand, rollout and backpropagate. */
+    private void iterate(Tree tree) {
+        Situation situation = rootSituation;
+        double time = 0;
+        Node node = tree.root;
+        int previous = tree.rootAction;
+        boolean isInTree = true;
+
+        tree.path.clear();
+        tree.path.add(node);
+
+        for (int depth = 0; depth < settings.getDepth(); depth++) {
+            if (intention.isDeviationFulfilled(situation, time)) break;
+
+            Car myCar = situation.getMyCar();
+            int[] following = ActionSetTable.getFollowing(previous, myCar.isMidAir(), myCar.getBoost() > 0, myCar.hasDoubleJumped());
+
+            int action;
+            if (isInTree) {
+                Node child = selectOrExpand(node, following);
+                // A new node ends the selection. The rest of the iteration is a rollout
+                isInTree = child.visits > 0;
+                node = child;
+                tree.path.add(node);
+                action = node.action;
+            } else {
+                action = settings.getRollout().choose(following, previous, tree.random);
+            }
+
+            situation = Simulation.simulate(situation, stepsize, ActionSetTable.get(action));
+            time += stepsize;
+            previous = action;
+        }
+
+        backpropagate(tree, getReward(situation, time));
+        tree.iterations++;
+    }
+
+    /** @return the first of the following actions that has not been tried from the node, or, if all have been tried,
+     * the child with the highest UCT value. */
+    private Node selectOrExpand(Node node, int[] following) {
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double logVisits = Math.log(Math.max(1, node.visits));
+
+        for (int action : following) {
+            Node child = node.getChild(action);
+            if (child == null) {
+                child = new Node(action);
+                node.children.add(child);
+                return child;
+            }
+            if (child.visits == 0) return child;
+
+            double value = child.totalReward / child.visits + settings.getExploration() * Math.sqrt(logVisits / child.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    /** @return a reward between 0 and 1 for reaching the situation. Higher is better, where lower intention values are better. */
+    private double getReward(Situation situation, double time) {
+        return 1 / (1 + Math.max(0, intention.compute(situation, time)));
+    }
+
+    /** Add the reward to all nodes of the tree's current path. */
+    private static void backpropagate(Tree tree, double reward) {
+        for (Node node : tree.path) {
+            node.visits++;
+            node.totalReward += reward;
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /** Choose the sequence by following the most visited actions. The visits of all trees are added together. */
+    @Override
+    public SteppedTimeLine<ActionSet> getSequence() {
+        List<Node> current = new ArrayList<>(trees.length);
+        for (Tree tree : trees) {
+            current.add(tree.root);
+        }
+
+        SteppedTimeLine<ActionSet> sequence = new SteppedTimeLine<>();
+        int[] visits = new int[ActionSetTable.COUNT];
+        double time = 0;
+
+        for (int depth = 0; depth < settings.getDepth(); depth++) {
+            int bestAction = -1;
+            for (Node node : current) {
+                for (Node child : node.children) {
+                    visits[child.action] += child.visits;
+                    if (visits[child.action] > 0 && (bestAction == -1 || visits[child.action] > visits[bestAction])) {
+                        bestAction = child.action;
+                    }
+                }
+            }
+            Arrays.fill(visits, 0);
+            if (bestAction == -1) break;
+
+            sequence.addTimeStep(time, ActionSetTable.create(bestAction));
+            time += stepsize;
+
+            List<Node> next = new ArrayList<>(current.size());
+            for (Node node : current) {
+                Node child = node.getChild(bestAction);
+                if (child != null) next.add(child);
+            }
+            current = next;
+        }
+
+        return sequence.isEmpty() ? null : sequence;
+    }
+
+    /** @return the number of iterations done by all trees in this search. */
+    public int getIterationCount() {
+        int count = 0;
+        for (Tree tree : trees) {
+            count += tree.iterations;
+        }
+        return count;
+    }
+}
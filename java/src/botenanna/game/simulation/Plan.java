@@ -0,0 +1,68 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.physics.SteppedTimeLine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A Plan is a sequence of actions found for a specific situation. The sequence starts at the game time of that
+ * situation, so the plan can be followed correctly even if it is adopted some ticks later. */
+public class Plan {
+
+    private final SteppedTimeLine<ActionSet> sequence;
+    private final double startTime;
+
+    /** @param sequence the actions. Must not be empty.
+     * @param startTime the game time of the situation the sequence was found for. */
+    public Plan(SteppedTimeLine<ActionSet> sequence, double startTime) {
+        if (sequence.isEmpty()) throw new IllegalArgumentException("A plan must contain at least one action.");
+        this.sequence = sequence;
+        this.startTime = startTime;
+    }
+
+    /** @return the action to perform at the given game time. After the end of the plan, the last action is returned. */
+    public ActionSet evaluate(double gameTime) {
+        return sequence.evaluate(gameTime - startTime);
+    }
+
+    /** @return the actions that begin after the given game time. */
+    public List<ActionSet> getActionsAfter(double gameTime) {
+        List<Double> times = sequence.getTimes();
+        List<ActionSet> actions = sequence.getItems();
+        List<ActionSet> remaining = new ArrayList<>();
+        for (int i = 0; i < times.size(); i++) {
+            if (startTime + times.get(i) > gameTime) {
+                remaining.add(actions.get(i));
+            }
+        }
+        return remaining;
+    }
+
+    /** @return the actions that begin at or before the given game time. */
+    public List<ActionSet> getActionsUntil(double gameTime) {
+        List<Double> times = sequence.getTimes();
+        List<ActionSet> actions = sequence.getItems();
+        List<ActionSet> performed = new ArrayList<>();
+        for (int i = 0; i < times.size(); i++) {
+            if (startTime + times.get(i) <= gameTime) {
+                performed.add(actions.get(i));
+            }
+        }
+        return performed;
+    }
+
+    /** @return the game time of the situation the plan was found for. */
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /** @return the game time where the last action of the plan begins. */
+    public double getEndTime() {
+        return startTime + sequence.getLastTime();
+    }
+
+    public SteppedTimeLine<ActionSet> getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,29 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.physics.SteppedTimeLine;
+
+import java.util.List;
+
+/** A Planner searches for a sequence of actions that steers the agent towards a desired intention defined by an
+ * intention function. The search can be split over multiple calls to {@link #search(long)}, e.g. one per tick.
+ * See {@link AStar} and {@link MonteCarloTreeSearch}. */
+public interface Planner {
+
+    /** Seed the search with a sequence of actions, typically the rest of a previous plan.
+     * Must be called before {@link #search(long)}.
+     * @param actions the actions in the order they are performed. Their throttle, steer, pitch and roll must be -1, 0 or 1. */
+    void setIncumbent(List<ActionSet> actions);
+
+    /** Continue the search until it is finished or the time budget is spent. The search always makes some progress.
+     * @param timeBudgetNanos the maximum time to spend searching in nanoseconds.
+     * @return whether the search is finished. */
+    boolean search(long timeBudgetNanos);
+
+    /** @return whether the search is finished. When it is, {@link #getSequence()} returns the final sequence. */
+    boolean isFinished();
+
+    /** @return the found sequence, if the search is finished. Otherwise the best sequence found so far.
+     * Returns null, if nothing has been searched yet. */
+    SteppedTimeLine<ActionSet> getSequence();
+}
@@ -0,0 +1,75 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Situation;
+import botenanna.physics.SteppedTimeLine;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** The PlanningService searches for plans on its own worker threads, so a tick never has to wait for a search.
+ * A request is a snapshot of a Situation and a {@link Planner} searching from it, and the result is a {@link Plan} for
+ * that Situation. */
+public class PlanningService {
+
+    /** How long a worker searches before checking whether the request has been cancelled. */
+    private static final long SLICE_NANOS = 1_000_000;
+
+    private final ExecutorService workers;
+    private final ForkJoinPool expansionPool;
+
+    /** @param threads the number of worker threads. */
+    public PlanningService(int threads) {
+        this(threads, null);
+    }
+
+    /** @param threads the number of worker threads.
+     * @param expansionPool pool used by each search to simulate successors in parallel. If null, each search is serial. */
+    public PlanningService(int threads, ForkJoinPool expansionPool) {
+        this.expansionPool = expansionPool;
+
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Planner #" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Request a plan found by the given planner. The planner must search from the given situation, and it must not be
+     * used by anything else until the request is done. Must be called from the thread that owns the Situation, since the
+     * Situation is decoded fully before it is handed to a worker.
+     * @param incumbent actions to seed the search with, see {@link Planner#setIncumbent(List)}. May be null.
+     * @return the future Plan. It is null if no plan was found. Cancelling the future with interruption stops the search. */
+    public Future<Plan> submit(Situation situation, Planner search, List<ActionSet> incumbent) {
+        situation.decode();
+
+        return workers.submit(() -> {
+            if (incumbent != null) {
+                search.setIncumbent(incumbent);
+            }
+
+            while (!search.search(SLICE_NANOS)) {
+                if (Thread.currentThread().isInterrupted()) return null;
+            }
+
+            SteppedTimeLine<ActionSet> sequence = search.getSequence();
+            if (sequence == null || sequence.isEmpty()) return null;
+            return new Plan(sequence, situation.getGameTime());
+        });
+    }
+
+    /** @return the pool used by each search to simulate successors in parallel, or null. */
+    public ForkJoinPool getExpansionPool() {
+        return expansionPool;
+    }
+
+    /** Stop the workers. Requests already submitted are still searched. */
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,202 @@
+package botenanna.game.simulation;
+
+import botenanna.game.Situation;
+
+/** <p>The SearchArena holds the nodes of an {@link AStar} search in parallel arrays, and orders the open nodes in a
+ * binary min-heap of node indexes. A node is referred to by its index, which is also the order it was added in.</p>
+ *
+ * <p>The situation of each node is stored in a {@link SituationState} slot, not as a Situation object, and is converted
+ * back to a Situation when it is needed. The arena has a fixed capacity, and all arrays and slots are allocated when
+ * the arena is created. They are kept when the arena is cleared, so an arena can be reused by many searches without
+ * allocating, but only by one search at a time. A search must stop adding nodes when the arena is full.</p> */
+public class SearchArena {
+
+    public static final int NO_PARENT = -1;
+    /** The capacity of an arena created without one. Room for the largest complete searches of the intention functions. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private int size = 0;
+    private final double[] intentionValues;
+    private final double[] timeSpents;
+    private final int[] parents;
+    private final int[] actions;
+    private final boolean[] fulfilled;
+    private final SituationState[] states;
+
+    private int heapSize = 0;
+    private final int[] heap;
+
+    public SearchArena() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity the number of nodes there is room for. */
+    public SearchArena(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+        intentionValues = new double[capacity];
+        timeSpents = new double[capacity];
+        parents = new int[capacity];
+        actions = new int[capacity];
+        fulfilled = new boolean[capacity];
+        states = new SituationState[capacity];
+        for (int i = 0; i < capacity; i++) {
+            states[i] = new SituationState();
+        }
+        heap = new int[capacity];
+    }
+
+    /** Remove all nodes. The arrays and slots are kept, so they can be used by the next search. */
+    public void clear() {
+        size = 0;
+        heapSize = 0;
+    }
+
+    /** Add a node and place it in the open set. The situation is copied to the node's slot.
+     * @param parent the index of the node this node came from, or {@link #NO_PARENT}.
+     * @param action the id of the action taken, see {@link ActionSetTable}.
+     * @return the index of the new node.
+     * @throws IllegalStateException if the arena is full. */
+    public int add(Situation situation, int action, int parent, double timeSpent, double intentionValue) {
+        int node = add(action, parent, timeSpent, intentionValue);
+        states[node].set(situation);
+        return node;
+    }
+
+    /** Add a node and place it in the open set without copying a situation to it. Its slot keeps whatever it held
+     * before, so it should be filled through {@link #getNextState()} before the node is added.
+     * The node is not fulfilled until {@link #setFulfilled(int, boolean)} says so.
+     * @return the index of the new node.
+     * @throws IllegalStateException if the arena is full. */
+    public int add(int action, int parent, double timeSpent, double intentionValue) {
+        if (size == states.length) throw new IllegalStateException("The arena is full.");
+
+        int node = size++;
+        actions[node] = action;
+        parents[node] = parent;
+        timeSpents[node] = timeSpent;
+        intentionValues[node] = intentionValue;
+        fulfilled[node] = false;
+
+        heap[heapSize] = node;
+        siftUp(heapSize++);
+        return node;
+    }
+
+    /** @return whether the open set is empty. */
+    public boolean isOpenSetEmpty() {
+        return heapSize == 0;
+    }
+
+    /** @return the index of the open node with the lowest intention value without removing it from the open set. Ties
+     * are broken by the order the nodes were added in. */
+    public int peek() {
+        if (heapSize == 0) throw new IllegalStateException("The open set is empty.");
+        return heap[0];
+    }
+
+    /** @return the index of the open node with the lowest intention value after removing it from the open set. */
+    public int poll() {
+        int node = peek();
+        heap[0] = heap[--heapSize];
+        if (heapSize > 0) siftDown(0);
+        return node;
+    }
+
+    /** @return the number of nodes added since the arena was cleared. */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of nodes there is room for. */
+    public int getCapacity() {
+        return states.length;
+    }
+
+    /** @return the number of nodes that can be added before the arena is full. */
+    public int getFreeCapacity() {
+        return states.length - size;
+    }
+
+    /** @return a new Situation converted from the node's slot. */
+    public Situation getSituation(int node) {
+        return states[node].toSituation();
+    }
+
+    /** @return the slot of the node that is added next. A search can step a situation in it, and only add the node if
+     * it is worth keeping. Otherwise the slot is simply reused.
+     * @throws IllegalStateException if the arena is full. */
+    public SituationState getNextState() {
+        if (size == states.length) throw new IllegalStateException("The arena is full.");
+        return states[size];
+    }
+
+    /** @return the slot holding the node's situation. It belongs to the arena and is reused after it is cleared. */
+    public SituationState getState(int node) {
+        return states[node];
+    }
+
+    public int getAction(int node) {
+        return actions[node];
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public double getTimeSpent(int node) {
+        return timeSpents[node];
+    }
+
+    public double getIntentionValue(int node) {
+        return intentionValues[node];
+    }
+
+    /** @return whether the node's situation fulfils the deviations of the search's intention function. */
+    public boolean isFulfilled(int node) {
+        return fulfilled[node];
+    }
+
+    public void setFulfilled(int node, boolean isFulfilled) {
+        fulfilled[node] = isFulfilled;
+    }
+
+    /** @return whether node a comes before node b in the open set. */
+    private boolean isBefore(int a, int b) {
+        if (intentionValues[a] < intentionValues[b]) return true;
+        if (intentionValues[a] > intentionValues[b]) return false;
+        // Same value. The oldest comes first
+        return a < b;
+    }
+
+    /** Move the node at a heap position up until its parent comes before it. */
+    private void siftUp(int position) {
+        int node = heap[position];
+        while (position > 0) {
+            int parentPosition = (position - 1) / 2;
+            int parent = heap[parentPosition];
+            if (!isBefore(node, parent)) break;
+            heap[position] = parent;
+            position = parentPosition;
+        }
+        heap[position] = node;
+    }
+
+    /** Move the node at a heap position down until it comes before its children. */
+    private void siftDown(int position) {
+        int node = heap[position];
+        int half = heapSize / 2;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < heapSize && isBefore(heap[rightPosition], child)) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (!isBefore(child, node)) break;
+            heap[position] = child;
+            position = childPosition;
+        }
+        heap[position] = node;
+    }
+}
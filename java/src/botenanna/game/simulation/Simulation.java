@@ -17,15 +17,16 @@ public class Simulation {
     public static Situation  simulate(Situation situation, double stepsize, ActionSet action){
         if (stepsize < 0) throw new IllegalArgumentException("Step size must be more than zero. Current Step size is: "+stepsize);
 
-        Rigidbody simulatedBall = simulateBall(situation.getBall(), stepsize);
-        Car simulatedMyCar = simulateCarActions(situation.getMyCar(), action,  simulatedBall, stepsize);
-        Car simulatedEnemyCar = steppedCar(situation.getEnemyCar(), stepsize);
-        Boostpad[] simulatedBoostpads = simulateBoostpads(situation.getBoostpads(), simulatedEnemyCar, simulatedMyCar, stepsize);
+        // The Situation's objects are frozen, so the simulation modifies copies
+        Rigidbody simulatedBall = simulateBall(situation.getBall().clone(), stepsize);
+        Car simulatedMyCar = simulateCarActions(situation.getMyCar().clone(), action,  simulatedBall, stepsize);
+        Car simulatedEnemyCar = steppedCar(situation.getEnemyCar().clone(), stepsize);
+        Boostpad[] simulatedBoostpads = simulateBoostpads(copyBoostpads(situation.getBoostpads()), simulatedEnemyCar, simulatedMyCar, stepsize);
 
         simulatedMyCar.setBallDependentVariables(simulatedBall.getPosition());
         simulatedEnemyCar.setBallDependentVariables(simulatedBall.getPosition());
 
-        return new Situation(simulatedMyCar, simulatedEnemyCar, simulatedBall , simulatedBoostpads);
+        return new Situation(simulatedMyCar, simulatedEnemyCar, simulatedBall , simulatedBoostpads, situation.getGameTime() + stepsize);
     }
 
     /** Simulates the boostpads, if any of the cars can pick up boost and they are stepped close to a pad deactivate them
@@ -44,9 +45,18 @@ public class Simulation {
         return boostpads;
     }
 
-    /** Checks if car is touching pad. If they do, give the car boost and refresh boostpads respawn timer. */
+    /** @return modifiable copies of the boostpads. */
+    private static Boostpad[] copyBoostpads(Boostpad[] boostpads) {
+        Boostpad[] copies = new Boostpad[boostpads.length];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = new Boostpad(boostpads[i]);
+        }
+        return copies;
+    }
+
+    /** Checks if car is touching an active pad. If they do, give the car boost and refresh boostpads respawn timer. */
     private static void simulatePickupBoostpad(Boostpad pad, Car car) {
-        if (pad.getPosition().getDistanceTo(car.getPosition()) < Boostpad.PAD_RADIUS) {
+        if (pad.isActive() && pad.getPosition().getDistanceTo(car.getPosition()) < Boostpad.PAD_RADIUS) {
             pad.refreshRespawnTimer();
             car.addBoost(pad.getBoostAmount());
         }
@@ -82,7 +92,9 @@ public class Simulation {
         } else {
             // We are on the ground
             double newYaw = car.getRotation().yaw + getTurnRate(car) * action.getSteer() * delta;
-            newYaw %= Math.PI; // Clamp to be between -PI and PI
+            // Wrap to be between -PI and PI. Taking the remainder of PI would turn the car around
+            if (newYaw > Math.PI) newYaw -= 2 * Math.PI;
+            else if (newYaw < -Math.PI) newYaw += 2 * Math.PI;
             car.setRotation(car.getRotation().withYaw(newYaw));
 
             Vector3 acceleration = new Vector3();
@@ -0,0 +1,363 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.math.Vector3;
+import botenanna.physics.BallPhysics;
+import botenanna.physics.Rigidbody;
+import botenanna.physics.SimplePhysics;
+
+import static botenanna.game.Car.*;
+
+/** <p>The SituationState is a flat representation of a {@link Situation}, where everything is stored in one array of
+ * doubles. Its purpose is simulation and search, where many steps are needed. The state is stepped in place by
+ * {@link #step(ActionSet, double)}, which simulates the same way as {@link Simulation#simulate(Situation, double, ActionSet)}
+ * without allocating anything.</p>
+ *
+ * <p>The cars are stored in two slots. When converting from a Situation, slot 0 is my car and slot 1 is the enemy's.
+ * A SituationState can be converted to and from a Situation without losing anything.</p> */
+public class SituationState {
+
+    /** Offsets of a car's values relative to {@link #getCarOffset(int)}. Rotation is stored as roll, pitch, yaw. */
+    public static final int CAR_POS = 0, CAR_VEL = 3, CAR_ACC = 6, CAR_ROT = 9, CAR_ANG_VEL = 12, CAR_BOOST = 15,
+            CAR_TEAM = 16, CAR_JUMPED = 17, CAR_DOUBLE_JUMPED = 18, CAR_DEMOLISHED = 19, CAR_SUPERSONIC = 20, CAR_MID_AIR = 21;
+    public static final int CAR_SIZE = 22;
+    public static final int CAR_COUNT = 2;
+
+    /** Offset of the ball. The position, velocity and acceleration are laid out as {@link BallPhysics} expects. */
+    public static final int BALL = CAR_COUNT * CAR_SIZE;
+    /** Offsets of the ball's values relative to {@link #BALL}. */
+    public static final int BALL_POS = BallPhysics.POS, BALL_VEL = BallPhysics.VEL, BALL_ACC = BallPhysics.ACC,
+            BALL_ROT = 9, BALL_ANG_VEL = 12;
+    public static final int BALL_SIZE = 15;
+
+    /** Offset of the first boost pad. */
+    public static final int PADS = BALL + BALL_SIZE;
+    /** Offsets of a boost pad's values relative to {@link #getPadOffset(int)}. */
+    public static final int PAD_X = 0, PAD_Y = 1, PAD_TIMER = 2, PAD_BIG = 3;
+    public static final int PAD_SIZE = 4;
+
+    /** The length of the array holding the whole state. */
+    public static final int SIZE = PADS + Boostpad.COUNT_TOTAL_PADS * PAD_SIZE;
+
+    private final double[] data = new double[SIZE];
+    private final int[] playerIndexes = new int[CAR_COUNT];
+    private double gameTime;
+
+    /** Create an empty SituationState. Use {@link #set(Situation)} or {@link #copyFrom(SituationState)} to fill it. */
+    public SituationState() {
+    }
+
+    /** Create a SituationState from a Situation. */
+    public SituationState(Situation situation) {
+        set(situation);
+    }
+
+    /** Overwrite this state with the values of a Situation. My car is placed in slot 0. Nothing is allocated. */
+    public void set(Situation situation) {
+        gameTime = situation.getGameTime();
+        setCar(0, situation.getMyCar());
+        setCar(1, situation.getEnemyCar());
+
+        Rigidbody ball = situation.getBall();
+        setVector(BALL + BALL_POS, ball.getPosition());
+        setVector(BALL + BALL_VEL, ball.getVelocity());
+        setVector(BALL + BALL_ACC, ball.getAcceleration());
+        setVector(BALL + BALL_ROT, ball.getRotation());
+        setVector(BALL + BALL_ANG_VEL, ball.getAngularVelocity());
+
+        Boostpad[] boostpads = situation.getBoostpads();
+        for (int i = 0; i < Boostpad.COUNT_TOTAL_PADS; i++) {
+            int pad = getPadOffset(i);
+            data[pad + PAD_X] = boostpads[i].getPosition().x;
+            data[pad + PAD_Y] = boostpads[i].getPosition().y;
+            data[pad + PAD_TIMER] = boostpads[i].getRespawnTimeLeft();
+            data[pad + PAD_BIG] = toDouble(boostpads[i].getBoostAmount() == Boostpad.AMOUNT_IN_BIG);
+        }
+    }
+
+    /** Helper method for {@link #set(Situation)}. */
+    private void setCar(int slot, Car car) {
+        int offset = getCarOffset(slot);
+        playerIndexes[slot] = car.getPlayerIndex();
+        setVector(offset + CAR_POS, car.getPosition());
+        setVector(offset + CAR_VEL, car.getVelocity());
+        setVector(offset + CAR_ACC, car.getAcceleration());
+        setVector(offset + CAR_ROT, car.getRotation());
+        setVector(offset + CAR_ANG_VEL, car.getAngularVelocity());
+        data[offset + CAR_BOOST] = car.getBoost();
+        data[offset + CAR_TEAM] = car.getTeam();
+        data[offset + CAR_JUMPED] = toDouble(car.isHasJumped());
+        data[offset + CAR_DOUBLE_JUMPED] = toDouble(car.hasDoubleJumped());
+        data[offset + CAR_DEMOLISHED] = toDouble(car.isDemolished());
+        data[offset + CAR_SUPERSONIC] = toDouble(car.isSupersonic());
+        data[offset + CAR_MID_AIR] = toDouble(car.isMidAir());
+    }
+
+    /** Overwrite this state with the values of another SituationState. Nothing is allocated. */
+    public void copyFrom(SituationState other) {
+        System.arraycopy(other.data, 0, data, 0, SIZE);
+        System.arraycopy(other.playerIndexes, 0, playerIndexes, 0, CAR_COUNT);
+        gameTime = other.gameTime;
+    }
+
+    /** @return a new SituationState with the same values. */
+    public SituationState copy() {
+        SituationState copy = new SituationState();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /** Convert to a Situation, where the car in slot 0 is my car. */
+    public Situation toSituation() {
+        return toSituation(0);
+    }
+
+    /** Convert to a Situation seen from the car in the given slot. That car becomes my car, and the other becomes the enemy's. */
+    public Situation toSituation(int mySlot) {
+        Vector3 ballPosition = getVector(BALL + BALL_POS);
+
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(ballPosition);
+        ball.setVelocity(getVector(BALL + BALL_VEL));
+        ball.setAcceleration(getVector(BALL + BALL_ACC));
+        ball.setRotation(getVector(BALL + BALL_ROT));
+        ball.setAngularVelocity(getVector(BALL + BALL_ANG_VEL));
+
+        Boostpad[] boostpads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
+        for (int i = 0; i < boostpads.length; i++) {
+            int pad = getPadOffset(i);
+            boostpads[i] = new Boostpad(data[pad + PAD_X], data[pad + PAD_Y], data[pad + PAD_TIMER]);
+        }
+
+        return new Situation(getCar(mySlot, ballPosition), getCar(1 - mySlot, ballPosition), ball, boostpads, gameTime);
+    }
+
+    /** Helper method for {@link #toSituation(int)}. */
+    private Car getCar(int slot, Vector3 ballPosition) {
+        int offset = getCarOffset(slot);
+        return new Car(playerIndexes[slot], (int) data[offset + CAR_TEAM],
+                getVector(offset + CAR_POS),
+                getVector(offset + CAR_VEL),
+                getVector(offset + CAR_ACC),
+                getVector(offset + CAR_ROT),
+                getVector(offset + CAR_ANG_VEL),
+                (int) data[offset + CAR_BOOST],
+                toBoolean(data[offset + CAR_JUMPED]),
+                toBoolean(data[offset + CAR_DOUBLE_JUMPED]),
+                toBoolean(data[offset + CAR_DEMOLISHED]),
+                toBoolean(data[offset + CAR_SUPERSONIC]),
+                toBoolean(data[offset + CAR_MID_AIR]),
+                ballPosition);
+    }
+
+    /** Simulate the state forward in place. The car in slot 0 performs the {@code action}, while the other car keeps
+     * moving like it does now. Same result as {@link Simulation#simulate(Situation, double, ActionSet)}, but nothing is allocated.
+     * @param stepsize time in seconds. Must be zero or positive. */
+    public void step(ActionSet action, double stepsize) {
+        if (stepsize < 0) throw new IllegalArgumentException("Step size must be more than zero. Current Step size is: " + stepsize);
+
+        BallPhysics.step(data, BALL, stepsize);
+        stepCars(action, null, stepsize);
+    }
+
+    /** Simulate the cars and boost pads forward in place, but not the ball. This is for simulating the ball some other
+     * way, e.g. with {@link botenanna.physics.BallSimulator}. Nothing is allocated.
+     * @param action the action of the car in slot 0.
+     * @param otherAction the action of the car in slot 1. If null, that car keeps moving like it does now.
+     * @param stepsize time in seconds. Must be zero or positive. */
+    public void stepCars(ActionSet action, ActionSet otherAction, double stepsize) {
+        if (stepsize < 0) throw new IllegalArgumentException("Step size must be more than zero. Current Step size is: " + stepsize);
+
+        stepCar(0, action, stepsize);
+        stepCar(1, otherAction, stepsize);
+        stepBoostpads(stepsize);
+        gameTime += stepsize;
+    }
+
+    /** Simulate one car forward. Like Simulation, a controlled car on the ground only accelerates because of the action
+     * of this step, while a car in the air or without an action keeps its acceleration.
+     * @param action the car's action. If null, the car is not controlled and just keeps moving. */
+    private void stepCar(int slot, ActionSet action, double delta) {
+        int car = getCarOffset(slot);
+        boolean isMidAir = toBoolean(data[car + CAR_MID_AIR]);
+
+        if (action != null && !isMidAir) {
+            // We are on the ground
+            data[car + CAR_ACC] = 0;
+            data[car + CAR_ACC + 1] = 0;
+            data[car + CAR_ACC + 2] = 0;
+
+            double yaw = data[car + CAR_ROT + 2];
+            double newYaw = yaw + getTurnRate(car) * action.getSteer() * delta;
+            // Wrap to be between -PI and PI. Taking the remainder of PI would turn the car around
+            if (newYaw > Math.PI) newYaw -= 2 * Math.PI;
+            else if (newYaw < -Math.PI) newYaw += 2 * Math.PI;
+            data[car + CAR_ROT + 2] = newYaw;
+
+            // Front vector, see RLMath.carFrontVector
+            double pitch = data[car + CAR_ROT + 1];
+            double frontX = Math.cos(pitch) * Math.cos(newYaw);
+            double frontY = Math.cos(pitch) * Math.sin(newYaw);
+            double frontZ = Math.sin(pitch);
+
+            boolean boosting = action.isBoostDepressed() && data[car + CAR_BOOST] != 0;
+            if (boosting) {
+                setAcceleration(car, frontX, frontY, frontZ, ACCELERATION_BOOST);
+            } else if (action.getThrottle() != 0) {
+                double strength = getAccelerationStrength(car, frontX, frontY, frontZ, (int) action.getThrottle());
+                setAcceleration(car, frontX, frontY, frontZ, strength);
+            } else {
+                // we assume our velocity is never sideways
+                double vx = data[car + CAR_VEL], vy = data[car + CAR_VEL + 1], vz = data[car + CAR_VEL + 2];
+                double speed = magnitude(vx, vy, vz);
+                if (speed != 0) {
+                    double inverse = 1.0 / speed;
+                    setAcceleration(car, vx * inverse, vy * inverse, vz * inverse, DECELERATION);
+                }
+            }
+
+            if (action.getSteer() != 0) {
+                for (int i = 0; i < 3; i++) {
+                    data[car + CAR_ACC + i] *= TURN_ACCELERATION_DECREASE;
+                }
+            }
+        }
+
+        // Move, see SimplePhysics.step. Gravity only matters when in the air
+        for (int i = 0; i < 3; i++) {
+            double acc = data[car + CAR_ACC + i];
+            if (isMidAir && i == 2) acc += SimplePhysics.GRAVITY.z;
+            double vel = data[car + CAR_VEL + i];
+            data[car + CAR_POS + i] = data[car + CAR_POS + i] + acc * (0.5 * delta * delta) + vel * delta;
+            data[car + CAR_VEL + i] = vel + acc * delta;
+        }
+
+        if (data[car + CAR_POS + 2] < GROUND_OFFSET) {
+            //Hit ground
+            data[car + CAR_POS + 2] = GROUND_OFFSET;
+            data[car + CAR_VEL + 2] = 0;
+            data[car + CAR_MID_AIR] = toDouble(false);
+        }
+
+        double speed = magnitude(data[car + CAR_VEL], data[car + CAR_VEL + 1], data[car + CAR_VEL + 2]);
+        data[car + CAR_SUPERSONIC] = toDouble(speed >= SUPERSONIC_SPEED_REQUIRED);
+    }
+
+    /** Set a car's acceleration to the direction scaled by strength. */
+    private void setAcceleration(int car, double x, double y, double z, double strength) {
+        data[car + CAR_ACC] = x * strength;
+        data[car + CAR_ACC + 1] = y * strength;
+        data[car + CAR_ACC + 2] = z * strength;
+    }
+
+    /** Same as {@link Simulation#getAccelerationStrength(Car, int, boolean)}.
+     * @param dir Direction of acceleration. 1 for forwards, -1 for backwards. */
+    private double getAccelerationStrength(int car, double frontX, double frontY, double frontZ, int dir) {
+        double vx = data[car + CAR_VEL], vy = data[car + CAR_VEL + 1], vz = data[car + CAR_VEL + 2];
+
+        double velProjFrontSize = (vx * frontX + vy * frontY + vz * frontZ) / (frontX * frontX + frontY * frontY + frontZ * frontZ);
+        double velDir = (velProjFrontSize >= 0) ? 1 : -1;
+        double velLength = magnitude(frontX * velProjFrontSize, frontY * velProjFrontSize, frontZ * velProjFrontSize);
+
+        return MAX_VELOCITY_BOOST * dir - velLength * velDir;
+    }
+
+    /** Same as {@link Simulation#getTurnRate(Car)}. */
+    private double getTurnRate(int car) {
+        double vel = magnitude(data[car + CAR_VEL], data[car + CAR_VEL + 1], data[car + CAR_VEL + 2]);
+        // See documentation "turnrate linear function.png" for math.
+        return 1.325680896 + 0.0002869694124 * vel;
+    }
+
+    /** Let cars pick up boost from active pads and count down the respawn timers. Same as Simulation. */
+    private void stepBoostpads(double stepsize) {
+        for (int i = 0; i < Boostpad.COUNT_TOTAL_PADS; i++) {
+            int pad = getPadOffset(i);
+            for (int slot = 0; slot < CAR_COUNT; slot++) {
+                int car = getCarOffset(slot);
+                double dx = data[pad + PAD_X] - data[car + CAR_POS];
+                double dy = data[pad + PAD_Y] - data[car + CAR_POS + 1];
+                double dz = data[car + CAR_POS + 2];
+                if (data[pad + PAD_TIMER] <= 0 && magnitude(dx, dy, dz) < Boostpad.PAD_RADIUS) {
+                    boolean isBig = toBoolean(data[pad + PAD_BIG]);
+                    data[pad + PAD_TIMER] = isBig ? Boostpad.RESPAWN_TIME_BIG : Boostpad.RESPAWN_TIME_SMALL;
+                    double boost = data[car + CAR_BOOST] + (isBig ? Boostpad.AMOUNT_IN_BIG : Boostpad.AMOUNT_IN_SMALL);
+                    data[car + CAR_BOOST] = Math.min(Math.max(0, boost), 100);
+                }
+            }
+            data[pad + PAD_TIMER] = Math.max(0, data[pad + PAD_TIMER] - stepsize);
+        }
+    }
+
+    /** @return the offset of the car in the given slot. */
+    public static int getCarOffset(int slot) {
+        return slot * CAR_SIZE;
+    }
+
+    /** @return the offset of the boost pad with the given index. */
+    public static int getPadOffset(int padIndex) {
+        return PADS + padIndex * PAD_SIZE;
+    }
+
+    /** @return the player index of the car in the given slot. */
+    public int getPlayerIndex(int slot) {
+        return playerIndexes[slot];
+    }
+
+    /** Set the player index of the car in the given slot. */
+    public void setPlayerIndex(int slot, int playerIndex) {
+        playerIndexes[slot] = playerIndex;
+    }
+
+    /** @return the time in seconds since the game started. */
+    public double getGameTime() {
+        return gameTime;
+    }
+
+    /** Set the time in seconds since the game started. */
+    public void setGameTime(double gameTime) {
+        this.gameTime = gameTime;
+    }
+
+    /** @return the value at the given index. See the offset constants. */
+    public double get(int index) {
+        return data[index];
+    }
+
+    /** @return the flag at the given index, e.g. {@link #CAR_MID_AIR} of a car. See the offset constants. */
+    public boolean getBoolean(int index) {
+        return toBoolean(data[index]);
+    }
+
+    /** Set the value at the given index. See the offset constants. */
+    public void set(int index, double value) {
+        data[index] = value;
+    }
+
+    /** @return the three values starting at index as a Vector3. */
+    public Vector3 getVector(int index) {
+        return new Vector3(data[index], data[index + 1], data[index + 2]);
+    }
+
+    /** Set the three values starting at index to the components of a Vector3. */
+    public void setVector(int index, Vector3 vector) {
+        data[index] = vector.x;
+        data[index + 1] = vector.y;
+        data[index + 2] = vector.z;
+    }
+
+    private static double magnitude(double x, double y, double z) {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    private static double toDouble(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    private static boolean toBoolean(double value) {
+        return value != 0;
+    }
+}
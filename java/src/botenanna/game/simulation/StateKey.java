@@ -0,0 +1,91 @@
+package botenanna.game.simulation;
+
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.math.Vector3;
+
+/** The StateKey is a quantized version of the agent's state in a Situation. Two situations with the same key are
+ * considered equivalent, and only the first of them is searched. */
+class StateKey {
+
+    /** Sizes of the grid used to decide if two situations are equivalent. */
+    private static final double POSITION_BUCKET_SIZE = 10;
+    private static final double VELOCITY_BUCKET_SIZE = 10;
+    private static final double ROTATION_BUCKET_SIZE = 0.01;
+
+    private final int step;
+    private final long px, py, pz, vx, vy, vz, pitch, yaw, roll;
+    private final int boost;
+    private final boolean isMidAir;
+
+    public StateKey(Situation situation, double timeSpent, double stepsize) {
+        Car car = situation.getMyCar();
+        Vector3 pos = car.getPosition();
+        Vector3 vel = car.getVelocity();
+        Vector3 rot = car.getRotation();
+
+        step = (int) Math.round(timeSpent / stepsize);
+        px = bucket(pos.x, POSITION_BUCKET_SIZE);
+        py = bucket(pos.y, POSITION_BUCKET_SIZE);
+        pz = bucket(pos.z, POSITION_BUCKET_SIZE);
+        vx = bucket(vel.x, VELOCITY_BUCKET_SIZE);
+        vy = bucket(vel.y, VELOCITY_BUCKET_SIZE);
+        vz = bucket(vel.z, VELOCITY_BUCKET_SIZE);
+        pitch = bucket(rot.pitch, ROTATION_BUCKET_SIZE);
+        yaw = bucket(rot.yaw, ROTATION_BUCKET_SIZE);
+        roll = bucket(rot.roll, ROTATION_BUCKET_SIZE);
+        boost = car.getBoost();
+        isMidAir = car.isMidAir();
+    }
+
+    /** Create the key of the car in slot 0 of a SituationState. Same key as the Situation it converts to. */
+    public StateKey(SituationState state, double timeSpent, double stepsize) {
+        int car = SituationState.getCarOffset(0);
+
+        step = (int) Math.round(timeSpent / stepsize);
+        px = bucket(state.get(car + SituationState.CAR_POS), POSITION_BUCKET_SIZE);
+        py = bucket(state.get(car + SituationState.CAR_POS + 1), POSITION_BUCKET_SIZE);
+        pz = bucket(state.get(car + SituationState.CAR_POS + 2), POSITION_BUCKET_SIZE);
+        vx = bucket(state.get(car + SituationState.CAR_VEL), VELOCITY_BUCKET_SIZE);
+        vy = bucket(state.get(car + SituationState.CAR_VEL + 1), VELOCITY_BUCKET_SIZE);
+        vz = bucket(state.get(car + SituationState.CAR_VEL + 2), VELOCITY_BUCKET_SIZE);
+        // Rotation is stored as roll, pitch, yaw
+        roll = bucket(state.get(car + SituationState.CAR_ROT), ROTATION_BUCKET_SIZE);
+        pitch = bucket(state.get(car + SituationState.CAR_ROT + 1), ROTATION_BUCKET_SIZE);
+        yaw = bucket(state.get(car + SituationState.CAR_ROT + 2), ROTATION_BUCKET_SIZE);
+        boost = (int) state.get(car + SituationState.CAR_BOOST);
+        isMidAir = state.getBoolean(car + SituationState.CAR_MID_AIR);
+    }
+
+    private static long bucket(double value, double size) {
+        return (long) Math.floor(value / size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StateKey other = (StateKey) o;
+        return step == other.step && px == other.px && py == other.py && pz == other.pz
+                && vx == other.vx && vy == other.vy && vz == other.vz
+                && pitch == other.pitch && yaw == other.yaw && roll == other.roll
+                && boost == other.boost && isMidAir == other.isMidAir;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = step;
+        hash = 31 * hash + px;
+        hash = 31 * hash + py;
+        hash = 31 * hash + pz;
+        hash = 31 * hash + vx;
+        hash = 31 * hash + vy;
+        hash = 31 * hash + vz;
+        hash = 31 * hash + pitch;
+        hash = 31 * hash + yaw;
+        hash = 31 * hash + roll;
+        hash = 31 * hash + boost;
+        hash = 31 * hash + (isMidAir ? 1 : 0);
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -19,7 +19,9 @@ public class RLMath {
         // Calculate the angle between the cars front and direction to the point
         double atan = Math.atan2(diff.y, diff.x);
         double angDiff = atan - yaw;
-        if (angDiff > Math.PI) angDiff -= 2 * Math.PI; // Fix ang between -PI and +PI
+        // Fix ang between -PI and +PI
+        if (angDiff > Math.PI) angDiff -= 2 * Math.PI;
+        else if (angDiff < -Math.PI) angDiff += 2 * Math.PI;
 
         return angDiff;
     }
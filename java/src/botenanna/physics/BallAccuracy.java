@@ -0,0 +1,109 @@
+package botenanna.physics;
+
+import botenanna.math.Vector3;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/** <p>Measures how well ball predictions match a recorded trajectory of the real ball. Every recorded ball is predicted
+ * ahead by a horizon and compared with the recorded ball that far ahead. The mean distance between the two is the
+ * error.</p>
+ *
+ * <p>A recording is a text file with one ball per line: {@code time px py pz vx vy vz wx wy wz}, separated by spaces or
+ * commas. Lines starting with # are ignored. Run {@link #main(String[])} with recordings as arguments to compare
+ * {@link BallPhysics} and {@link BallSimulator}.</p> */
+public class BallAccuracy {
+
+    /** The horizons reported by {@link #main(String[])} in seconds. */
+    private static final double[] HORIZONS = {0.25, 0.5, 1, 2, 3};
+
+    private final double[] times;
+    private final Rigidbody[] balls;
+
+    /** @param times the game time of each ball. Must be increasing.
+     * @param balls the recorded balls. */
+    public BallAccuracy(double[] times, Rigidbody[] balls) {
+        if (times.length != balls.length) throw new IllegalArgumentException("There must be a time for every ball.");
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] <= times[i - 1]) throw new IllegalArgumentException("Times must be increasing.");
+        }
+        this.times = times;
+        this.balls = balls;
+    }
+
+    /** Read a recording. See the class description for the format. */
+    public static BallAccuracy read(String file) throws IOException {
+        List<Double> times = new ArrayList<>();
+        List<Rigidbody> balls = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file))) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] values = line.split("[\\s,]+");
+            if (values.length != 10) throw new IllegalArgumentException("Expected 10 values, got " + values.length + ": " + line);
+            double[] v = new double[10];
+            for (int i = 0; i < 10; i++) {
+                v[i] = Double.parseDouble(values[i]);
+            }
+
+            Rigidbody ball = new Rigidbody();
+            ball.setPosition(new Vector3(v[1], v[2], v[3]));
+            ball.setVelocity(new Vector3(v[4], v[5], v[6]));
+            ball.setAngularVelocity(new Vector3(v[7], v[8], v[9]));
+            times.add(v[0]);
+            balls.add(ball);
+        }
+        return new BallAccuracy(times.stream().mapToDouble(Double::doubleValue).toArray(), balls.toArray(new Rigidbody[0]));
+    }
+
+    /** @return the mean distance between the predicted and the recorded position of the ball the given time ahead, or
+     * NaN if the recording is too short. Each recorded ball is compared with the first recorded ball at least the
+     * horizon ahead, and predicted for the actual time between them.
+     * @param predictor takes a copy of a recorded ball and a time, and returns the ball's position after that time. */
+    public double getMeanError(double horizon, BiFunction<Rigidbody, Double, Vector3> predictor) {
+        double sum = 0;
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < times.length; i++) {
+            while (j < times.length && times[j] < times[i] + horizon) j++;
+            if (j == times.length) break;
+
+            Vector3 predicted = predictor.apply(balls[i].clone(), times[j] - times[i]);
+            sum += predicted.getDistanceTo(balls[j].getPosition());
+            count++;
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /** @return the number of recorded balls. */
+    public int size() {
+        return times.length;
+    }
+
+    /** Print the errors of {@link BallPhysics} and {@link BallSimulator} for each recording given as argument, and how
+     * many ticks the simulator does per second. */
+    public static void main(String[] args) throws IOException {
+        for (String file : args) {
+            BallAccuracy recording = read(file);
+            System.out.println(file + " (" + recording.size() + " balls)");
+            System.out.println("horizon\tBallPhysics\tBallSimulator");
+            for (double horizon : HORIZONS) {
+                double physics = recording.getMeanError(horizon, (ball, time) -> BallPhysics.step(ball, time).getPosition());
+                double simulator = recording.getMeanError(horizon, (ball, time) -> BallSimulator.step(ball, time).getPosition());
+                System.out.printf("%.2f\t%.1f\t%.1f%n", horizon, physics, simulator);
+            }
+        }
+
+        // A ball bouncing around the arena, simulated for a long time on one thread
+        double[] state = {0, 0, 1000, 2500, 1800, 900, 1, 2, 3};
+        int ticks = 10_000_000;
+        long start = System.nanoTime();
+        BallSimulator.tick(state, 0, ticks);
+        double seconds = (System.nanoTime() - start) / 1E9;
+        System.out.printf("%.0f ticks per second%n", ticks / seconds);
+    }
+}
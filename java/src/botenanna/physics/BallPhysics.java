@@ -1,70 +1,225 @@
 package botenanna.physics;
 
+import botenanna.game.Arena;
 import botenanna.math.Vector3;
 
 import static botenanna.Ball.*;
 
 public class BallPhysics {
 
+    /** Size of a ball in the arrays used by {@link #step(double[], int, double)}. */
+    public static final int STATE_SIZE = 9;
+    /** Offsets of the ball's values in the arrays used by {@link #step(double[], int, double)}. */
+    public static final int POS = 0, VEL = 3, ACC = 6;
+    /** Bounces off the ground slower than this make the ball roll instead. */
+    private static final double MIN_BOUNCE_VELOCITY = 1;
+
     /** Move a Ball. This includes bounces of walls and on the floor.
      * @param time must be zero or positive. */
     public static Rigidbody step(Rigidbody ball, double time) {
         if (time < 0) throw new IllegalArgumentException("Time must be zero or positive.");
 
-        double timeSpent = 0;
-        double timeLeft = time;
-        double nextWallHit;
-        double nextGroundHit;
+        double[] state = new double[STATE_SIZE];
+        setVector(state, POS, ball.getPosition());
+        setVector(state, VEL, ball.getVelocity());
+        setVector(state, ACC, ball.getAcceleration());
+
+        step(state, 0, time);
+
+        ball.setPosition(getVector(state, POS));
+        ball.setVelocity(getVector(state, VEL));
+        return ball;
+    }
 
-        do {
+    /** Move a ball stored in an array in place. This includes bounces of walls and on the floor. Nothing is allocated,
+     * which makes it useful when simulating many steps. The ball's position, velocity and acceleration must be stored
+     * at {@code offset + POS}, {@code offset + VEL} and {@code offset + ACC}, each as x, y, z.
+     * @param time must be zero or positive. */
+    public static void step(double[] state, int offset, double time) {
+        if (time < 0) throw new IllegalArgumentException("Time must be zero or positive.");
 
-            nextWallHit = SimplePhysics.predictArrivalAtAnyWall(ball, RADIUS);
-            nextGroundHit = SimplePhysics.predictArrivalAtHeight(ball, RADIUS, true);
+        double timeLeft = time;
+        while (true) {
+            int wall = nextWall(state, offset);
+            boolean isRolling = startSegment(state, offset);
+            double nextWallHit = wall == -1 ? Double.POSITIVE_INFINITY : predictArrivalAtWall(state, offset, wall);
+            double nextGroundHit = isRolling ? Double.POSITIVE_INFINITY : nanToInfinity(predictArrivalAtGround(state, offset));
 
             // Check if ball doesn't hits anything
             if (timeLeft < nextGroundHit && timeLeft < nextWallHit) {
-                SimplePhysics.step(ball, timeLeft, true);
-                return ball;
-            } else if (nextWallHit < nextGroundHit) {
-                // Simulate until ball it hits wall
-                SimplePhysics.step(ball, nextWallHit, true);
-                timeSpent += nextWallHit;
-                Vector3 vel = ball.getVelocity();
-                if (SimplePhysics.willHitSideWallNext(ball, RADIUS)) {
-                    ball.setVelocity(new Vector3(vel.x * BALL_WALL_BOUNCINESS, vel.y, vel.z));
-                } else {
-                    ball.setVelocity(new Vector3(vel.x, vel.y * BALL_WALL_BOUNCINESS, vel.z));
+                if (!isRolling || wall != -1) {
+                    move(state, offset, timeLeft, !isRolling);
                 }
-            } else if (nextGroundHit == 0) {
-                // Simulate ball rolling until it hits wall
-                ball.setVelocity(ball.getVelocity().withZ(0));
+                return;
+            }
 
-                if (Double.isNaN(nextWallHit)) {
-                    // The ball is laying still
-                    break;
-                }
+            timeLeft -= endSegment(state, offset, wall, nextWallHit, nextGroundHit, isRolling);
+        }
+    }
 
-                SimplePhysics.step(ball, Math.min(nextWallHit, timeLeft), false);
-                timeSpent += nextWallHit;
+    /** Find the events of a ball's path within the given duration. The trajectory can answer where the ball is at any
+     * time without simulating again. See {@link BallTrajectory}.
+     * @param duration must be zero or positive. */
+    public static BallTrajectory getTrajectory(Rigidbody ball, double duration) {
+        if (duration < 0) throw new IllegalArgumentException("Duration must be zero or positive.");
 
-                Vector3 vel = ball.getVelocity();
-                if (SimplePhysics.willHitSideWallNext(ball, RADIUS)) {
-                    ball.setVelocity(new Vector3(vel.x * BALL_WALL_BOUNCINESS, vel.y, vel.z));
-                } else {
-                    ball.setVelocity(new Vector3(vel.x, vel.y * BALL_WALL_BOUNCINESS, vel.z));
-                }
-            } else {
-                // Simulate until ball it hits ground
-                SimplePhysics.step(ball, nextGroundHit, true);
-                timeSpent += nextGroundHit;
-                Vector3 vel = ball.getVelocity();
-                ball.setVelocity(new Vector3(vel.x, vel.y, vel.z * BALL_GROUND_BOUNCINESS));
+        double[] state = new double[STATE_SIZE];
+        setVector(state, POS, ball.getPosition());
+        setVector(state, VEL, ball.getVelocity());
+        setVector(state, ACC, ball.getAcceleration());
+
+        BallTrajectory trajectory = new BallTrajectory();
+        double timeSpent = 0;
+        while (true) {
+            int wall = nextWall(state, 0);
+            boolean isRolling = startSegment(state, 0);
+            double nextWallHit = wall == -1 ? Double.POSITIVE_INFINITY : predictArrivalAtWall(state, 0, wall);
+            double nextGroundHit = isRolling ? Double.POSITIVE_INFINITY : nanToInfinity(predictArrivalAtGround(state, 0));
+
+            trajectory.addSegment(timeSpent, state, !isRolling);
+
+            double segmentTime = Math.min(nextWallHit, nextGroundHit);
+            if (duration - timeSpent < segmentTime) {
+                return trajectory;
             }
 
-            timeLeft = time - timeSpent;
-        } while (timeSpent <= time);
+            timeSpent += endSegment(state, 0, wall, nextWallHit, nextGroundHit, isRolling);
+            trajectory.addEvent(timeSpent, nextWallHit < nextGroundHit ? wall : BallTrajectory.GROUND);
+        }
+    }
 
-        return ball;
+    /** Helper method for stepping. Prepare the ball for its next segment of movement.
+     * @return whether the ball is rolling on the ground, which means it is not affected by gravity. */
+    private static boolean startSegment(double[] state, int offset) {
+        if (predictArrivalAtGround(state, offset) == 0) {
+            state[offset + VEL + 2] = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /** Helper method for stepping. Move the ball to its next wall or ground hit and bounce it.
+     * @return the time spent. */
+    private static double endSegment(double[] state, int offset, int wall, double nextWallHit, double nextGroundHit, boolean isRolling) {
+        if (nextWallHit < nextGroundHit) {
+            // Simulate until ball it hits wall
+            move(state, offset, nextWallHit, !isRolling);
+            bounceOfWall(state, offset, wall);
+            return nextWallHit;
+        }
+
+        // Simulate until ball it hits ground
+        move(state, offset, nextGroundHit, true);
+        state[offset + POS + 2] = RADIUS;
+        state[offset + VEL + 2] *= BALL_GROUND_BOUNCINESS;
+        if (state[offset + VEL + 2] < MIN_BOUNCE_VELOCITY) {
+            // Too small to matter. The ball rolls instead of bouncing endlessly
+            state[offset + VEL + 2] = 0;
+        }
+        return nextGroundHit;
+    }
+
+    /** Same as {@link SimplePhysics#step(Rigidbody, double, boolean)}, but in place on an array. */
+    static void move(double[] state, int offset, double time, boolean affectedByGravity) {
+        for (int i = 0; i < 3; i++) {
+            double acc = state[offset + ACC + i];
+            if (affectedByGravity && i == 2) acc += SimplePhysics.GRAVITY.z;
+            double vel = state[offset + VEL + i];
+            // new_position = p + (1/2 * a * t^2) + (v * t)
+            state[offset + POS + i] = state[offset + POS + i] + acc * (0.5 * time * time) + vel * time;
+            state[offset + VEL + i] = vel + acc * time;
+        }
+    }
+
+    /** Reflect the velocity of a ball that is touching the given wall.
+     * @param wall the wall, see {@link #nextWall(double[], int)}. */
+    private static void bounceOfWall(double[] state, int offset, int wall) {
+        if (wall == 0 || wall == 1) {
+            state[offset + VEL] *= BALL_WALL_BOUNCINESS;
+        } else {
+            state[offset + VEL + 1] *= BALL_WALL_BOUNCINESS;
+        }
+    }
+
+    /** @return the index of the next wall hit. 0 and 1 are side walls (x positive and negative), 2 and 3 are end walls
+     * (y positive and negative), the same as the wall events of a BallTrajectory, e.g.
+     * {@link BallTrajectory#WALL_Y_POSITIVE}. -1 if no wall is hit. Ties are resolved like
+     * {@link SimplePhysics#willHitSideWallNext(Rigidbody, double)}. */
+    private static int nextWall(double[] state, int offset) {
+        int wallIndex = -1;
+        double earliestTimeOfArrival = Double.NaN;
+        for (int wall = 0; wall < 4; wall++) {
+            double arrival = predictArrivalAtWall(state, offset, wall);
+            if (!Double.isNaN(arrival) && (Double.isNaN(earliestTimeOfArrival) || arrival < earliestTimeOfArrival)) {
+                earliestTimeOfArrival = arrival;
+                wallIndex = wall;
+            }
+        }
+        return wallIndex;
+    }
+
+    /** Same as SimplePhysics' predictArrivalAtWall methods with the ball's radius as offset.
+     * @param wall 0 is x positive, 1 is x negative, 2 is y positive, 3 is y negative. */
+    private static double predictArrivalAtWall(double[] state, int offset, int wall) {
+        int axis = wall < 2 ? 0 : 1;
+        double distance = (axis == 0 ? Arena.WIDTH : Arena.LENGTH) / 2 - RADIUS;
+        double pos = state[offset + POS + axis];
+        double vel = state[offset + VEL + axis];
+        if (wall % 2 == 0) {
+            if (vel > 0) {
+                // We assume that if the ball is outside of the field, it will be pushed in immediately
+                return pos < distance ? (distance - pos) / vel : 0;
+            }
+        } else {
+            if (vel < 0) {
+                return pos > -distance ? (-distance - pos) / vel : 0;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** Same as {@link SimplePhysics#predictArrivalAtHeight(Rigidbody, double, boolean)} with the ball's radius as
+     * height and gravity included. */
+    private static double predictArrivalAtGround(double[] state, int offset) {
+        double height = RADIUS;
+        double position = state[offset + POS + 2];
+        double velocity = state[offset + VEL + 2];
+        double acceleration = state[offset + ACC + 2] + SimplePhysics.GRAVITY.z;
+
+        // If already at height and not bouncing up, return 0
+        if (height == position && velocity <= 0) return 0;
+
+        if (acceleration == 0) {
+            // Only velocity is relevant
+            if (velocity == 0) return Double.NaN; // no velocity
+            double arrivalTime = (height - position) / velocity;
+            if (arrivalTime < 0) return Double.NaN; // time is in the past -> will never get there
+            return arrivalTime;
+        }
+
+        // Acceleration must be taken into account. See SimplePhysics for the equations
+        if (height > position) {
+            double turningTime = -velocity / acceleration;
+            if (turningTime < 0) return Double.NaN;
+            double turningHeight = 0.5 * acceleration * turningTime * turningTime + velocity * turningTime + position;
+            if (turningHeight < height) return Double.NaN;
+            return (-velocity + Math.sqrt(2 * acceleration * height - 2 * acceleration * position + velocity * velocity)) / acceleration;
+        }
+        return -(velocity + Math.sqrt(2 * acceleration * height - 2 * acceleration * position + velocity * velocity)) / acceleration;
+    }
+
+    private static double nanToInfinity(double time) {
+        return Double.isNaN(time) ? Double.POSITIVE_INFINITY : time;
+    }
+
+    private static void setVector(double[] state, int index, Vector3 vector) {
+        state[index] = vector.x;
+        state[index + 1] = vector.y;
+        state[index + 2] = vector.z;
+    }
+
+    private static Vector3 getVector(double[] state, int index) {
+        return new Vector3(state[index], state[index + 1], state[index + 2]);
     }
 
     /** Get the path which the Ball will travel. This includes bounces of walls and on the floor.
@@ -78,73 +233,29 @@ public class BallPhysics {
             return new Path(ball.getPosition());
         }
 
-        ball = ball.clone();
+        BallTrajectory trajectory = getTrajectory(ball, duration);
 
+        // The path has a point every step and at every bounce
         Path path = new Path();
-        double timeSpent = 0;
-        double timeLeft = duration;
-        double nextWallHit;
-        double nextGroundHit;
-
-        path.addTimeStep(0, ball.getPosition());
-
-        do {
-
-            nextWallHit = SimplePhysics.predictArrivalAtAnyWall(ball, RADIUS);
-            nextGroundHit = SimplePhysics.predictArrivalAtHeight(ball, RADIUS, true);
-
-            // Check if ball doesn't hits anything
-            if (timeLeft < nextGroundHit && timeLeft < nextWallHit) {
-                extendPathWithNoCollision(path, ball, true, timeSpent, timeLeft, stepsize);
-                return path;
-            } else if (nextWallHit < nextGroundHit) {
-                // Simulate until ball it hits wall
-                boolean isSideWall = SimplePhysics.willHitSideWallNext(ball, RADIUS);
-                extendPathWithNoCollision(path, ball, true, timeSpent, nextWallHit, stepsize);
-                timeSpent += nextWallHit;
-                Vector3 vel = ball.getVelocity();
-                if (isSideWall) {
-                    ball.setVelocity(new Vector3(vel.x * BALL_WALL_BOUNCINESS, vel.y, vel.z));
-                } else {
-                    ball.setVelocity(new Vector3(vel.x, vel.y * BALL_WALL_BOUNCINESS, vel.z));
-                }
-            } else if (nextGroundHit == 0) {
-                // Simulate ball rolling until it hits wall
-                ball.setVelocity(new Vector3(ball.getVelocity().x, ball.getVelocity().y, 0));
-
-                extendPathWithNoCollision(path, ball, false, timeSpent, Math.min(nextWallHit, timeLeft), stepsize);
-                timeSpent += nextWallHit;
-                Vector3 vel = ball.getVelocity();
-                if (SimplePhysics.willHitSideWallNext(ball, RADIUS)) {
-                    ball.setVelocity(new Vector3(vel.x * BALL_WALL_BOUNCINESS, vel.y, vel.z));
-                } else {
-                    ball.setVelocity(new Vector3(vel.x, vel.y * BALL_WALL_BOUNCINESS, vel.z));
-                }
+        int event = 0;
+        double stepTime = 0;
+        while (stepTime < duration) {
+            double eventTime = event < trajectory.getEventCount() ? trajectory.getEventTime(event) : Double.POSITIVE_INFINITY;
+            if (eventTime < stepTime) {
+                if (eventTime > 0) path.addTimeStep(eventTime, trajectory.getPosition(eventTime));
+                event++;
             } else {
-                // Simulate until ball it hits ground
-                extendPathWithNoCollision(path, ball, true, timeSpent, nextGroundHit, stepsize);
-                timeSpent += nextGroundHit;
-                Vector3 vel = ball.getVelocity();
-                ball.setVelocity(new Vector3(vel.x, vel.y, vel.z * BALL_GROUND_BOUNCINESS));
+                if (eventTime == stepTime) event++;
+                path.addTimeStep(stepTime, trajectory.getPosition(stepTime));
+                stepTime += stepsize;
             }
-
-            timeLeft = duration - timeSpent;
-        } while (timeSpent <= duration);
-
-        return path;
-    }
-
-    /** Simulate and extend already existing path. Helper function to {@link #getPath(Rigidbody, double, double)}. */
-    private static void extendPathWithNoCollision(Path path, Rigidbody body, boolean affectedByGravity, double timeSpent, double timeLeft, double stepsize) {
-        while (timeLeft - stepsize > 0) {
-            timeSpent += stepsize;
-            timeLeft -= stepsize;
-
-            SimplePhysics.step(body, stepsize, affectedByGravity);
-            path.addTimeStep(timeSpent, body.getPosition());
         }
+        for (; event < trajectory.getEventCount(); event++) {
+            double eventTime = trajectory.getEventTime(event);
+            if (eventTime < duration) path.addTimeStep(eventTime, trajectory.getPosition(eventTime));
+        }
+        path.addTimeStep(duration, trajectory.getPosition(duration));
 
-        SimplePhysics.step(body, timeLeft, affectedByGravity);
-        path.addTimeStep(timeSpent + timeLeft, body.getPosition());
+        return path;
     }
 }
@@ -0,0 +1,111 @@
+package botenanna.physics;
+
+import botenanna.math.Vector3;
+import botenanna.math.zone.Box;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/** <p>The BallPrediction is the ball's future over the next {@link #DURATION} seconds, found once with
+ * {@link BallPhysics#getTrajectory(Rigidbody, double)}. The ball at any time and events like landing or hitting a wall
+ * are found from the trajectory's segments without simulating again.</p>
+ *
+ * <p>Use {@link #get(Rigidbody, double)} to share the prediction between everything that sees the same ball, e.g. all
+ * bots receiving the same packet. A BallPrediction is immutable and can be shared between threads.</p> */
+public class BallPrediction {
+
+    /** How far the ball is predicted in seconds. */
+    public static final double DURATION = 6;
+    /** The time between the positions checked by {@link #getFirstTimeInside(Box)} in seconds. */
+    public static final double STEPSIZE = 1 / 60.0;
+
+    /** The latest prediction, which is reused if the same ball is predicted again. */
+    private static final AtomicReference<BallPrediction> latest = new AtomicReference<>();
+
+    private final double gameTime;
+    private final Vector3 position;
+    private final Vector3 velocity;
+    private final Vector3 acceleration;
+    private final BallTrajectory trajectory;
+
+    /** Predict the ball.
+     * @param gameTime the game time of the ball. Only used to tell predictions apart. */
+    public BallPrediction(Rigidbody ball, double gameTime) {
+        this.gameTime = gameTime;
+        this.position = ball.getPosition();
+        this.velocity = ball.getVelocity();
+        this.acceleration = ball.getAcceleration();
+        this.trajectory = BallPhysics.getTrajectory(ball, DURATION);
+    }
+
+    /** @return a prediction of the ball. If the latest prediction was of the same ball at the same game time,
+     * it is returned instead of predicting again. */
+    public static BallPrediction get(Rigidbody ball, double gameTime) {
+        BallPrediction prediction = latest.get();
+        if (prediction != null && prediction.isOf(ball, gameTime)) {
+            return prediction;
+        }
+
+        prediction = new BallPrediction(ball, gameTime);
+        latest.set(prediction);
+        return prediction;
+    }
+
+    /** @return whether this is the prediction of the given ball at the given game time. */
+    public boolean isOf(Rigidbody ball, double gameTime) {
+        return this.gameTime == gameTime
+                && position.equals(ball.getPosition())
+                && velocity.equals(ball.getVelocity())
+                && acceleration.equals(ball.getAcceleration());
+    }
+
+    /** @return the ball at the given time after the prediction's start. Only accurate within the {@link #DURATION}.
+     * @param time must be zero or positive. */
+    public Rigidbody getBall(double time) {
+        return trajectory.getBall(time);
+    }
+
+    /** @return the ball's position at the given time after the prediction's start. Only accurate within the
+     * {@link #DURATION}.
+     * @param time must be zero or positive. */
+    public Vector3 getPosition(double time) {
+        return trajectory.getPosition(time);
+    }
+
+    /** @return the first time the ball is at the given height, or NaN if it does not happen within the duration. */
+    public double getFirstTimeAtHeight(double height) {
+        double time = trajectory.getFirstTimeAtHeight(height);
+        return time <= DURATION ? time : Double.NaN;
+    }
+
+    /** @return the first time the ball hits any wall, or NaN if it does not happen within the duration. */
+    public double getFirstTimeAtAnyWall() {
+        return trajectory.getFirstTimeAtAnyWall();
+    }
+
+    /** @return the first time the ball hits the positive y wall, or NaN if it does not happen within the duration. */
+    public double getFirstTimeAtWallYPositive() {
+        return trajectory.getFirstTimeOf(BallTrajectory.WALL_Y_POSITIVE);
+    }
+
+    /** @return the first time, in steps of {@link #STEPSIZE}, where the ball's position is inside the box, or NaN if it
+     * does not happen within the duration. */
+    public double getFirstTimeInside(Box box) {
+        int steps = (int) Math.round(DURATION / STEPSIZE);
+        for (int i = 0; i <= steps; i++) {
+            if (box.isPointInBoxArea(trajectory.getPosition(i * STEPSIZE))) {
+                return i * STEPSIZE;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** @return the trajectory of the ball. */
+    public BallTrajectory getTrajectory() {
+        return trajectory;
+    }
+
+    /** @return the game time of the predicted ball. */
+    public double getGameTime() {
+        return gameTime;
+    }
+}
@@ -0,0 +1,198 @@
+package botenanna.physics;
+
+import botenanna.Ball;
+import botenanna.game.ArenaDistanceField;
+import botenanna.math.Vector3;
+
+/** <p>The BallSimulator moves the ball in fixed ticks of {@link #TICK} seconds, like the game does. Unlike
+ * {@link BallPhysics} it includes air drag, spin and friction, and the ball collides with the arena's actual shape:
+ * the ceiling, the goals, and the curves between the walls, the floor and the ceiling, and in the corners.</p>
+ *
+ * <p>The arena's shape is given by the {@link ArenaDistanceField}. The constants are fitted to observed behaviour and
+ * are not exact.</p> */
+public class BallSimulator {
+
+    /** The length of a tick in seconds. The game simulates at 120 Hz. */
+    public static final double TICK = 1 / 120.0;
+
+    /** Size of a ball in the arrays used by {@link #tick(double[], int, int)}. */
+    public static final int STATE_SIZE = 9;
+    /** Offsets of the ball's values in the arrays used by {@link #tick(double[], int, int)}. */
+    public static final int POS = 0, VEL = 3, ANG = 6;
+
+    /** Air drag as a fraction of the velocity lost per second. */
+    private static final double DRAG = 0.0305;
+    private static final double MAX_SPEED = 6000;
+    private static final double MAX_ANGULAR_SPEED = 6;
+    /** The fraction of the velocity towards a surface that is kept after a bounce. */
+    private static final double RESTITUTION = 0.6;
+    private static final double FRICTION = 0.285;
+    /** How much the velocity towards a surface matters for friction. Light touches only slow the ball a little. */
+    private static final double FRICTION_SCALE = 2;
+    /** How much friction changes the ball's spin. */
+    private static final double SPIN_TRANSFER = 0.0003;
+
+    /** Move a ball for the given time. Whole ticks are simulated first, then the remainder as one shorter tick.
+     * The ball's position, velocity and angular velocity are updated.
+     * @param time must be zero or positive. */
+    public static Rigidbody step(Rigidbody ball, double time) {
+        if (time < 0) throw new IllegalArgumentException("Time must be zero or positive.");
+
+        double[] state = toState(ball);
+        int ticks = (int) (time / TICK + 1E-9);
+        double remainder = Math.max(0, time - ticks * TICK);
+        tick(state, 0, ticks);
+        if (remainder > 0) {
+            tick(state, 0, remainder);
+        }
+
+        ball.setPosition(getVector(state, POS));
+        ball.setVelocity(getVector(state, VEL));
+        ball.setAngularVelocity(getVector(state, ANG));
+        return ball;
+    }
+
+    /** Get the path which the ball will travel, with a point every step.
+     * @param duration must be zero or positive.
+     * @param stepsize must be positive. It is rounded to a whole number of ticks, but at least one. */
+    public static Path getPath(Rigidbody ball, double duration, double stepsize) {
+        if (duration < 0) throw new IllegalArgumentException("Duration must be zero or positive.");
+        if (stepsize <= 0) throw new IllegalArgumentException("Step size must be positive.");
+
+        double[] state = toState(ball);
+        int ticksPerStep = Math.max(1, (int) Math.round(stepsize / TICK));
+        int totalTicks = (int) (duration / TICK + 1E-9);
+
+        Path path = new Path();
+        path.addTimeStep(0, getVector(state, POS));
+        for (int ticks = 0; ticks < totalTicks; ) {
+            int n = Math.min(ticksPerStep, totalTicks - ticks);
+            tick(state, 0, n);
+            ticks += n;
+            path.addTimeStep(ticks * TICK, getVector(state, POS));
+        }
+        double remainder = Math.max(0, duration - totalTicks * TICK);
+        if (remainder > 0) {
+            tick(state, 0, remainder);
+            path.addTimeStep(duration, getVector(state, POS));
+        }
+        return path;
+    }
+
+    /** Simulate a ball stored in an array in place for the given number of ticks. Nothing is allocated, which makes it
+     * useful when simulating many steps. The ball's position, velocity and angular velocity must be stored at
+     * {@code offset + POS}, {@code offset + VEL} and {@code offset + ANG}, each as x, y, z.
+     * @param ticks must be zero or positive. */
+    public static void tick(double[] state, int offset, int ticks) {
+        if (ticks < 0) throw new IllegalArgumentException("Ticks must be zero or positive.");
+        for (int i = 0; i < ticks; i++) {
+            tick(state, offset, TICK);
+        }
+    }
+
+    /** Simulate one tick of the given length. */
+    private static void tick(double[] state, int offset, double dt) {
+        int p = offset + POS, v = offset + VEL;
+
+        // Gravity and air drag, integrated semi-implicitly
+        double dragFactor = 1 - DRAG * dt;
+        state[v] *= dragFactor;
+        state[v + 1] *= dragFactor;
+        state[v + 2] = state[v + 2] * dragFactor + SimplePhysics.GRAVITY.z * dt;
+        clamp(state, v, MAX_SPEED);
+
+        state[p] += state[v] * dt;
+        state[p + 1] += state[v + 1] * dt;
+        state[p + 2] += state[v + 2] * dt;
+
+        double distance = ArenaDistanceField.getDistance(state[p], state[p + 1], state[p + 2]);
+        if (distance < Ball.RADIUS) {
+            collide(state, offset, distance);
+        }
+    }
+
+    /** Helper method for ticking. Push a ball that overlaps a surface out of it and apply bounce and friction. */
+    private static void collide(double[] state, int offset, double distance) {
+        int p = offset + POS, v = offset + VEL, w = offset + ANG;
+
+        // The normal points away from the surface, into the arena. Found like ArenaDistanceField.getNormal, but
+        // without an array, since the ball touches the floor almost every tick
+        double x = state[p], y = state[p + 1], z = state[p + 2];
+        double e = ArenaDistanceField.NORMAL_EPSILON;
+        double nx = ArenaDistanceField.getDistance(x + e, y, z) - ArenaDistanceField.getDistance(x - e, y, z);
+        double ny = ArenaDistanceField.getDistance(x, y + e, z) - ArenaDistanceField.getDistance(x, y - e, z);
+        double nz = ArenaDistanceField.getDistance(x, y, z + e) - ArenaDistanceField.getDistance(x, y, z - e);
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0) return;
+        nx /= length;
+        ny /= length;
+        nz /= length;
+
+        double penetration = Ball.RADIUS - distance;
+        state[p] += nx * penetration;
+        state[p + 1] += ny * penetration;
+        state[p + 2] += nz * penetration;
+
+        double velocityAlongNormal = state[v] * nx + state[v + 1] * ny + state[v + 2] * nz;
+        if (velocityAlongNormal >= 0) return; // Already moving away
+
+        double perpX = velocityAlongNormal * nx, perpY = velocityAlongNormal * ny, perpZ = velocityAlongNormal * nz;
+        double wx = state[w], wy = state[w + 1], wz = state[w + 2];
+
+        // Slip is the velocity of the ball's surface at the contact point along the surface
+        double slipX = state[v] - perpX + Ball.RADIUS * (ny * wz - nz * wy);
+        double slipY = state[v + 1] - perpY + Ball.RADIUS * (nz * wx - nx * wz);
+        double slipZ = state[v + 2] - perpZ + Ball.RADIUS * (nx * wy - ny * wx);
+        double slip = Math.sqrt(slipX * slipX + slipY * slipY + slipZ * slipZ);
+
+        double frictionX = 0, frictionY = 0, frictionZ = 0;
+        if (slip > 0) {
+            double ratio = Math.abs(velocityAlongNormal) / slip;
+            double scale = -Math.min(1, FRICTION_SCALE * ratio) * FRICTION;
+            frictionX = scale * slipX;
+            frictionY = scale * slipY;
+            frictionZ = scale * slipZ;
+        }
+
+        state[v] += frictionX - (1 + RESTITUTION) * perpX;
+        state[v + 1] += frictionY - (1 + RESTITUTION) * perpY;
+        state[v + 2] += frictionZ - (1 + RESTITUTION) * perpZ;
+
+        // Friction at the contact point also spins the ball
+        double spinScale = SPIN_TRANSFER * Ball.RADIUS;
+        state[w] += spinScale * (frictionY * nz - frictionZ * ny);
+        state[w + 1] += spinScale * (frictionZ * nx - frictionX * nz);
+        state[w + 2] += spinScale * (frictionX * ny - frictionY * nx);
+        clamp(state, w, MAX_ANGULAR_SPEED);
+    }
+
+    private static void clamp(double[] state, int index, double max) {
+        double x = state[index], y = state[index + 1], z = state[index + 2];
+        double lengthSquared = x * x + y * y + z * z;
+        if (lengthSquared > max * max) {
+            double scale = max / Math.sqrt(lengthSquared);
+            state[index] = x * scale;
+            state[index + 1] = y * scale;
+            state[index + 2] = z * scale;
+        }
+    }
+
+    /** @return the ball as an array laid out like {@link #tick(double[], int, int)} expects. */
+    public static double[] toState(Rigidbody ball) {
+        double[] state = new double[STATE_SIZE];
+        setVector(state, POS, ball.getPosition());
+        setVector(state, VEL, ball.getVelocity());
+        setVector(state, ANG, ball.getAngularVelocity());
+        return state;
+    }
+
+    private static void setVector(double[] state, int index, Vector3 vector) {
+        state[index] = vector.x;
+        state[index + 1] = vector.y;
+        state[index + 2] = vector.z;
+    }
+
+    private static Vector3 getVector(double[] state, int index) {
+        return new Vector3(state[index], state[index + 1], state[index + 2]);
+    }
+}
@@ -0,0 +1,161 @@
+package botenanna.physics;
+
+import botenanna.math.Vector3;
+
+import java.util.Arrays;
+
+/** <p>A BallTrajectory is the path of a ball as a sequence of segments separated by events, i.e. bounces off walls or
+ * the ground. Within a segment the ball moves with constant acceleration, so its state at any time is found by a binary
+ * search for the segment followed by one analytic step. A query costs O(log events), no matter how far ahead it is.</p>
+ *
+ * <p>Create it with {@link BallPhysics#getTrajectory(Rigidbody, double)}. It is only valid within the duration it was
+ * created for. It is immutable once created and can be shared between threads.</p> */
+public class BallTrajectory {
+
+    /** The events of hitting a wall. Side walls are x positive and negative, end walls are y positive and negative. */
+    public static final int WALL_X_POSITIVE = 0, WALL_X_NEGATIVE = 1, WALL_Y_POSITIVE = 2, WALL_Y_NEGATIVE = 3;
+    /** The event of hitting the ground. */
+    public static final int GROUND = 4;
+
+    private int segmentCount = 0;
+    private double[] startTimes = new double[8];
+    private double[] states = new double[8 * BallPhysics.STATE_SIZE];
+    private boolean[] affectedByGravity = new boolean[8];
+    private int eventCount = 0;
+    private double[] eventTimes = new double[8];
+    private int[] events = new int[8];
+
+    /** Use {@link BallPhysics#getTrajectory(Rigidbody, double)}. */
+    BallTrajectory() {
+    }
+
+    /** Add a segment starting at the given time with the ball in the given state. */
+    void addSegment(double startTime, double[] state, boolean isAffectedByGravity) {
+        if (segmentCount == startTimes.length) {
+            startTimes = Arrays.copyOf(startTimes, segmentCount * 2);
+            states = Arrays.copyOf(states, segmentCount * 2 * BallPhysics.STATE_SIZE);
+            affectedByGravity = Arrays.copyOf(affectedByGravity, segmentCount * 2);
+        }
+        startTimes[segmentCount] = startTime;
+        System.arraycopy(state, 0, states, segmentCount * BallPhysics.STATE_SIZE, BallPhysics.STATE_SIZE);
+        affectedByGravity[segmentCount] = isAffectedByGravity;
+        segmentCount++;
+    }
+
+    /** Add an event that happened at the given time. */
+    void addEvent(double time, int event) {
+        if (eventCount == eventTimes.length) {
+            eventTimes = Arrays.copyOf(eventTimes, eventCount * 2);
+            events = Arrays.copyOf(events, eventCount * 2);
+        }
+        eventTimes[eventCount] = time;
+        events[eventCount] = event;
+        eventCount++;
+    }
+
+    /** @return the index of the segment containing the given time. */
+    private int getSegment(double time) {
+        if (time < 0) throw new IllegalArgumentException("Time must be zero or positive.");
+        int index = Arrays.binarySearch(startTimes, 0, segmentCount, time);
+        // If not found, binarySearch returns -(insertion point) - 1. The segment before the insertion point contains the time
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /** @return the ball's state at the given time as an array laid out like {@link BallPhysics#step(double[], int, double)}
+     * expects.
+     * @param time must be zero or positive. */
+    private double[] getState(double time) {
+        int segment = getSegment(time);
+        double[] state = Arrays.copyOfRange(states, segment * BallPhysics.STATE_SIZE, (segment + 1) * BallPhysics.STATE_SIZE);
+        BallPhysics.move(state, 0, time - startTimes[segment], affectedByGravity[segment]);
+        return state;
+    }
+
+    /** @return the ball at the given time.
+     * @param time must be zero or positive. */
+    public Rigidbody getBall(double time) {
+        double[] state = getState(time);
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(new Vector3(state[BallPhysics.POS], state[BallPhysics.POS + 1], state[BallPhysics.POS + 2]));
+        ball.setVelocity(new Vector3(state[BallPhysics.VEL], state[BallPhysics.VEL + 1], state[BallPhysics.VEL + 2]));
+        ball.setAcceleration(new Vector3(state[BallPhysics.ACC], state[BallPhysics.ACC + 1], state[BallPhysics.ACC + 2]));
+        return ball;
+    }
+
+    /** @return the ball's position at the given time.
+     * @param time must be zero or positive. */
+    public Vector3 getPosition(double time) {
+        double[] state = getState(time);
+        return new Vector3(state[BallPhysics.POS], state[BallPhysics.POS + 1], state[BallPhysics.POS + 2]);
+    }
+
+    /** @return the first time the ball's centre is at the given height, or NaN if it never is within the trajectory.
+     * A ball already at the height arrives at time 0. */
+    public double getFirstTimeAtHeight(double height) {
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int offset = segment * BallPhysics.STATE_SIZE;
+            double position = states[offset + BallPhysics.POS + 2];
+            double velocity = states[offset + BallPhysics.VEL + 2];
+            double acceleration = states[offset + BallPhysics.ACC + 2] + (affectedByGravity[segment] ? SimplePhysics.GRAVITY.z : 0);
+            double length = segment + 1 < segmentCount ? startTimes[segment + 1] - startTimes[segment] : Double.POSITIVE_INFINITY;
+
+            double arrival = getFirstArrival(position - height, velocity, acceleration);
+            if (arrival != Double.POSITIVE_INFINITY && arrival <= length) {
+                return startTimes[segment] + arrival;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** Helper method for {@link #getFirstTimeAtHeight(double)}.
+     * @return the smallest t >= 0 where p + v * t + a / 2 * t^2 = 0, or infinity if there is none. */
+    private static double getFirstArrival(double p, double v, double a) {
+        if (p == 0) return 0;
+        if (a == 0) {
+            double t = -p / v;
+            return t >= 0 ? t : Double.POSITIVE_INFINITY;
+        }
+        double discriminant = v * v - 2 * a * p;
+        if (discriminant < 0) return Double.POSITIVE_INFINITY;
+        double root = Math.sqrt(discriminant);
+        double t1 = (-v - root) / a;
+        double t2 = (-v + root) / a;
+        double first = Math.min(t1, t2);
+        double second = Math.max(t1, t2);
+        if (first >= 0) return first;
+        if (second >= 0) return second;
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /** @return the time of the first occurrence of the given event, or NaN if it does not happen within the trajectory.
+     * @param event a wall, e.g. {@link #WALL_Y_POSITIVE}, or {@link #GROUND}. */
+    public double getFirstTimeOf(int event) {
+        for (int i = 0; i < eventCount; i++) {
+            if (events[i] == event) return eventTimes[i];
+        }
+        return Double.NaN;
+    }
+
+    /** @return the time of the first wall hit, or NaN if it does not happen within the trajectory. */
+    public double getFirstTimeAtAnyWall() {
+        for (int i = 0; i < eventCount; i++) {
+            if (events[i] != GROUND) return eventTimes[i];
+        }
+        return Double.NaN;
+    }
+
+    /** @return the number of events, i.e. bounces, within the trajectory. */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /** @return the time of the event with the given index. */
+    public double getEventTime(int index) {
+        return eventTimes[index];
+    }
+
+    /** @return the event with the given index. One of the walls, e.g. {@link #WALL_Y_POSITIVE}, or {@link #GROUND}. */
+    public int getEvent(int index) {
+        return events[index];
+    }
+}
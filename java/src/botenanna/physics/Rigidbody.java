@@ -2,7 +2,8 @@ package botenanna.physics;
 
 import botenanna.math.Vector3;
 
-/** A physical object with position, velocity and acceleration */
+/** A physical object with position, velocity and acceleration. A Rigidbody can be frozen, after which it is read-only
+ * and can be shared without copying. Use {@link #clone()} to get a modifiable copy of a frozen Rigidbody. */
 public class Rigidbody implements Cloneable {
 
     private Vector3 position = new Vector3();
@@ -10,8 +11,9 @@ public class Rigidbody implements Cloneable {
     private Vector3 acceleration = new Vector3();
     private Vector3 rotation = new Vector3();
     private Vector3 angularVelocity = new Vector3();
+    private boolean isFrozen = false;
 
-    /** Clone this Rigidbody.
+    /** Clone this Rigidbody. The clone is never frozen.
      * @return a Rigidbody with the same position, velocity, acceleration, rotation and angularVelocity. */
     @Override
     public Rigidbody clone() {
@@ -24,11 +26,29 @@ public class Rigidbody implements Cloneable {
         return copy;
     }
 
+    /** Make this Rigidbody read-only. Any later attempt to modify it throws an IllegalStateException.
+     * @return this Rigidbody. */
+    public Rigidbody freeze() {
+        isFrozen = true;
+        return this;
+    }
+
+    /** @return whether this Rigidbody is read-only. */
+    public boolean isFrozen() {
+        return isFrozen;
+    }
+
+    /** Throws an IllegalStateException if this Rigidbody is frozen. Must be called by all methods that modify it. */
+    protected void checkNotFrozen() {
+        if (isFrozen) throw new IllegalStateException("The Rigidbody is frozen. Modify a clone instead.");
+    }
+
     public Vector3 getPosition() {
         return position;
     }
 
     public void setPosition(Vector3 position) {
+        checkNotFrozen();
         this.position = position;
     }
 
@@ -37,6 +57,7 @@ public class Rigidbody implements Cloneable {
     }
 
     public void setVelocity(Vector3 velocity) {
+        checkNotFrozen();
         this.velocity = velocity;
     }
 
@@ -46,6 +67,7 @@ public class Rigidbody implements Cloneable {
     }
 
     public void setAcceleration(Vector3 acceleration) {
+        checkNotFrozen();
         this.acceleration = acceleration;
     }
 
@@ -54,6 +76,7 @@ public class Rigidbody implements Cloneable {
     }
 
     public void setRotation(Vector3 rotation) {
+        checkNotFrozen();
         this.rotation = rotation;
     }
 
@@ -62,6 +85,7 @@ public class Rigidbody implements Cloneable {
     }
 
     public void setAngularVelocity(Vector3 angularVelocity) {
+        checkNotFrozen();
         this.angularVelocity = angularVelocity;
     }
 }
@@ -0,0 +1,45 @@
+package botenanna.replay;
+
+import rlbot.api.GameData;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/** The ReplayReader reads the GameTickPackets of a replay written by a {@link ReplayRecorder}, one at a time, so
+ * replays of any length can be played back. */
+public class ReplayReader implements Closeable {
+
+    private final InputStream input;
+
+    /** Read from the given stream. The stream is closed when the reader is closed. */
+    public ReplayReader(InputStream input) {
+        this.input = input;
+    }
+
+    /** Create a reader of the given file. Compressed files are detected from their content, not their name. */
+    public static ReplayReader open(File file) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(new FileInputStream(file));
+        input.mark(2);
+        int first = input.read();
+        int second = input.read();
+        input.reset();
+        // Gzip streams start with the magic number 0x1f8b
+        boolean isCompressed = first == 0x1f && second == 0x8b;
+        return new ReplayReader(isCompressed ? new GZIPInputStream(input) : input);
+    }
+
+    /** @return the next packet of the replay, or null if there are no more. */
+    public GameData.GameTickPacket next() throws IOException {
+        return GameData.GameTickPacket.parseDelimitedFrom(input);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
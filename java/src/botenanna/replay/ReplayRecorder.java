@@ -0,0 +1,60 @@
+package botenanna.replay;
+
+import rlbot.api.GameData;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** <p>The ReplayRecorder appends GameTickPackets to a replay as length-delimited protobuf messages, so they can be
+ * played back later with a {@link ReplayReader}, e.g. by the {@link Replayer}.</p>
+ *
+ * <p>Packets can be recorded from several threads. Recording never throws: if writing fails, the error is printed once
+ * and the rest of the packets are dropped, so a full disk never stops the bot.</p> */
+public class ReplayRecorder implements Closeable {
+
+    private final OutputStream output;
+    private long packetCount = 0;
+    private boolean hasFailed = false;
+
+    /** Record to the given stream. The stream is closed when the recorder is closed. */
+    public ReplayRecorder(OutputStream output) {
+        this.output = output;
+    }
+
+    /** Create a recorder that writes to the given file, overwriting it. Files ending with .gz are compressed. */
+    public static ReplayRecorder open(File file) throws IOException {
+        OutputStream output = new BufferedOutputStream(new FileOutputStream(file));
+        if (file.getName().endsWith(".gz")) {
+            output = new GZIPOutputStream(output);
+        }
+        return new ReplayRecorder(output);
+    }
+
+    /** Append a packet to the replay. */
+    public synchronized void record(GameData.GameTickPacket packet) {
+        if (hasFailed) return;
+        try {
+            packet.writeDelimitedTo(output);
+            packetCount++;
+        } catch (IOException e) {
+            hasFailed = true;
+            System.out.println("Failed to record packet, recording stopped: " + e.getMessage());
+        }
+    }
+
+    /** @return the number of packets recorded. */
+    public synchronized long getPacketCount() {
+        return packetCount;
+    }
+
+    /** Write the remaining packets and close the replay. */
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,153 @@
+package botenanna.replay;
+
+import botenanna.GrpcService;
+import botenanna.LatencyStats;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.behaviortree.intentions.Intention;
+import botenanna.game.simulation.PlanningService;
+import rlbot.api.GameData;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** <p>The Replayer streams the packets of a replay through {@link GrpcService#evaluateGameTick(GameData.GameTickPacket)},
+ * like RLBot does during a match, but without Rocket League. Packets are played back as fast as possible or in real
+ * time, paced by the game time of the packets. The duration of every tick is recorded, and the ControllerStates
+ * produced can be written as text, one per line, so two runs can be compared with a diff.</p>
+ *
+ * <p>Run {@link #main(String[])} to replay a file from the command line.</p> */
+public class Replayer {
+
+    private final GrpcService service;
+    private boolean isRealTime = false;
+    private PrintWriter output = null;
+
+    /** @param service evaluates the packets. */
+    public Replayer(GrpcService service) {
+        this.service = service;
+    }
+
+    /** @param isRealTime whether packets are played back at the pace they were recorded. Otherwise they are played back
+     * as fast as possible. Default is false. */
+    public void setRealTime(boolean isRealTime) {
+        this.isRealTime = isRealTime;
+    }
+
+    /** @param output receives every ControllerState produced, see {@link #format(long, GameData.GameTickPacket,
+     * GameData.ControllerState)}. Null to skip writing them, which is the default. */
+    public void setOutput(PrintWriter output) {
+        this.output = output;
+    }
+
+    /** Play back all packets of the replay.
+     * @return the duration of each tick. */
+    public LatencyStats replay(ReplayReader reader) throws IOException, InterruptedException {
+        LatencyStats latency = new LatencyStats();
+        long tick = 0;
+        long startNanos = 0;
+        double startGameTime = 0;
+
+        GameData.GameTickPacket packet;
+        while ((packet = reader.next()) != null) {
+            if (isRealTime) {
+                double gameTime = packet.getGameInfo().getSecondsElapsed();
+                // The game time starts over with a new match, so the pacing does too
+                if (tick == 0 || gameTime < startGameTime) {
+                    startNanos = System.nanoTime();
+                    startGameTime = gameTime;
+                }
+                long waitNanos = startNanos + (long) ((gameTime - startGameTime) * 1E9) - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            }
+
+            long start = System.nanoTime();
+            GameData.ControllerState state = service.evaluateGameTick(packet);
+            latency.record(System.nanoTime() - start);
+
+            if (output != null) {
+                output.println(format(tick, packet, state));
+            }
+            tick++;
+        }
+
+        if (output != null) {
+            output.flush();
+        }
+        return latency;
+    }
+
+    /** @return "tick player throttle steer pitch yaw roll jump boost handbrake", separated by spaces. Numbers have a
+     * fixed number of decimals, so the text is the same for the same states on any machine. */
+    public static String format(long tick, GameData.GameTickPacket packet, GameData.ControllerState state) {
+        return String.format(Locale.ROOT, "%d %d %.4f %.4f %.4f %.4f %.4f %b %b %b", tick, packet.getPlayerIndex(),
+                state.getThrottle(), state.getSteer(), state.getPitch(), state.getYaw(), state.getRoll(),
+                state.getJump(), state.getBoost(), state.getHandbrake());
+    }
+
+    /** Replay a file and print the tick durations.
+     * Arguments: {@code <replay> [tree] [--realtime] [--async] [--output <file>]}. Without a tree, the tree used last
+     * time is used. The output file receives the ControllerStates.
+     * By default intentions search during the ticks until their searches are finished, so the output of two runs is
+     * the same and can be diffed, but the tick durations include whole searches. With {@code --async}, they search in
+     * the background like on the server. Which plans arrive in time then depends on timing, so the output differs
+     * between runs and should not be diffed. */
+    public static void main(String[] args) throws Exception {
+        File replayFile = null;
+        File treeFile = null;
+        File outputFile = null;
+        boolean isRealTime = false;
+        boolean isAsync = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--realtime")) {
+                isRealTime = true;
+            } else if (args[i].equals("--async")) {
+                isAsync = true;
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                outputFile = new File(args[++i]);
+            } else if (replayFile == null) {
+                replayFile = new File(args[i]);
+            } else {
+                treeFile = new File(args[i]);
+            }
+        }
+
+        if (replayFile == null) {
+            System.out.println("Usage: Replayer <replay> [tree] [--realtime] [--async] [--output <file>]");
+            System.exit(-1);
+        }
+        if (treeFile == null) treeFile = BehaviourTreeBuilder.getPreviouslyUsedTreeFile();
+        if (treeFile == null || !treeFile.exists()) {
+            System.out.println("No behaviour tree source file found. Give the path of one after the replay.");
+            System.exit(-1);
+        }
+
+        PlanningService planningService = null;
+        if (isAsync) {
+            // Plan like the server does, so the replay measures the same work
+            planningService = new PlanningService(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            Intention.setPlanningService(planningService);
+        } else {
+            // Every search finishes in the tick it starts, so the output does not depend on timing
+            Intention.setPlanningBudget(Long.MAX_VALUE);
+        }
+        GrpcService service = new GrpcService(new BehaviourTreeBuilder(treeFile));
+
+        Replayer replayer = new Replayer(service);
+        replayer.setRealTime(isRealTime);
+        try (ReplayReader reader = ReplayReader.open(replayFile);
+             PrintWriter output = outputFile == null ? null : new PrintWriter(new FileWriter(outputFile))) {
+            replayer.setOutput(output);
+            LatencyStats latency = replayer.replay(reader);
+            System.out.println("Replayed " + replayFile.getName() + " using " + treeFile.getName() + ". " + latency);
+        } finally {
+            service.shutdown();
+            if (planningService != null) planningService.shutdown();
+        }
+    }
+}
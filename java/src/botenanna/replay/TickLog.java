@@ -0,0 +1,184 @@
+package botenanna.replay;
+
+import botenanna.game.Situation;
+import botenanna.game.simulation.SituationState;
+import rlbot.api.GameData;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/** <p>A TickLog is a file of fixed-size records, one per tick, each holding a {@link SituationState} as floats. Because
+ * every record has the same size, any record is found in constant time, and a single value can be read from every
+ * record without decoding the rest. The file is memory mapped, so reading is as fast as reading memory once the file
+ * is cached.</p>
+ *
+ * <p>The file starts with a header of four ints: a magic number, the version, the record size and
+ * {@link SituationState#SIZE}. Each record is the tick as a long, the game time as a double, the player index of each
+ * car slot as ints, and then the state's values as floats. Everything is little-endian. Write tick logs with a
+ * {@link TickLogWriter} and convert replays with {@link #main(String[])}.</p>
+ *
+ * <p>A TickLog can be read from several threads at once.</p> */
+public class TickLog implements Closeable {
+
+    /** "BATL" */
+    static final int MAGIC = 0x4241544c;
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int HEADER_SIZE = 4 * Integer.BYTES;
+    /** Offsets within a record in bytes. */
+    static final int TICK = 0, GAME_TIME = TICK + Long.BYTES, PLAYER_INDEXES = GAME_TIME + Double.BYTES,
+            VALUES = PLAYER_INDEXES + SituationState.CAR_COUNT * Integer.BYTES;
+    /** The size of a record in bytes. */
+    static final int RECORD_SIZE = VALUES + SituationState.SIZE * Float.BYTES;
+
+    /** A mapping can be at most 2 GB, so large files are mapped in segments of whole records. */
+    private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long recordCount;
+
+    /** Open a tick log for reading. Records written after it is opened are not seen. */
+    public TickLog(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException("Not a tick log, the file is too small: " + file);
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ORDER);
+            if (header.getInt() != MAGIC) throw new IOException("Not a tick log: " + file);
+            int version = header.getInt();
+            int recordSize = header.getInt();
+            int stateSize = header.getInt();
+            if (version != VERSION || recordSize != RECORD_SIZE || stateSize != SituationState.SIZE) {
+                throw new IOException("The tick log was written by an incompatible version: " + file);
+            }
+
+            // A record that is only partly written, e.g. because the writer was killed, is ignored
+            recordCount = (size - HEADER_SIZE) / RECORD_SIZE;
+            int segmentCount = (int) ((recordCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * RECORDS_PER_SEGMENT;
+                long records = Math.min(RECORDS_PER_SEGMENT, recordCount - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+                segments[i].order(ORDER);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return the number of records. */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** @return the segment holding the record. */
+    private MappedByteBuffer getSegment(long record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " is not in the tick log of " + recordCount + " records.");
+        }
+        return segments[(int) (record / RECORDS_PER_SEGMENT)];
+    }
+
+    /** @return the position of the record within its segment. */
+    private static int getPosition(long record) {
+        return (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    /** @return the tick of the given record. */
+    public long getTick(long record) {
+        return getSegment(record).getLong(getPosition(record) + TICK);
+    }
+
+    /** @return the game time of the given record. */
+    public double getGameTime(long record) {
+        return getSegment(record).getDouble(getPosition(record) + GAME_TIME);
+    }
+
+    /** @return a single value of the given record without reading the rest.
+     * @param index the index of the value in a {@link SituationState}. See its offset constants. */
+    public float get(long record, int index) {
+        if (index < 0 || index >= SituationState.SIZE) throw new IndexOutOfBoundsException("No value at index " + index);
+        return getSegment(record).getFloat(getPosition(record) + VALUES + index * Float.BYTES);
+    }
+
+    /** Overwrite the state with the given record. Nothing is allocated. */
+    public void read(long record, SituationState state) {
+        MappedByteBuffer segment = getSegment(record);
+        int position = getPosition(record);
+        state.setGameTime(segment.getDouble(position + GAME_TIME));
+        for (int slot = 0; slot < SituationState.CAR_COUNT; slot++) {
+            state.setPlayerIndex(slot, segment.getInt(position + PLAYER_INDEXES + slot * Integer.BYTES));
+        }
+        int values = position + VALUES;
+        for (int i = 0; i < SituationState.SIZE; i++) {
+            state.set(i, segment.getFloat(values + i * Float.BYTES));
+        }
+    }
+
+    /** @return the situation of the given record. */
+    public Situation getSituation(long record) {
+        SituationState state = new SituationState();
+        read(record, state);
+        return state.toSituation();
+    }
+
+    /** @return the index of the record with the given tick, or -1 if there is none. Ticks must be increasing. When
+     * ticks are consecutive, which is the usual case, the record is found in constant time. Otherwise it is found by a
+     * binary search. */
+    public long indexOf(long tick) {
+        if (recordCount == 0) return -1;
+
+        long guess = tick - getTick(0);
+        if (guess >= 0 && guess < recordCount && getTick(guess) == tick) return guess;
+
+        long low = 0;
+        long high = recordCount - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long middleTick = getTick(middle);
+            if (middleTick < tick) low = middle + 1;
+            else if (middleTick > tick) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Convert a replay to a tick log. Only the packets of one player are converted, by default the player of the first
+     * packet. The tick of a record is its packet's number among the packets of that player.
+     * Arguments: {@code <replay> <tick log> [player index]}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TickLog <replay> <tick log> [player index]");
+            System.exit(-1);
+        }
+
+        long startTime = System.nanoTime();
+        int playerIndex = args.length > 2 ? Integer.parseInt(args[2]) : -1;
+        try (ReplayReader reader = ReplayReader.open(new File(args[0]));
+             TickLogWriter writer = new TickLogWriter(new File(args[1]))) {
+            GameData.GameTickPacket packet;
+            while ((packet = reader.next()) != null) {
+                if (playerIndex == -1) playerIndex = packet.getPlayerIndex();
+                if (packet.getPlayerIndex() != playerIndex || packet.getPlayersCount() < SituationState.CAR_COUNT) continue;
+                writer.write(writer.getRecordCount(), new Situation(packet));
+            }
+            System.out.println(String.format("Converted %d ticks of player %d in %d ms.", writer.getRecordCount(),
+                    playerIndex, (System.nanoTime() - startTime) / 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package botenanna.replay;
+
+import botenanna.game.Situation;
+import botenanna.game.simulation.SituationState;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/** The TickLogWriter writes a {@link TickLog}. Records are appended one at a time through a reused buffer, so writing
+ * allocates nothing but the conversion from a Situation. */
+public class TickLogWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(TickLog.RECORD_SIZE).order(TickLog.ORDER);
+    private final SituationState state = new SituationState();
+    private long recordCount = 0;
+
+    /** Create a new tick log at the given file, overwriting it. */
+    public TickLogWriter(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(TickLog.HEADER_SIZE).order(TickLog.ORDER);
+        header.putInt(TickLog.MAGIC);
+        header.putInt(TickLog.VERSION);
+        header.putInt(TickLog.RECORD_SIZE);
+        header.putInt(SituationState.SIZE);
+        header.flip();
+        writeFully(header);
+    }
+
+    /** Append a record of the situation. */
+    public void write(long tick, Situation situation) throws IOException {
+        state.set(situation);
+        write(tick, state);
+    }
+
+    /** Append a record of the state. Values are stored as floats. */
+    public void write(long tick, SituationState state) throws IOException {
+        record.clear();
+        record.putLong(tick);
+        record.putDouble(state.getGameTime());
+        for (int slot = 0; slot < SituationState.CAR_COUNT; slot++) {
+            record.putInt(state.getPlayerIndex(slot));
+        }
+        for (int i = 0; i < SituationState.SIZE; i++) {
+            record.putFloat((float) state.get(i));
+        }
+        record.flip();
+        writeFully(record);
+        recordCount++;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /** @return the number of records written. */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
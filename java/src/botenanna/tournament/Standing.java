@@ -0,0 +1,113 @@
+package botenanna.tournament;
+
+import java.util.Locale;
+
+/** <p>The results of a tree in a {@link Tournament}, either against every other tree or against a single opponent.</p>
+ *
+ * <p>The score is the fraction of points won, where a win is one point and a draw is half. Its confidence interval is a
+ * Wilson score interval, which behaves well for few matches and for scores close to 0 or 1. Draws are counted as half
+ * a success, which makes the interval a little wider than it should be.</p> */
+public class Standing {
+
+    /** The z value of a 95% confidence interval. */
+    public static final double Z_95 = 1.96;
+
+    private final String name;
+    private int matches = 0;
+    private int wins = 0;
+    private int draws = 0;
+    private int goalsFor = 0;
+    private int goalsAgainst = 0;
+    private int touches = 0;
+
+    public Standing(String name) {
+        this.name = name;
+    }
+
+    /** Add the result of a match. */
+    public void record(int goalsFor, int goalsAgainst, int touches) {
+        matches++;
+        if (goalsFor > goalsAgainst) wins++;
+        else if (goalsFor == goalsAgainst) draws++;
+        this.goalsFor += goalsFor;
+        this.goalsAgainst += goalsAgainst;
+        this.touches += touches;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMatches() {
+        return matches;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return matches - wins - draws;
+    }
+
+    public int getGoalsFor() {
+        return goalsFor;
+    }
+
+    public int getGoalsAgainst() {
+        return goalsAgainst;
+    }
+
+    public int getTouches() {
+        return touches;
+    }
+
+    /** @return the fraction of points won, or 0 if no matches are played. */
+    public double getScore() {
+        return matches == 0 ? 0 : (wins + draws / 2.0) / matches;
+    }
+
+    /** @return the lower bound of the score's 95% confidence interval. */
+    public double getScoreLow() {
+        return wilsonLow(wins + draws / 2.0, matches, Z_95);
+    }
+
+    /** @return the upper bound of the score's 95% confidence interval. */
+    public double getScoreHigh() {
+        return wilsonHigh(wins + draws / 2.0, matches, Z_95);
+    }
+
+    /** @return the lower bound of the Wilson score interval, or 0 if there are no trials. */
+    public static double wilsonLow(double successes, int trials, double z) {
+        if (trials == 0) return 0;
+        return Math.max(0, wilsonCenter(successes, trials, z) - wilsonHalfWidth(successes, trials, z));
+    }
+
+    /** @return the upper bound of the Wilson score interval, or 1 if there are no trials. */
+    public static double wilsonHigh(double successes, int trials, double z) {
+        if (trials == 0) return 1;
+        return Math.min(1, wilsonCenter(successes, trials, z) + wilsonHalfWidth(successes, trials, z));
+    }
+
+    private static double wilsonCenter(double successes, int trials, double z) {
+        double p = successes / trials;
+        double z2 = z * z;
+        return (p + z2 / (2 * trials)) / (1 + z2 / trials);
+    }
+
+    private static double wilsonHalfWidth(double successes, int trials, double z) {
+        double p = successes / trials;
+        double z2 = z * z;
+        return z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / (1 + z2 / trials);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d matches, %d-%d-%d, goals %d-%d, %d touches, score %.3f [%.3f, %.3f]",
+                name, matches, wins, draws, getLosses(), goalsFor, goalsAgainst, touches, getScore(), getScoreLow(), getScoreHigh());
+    }
+}
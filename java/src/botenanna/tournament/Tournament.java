@@ -0,0 +1,289 @@
+package botenanna.tournament;
+
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.behaviortree.intentions.Intention;
+import botenanna.game.simulation.Match;
+import botenanna.game.simulation.MatchResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/** <p>A Tournament is a round robin between behaviour trees, played as simulated {@link Match}es. Every pair of trees
+ * plays the same number of matches, and the trees switch sides after every match. Both matches of such a pair use the
+ * same seed, so the kickoffs are the same for both trees.</p>
+ *
+ * <p>All matches are played in parallel on a work-stealing pool. Each match builds its own trees, so no tree is shared
+ * between threads. Results are reported one at a time as matches finish, so they can be written while the tournament
+ * is still running, see {@link TournamentOutput}.</p>
+ *
+ * <p>Comparing the two matches of a seed only makes sense if a match can be repeated. Therefore Intentions plan without
+ * a time budget during a tournament, see {@link Intention#setPlanningBudget(long)}.</p> */
+public class Tournament {
+
+    /** The settings of a tournament. All setters return the Settings itself. */
+    public static class Settings {
+        private int matchesPerPairing = 10;
+        private double duration = 300;
+        private long seed = 0;
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /** Set the number of matches between each pair of trees. Default is 10. */
+        public Settings withMatchesPerPairing(int matchesPerPairing) {
+            if (matchesPerPairing <= 0) throw new IllegalArgumentException("Matches per pairing must be positive.");
+            this.matchesPerPairing = matchesPerPairing;
+            return this;
+        }
+
+        /** Set the length of each match in game time. Default is 300 seconds. */
+        public Settings withDuration(double duration) {
+            if (duration <= 0) throw new IllegalArgumentException("Duration must be positive.");
+            this.duration = duration;
+            return this;
+        }
+
+        /** Set the seed of the first match of each pairing. The following matches use the following seeds. Default is 0. */
+        public Settings withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Set the number of matches played in parallel. Default is the number of processors. */
+        public Settings withThreads(int threads) {
+            if (threads <= 0) throw new IllegalArgumentException("Threads must be positive.");
+            this.threads = threads;
+            return this;
+        }
+
+        public int getMatchesPerPairing() {
+            return matchesPerPairing;
+        }
+
+        public double getDuration() {
+            return duration;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+    }
+
+    /** A played match of the tournament. Trees are referred to by their index in the tournament. */
+    public static class Game {
+        public final int blue;
+        public final int orange;
+        public final long seed;
+        public final MatchResult result;
+
+        public Game(int blue, int orange, long seed, MatchResult result) {
+            this.blue = blue;
+            this.orange = orange;
+            this.seed = seed;
+            this.result = result;
+        }
+    }
+
+    private final List<File> treeFiles;
+    private final Settings settings;
+    private final Standing[] standings;
+    /** Results of the tree with the lower index against the one with the higher index. */
+    private final Standing[][] pairings;
+    private double simulatedSeconds = 0;
+
+    /** Create a tournament between the trees in the files. Every tree is built once, so that a tree with errors is
+     * found before the tournament starts. From now on, Intentions plan without a time budget.
+     * @throws IOException if a tree can not be read or built. */
+    public Tournament(List<File> treeFiles, Settings settings) throws IOException {
+        if (treeFiles.size() < 2) throw new IllegalArgumentException("A tournament needs at least two trees.");
+        this.treeFiles = new ArrayList<>(treeFiles);
+        this.settings = settings;
+        Intention.setPlanningBudget(Long.MAX_VALUE);
+
+        BehaviourTreeBuilder builder = new BehaviourTreeBuilder();
+        int count = treeFiles.size();
+        standings = new Standing[count];
+        pairings = new Standing[count][count];
+        for (int i = 0; i < count; i++) {
+            builder.build(treeFiles.get(i));
+            standings[i] = new Standing(getName(i));
+            for (int j = i + 1; j < count; j++) {
+                pairings[i][j] = new Standing(getName(i) + " vs " + getName(j));
+            }
+        }
+    }
+
+    /** @return the name of the tree with the given index, which is its file name. */
+    public String getName(int tree) {
+        return treeFiles.get(tree).getName();
+    }
+
+    /** @return the number of trees. */
+    public int getTreeCount() {
+        return treeFiles.size();
+    }
+
+    /** @return the number of matches in the tournament. */
+    public int getMatchCount() {
+        int count = treeFiles.size();
+        return count * (count - 1) / 2 * settings.getMatchesPerPairing();
+    }
+
+    /** Play all matches. The consumer is called on this thread, one match at a time, in the order the matches finish.
+     * @param onGame called with every finished match. May be null.
+     * @return the standings, best score first. */
+    public List<Standing> play(Consumer<Game> onGame) {
+        ForkJoinPool pool = new ForkJoinPool(settings.getThreads());
+        try {
+            CompletionService<Game> completion = new ExecutorCompletionService<>(pool);
+            int count = treeFiles.size();
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    for (int m = 0; m < settings.getMatchesPerPairing(); m++) {
+                        boolean isSwapped = m % 2 == 1;
+                        int blue = isSwapped ? j : i;
+                        int orange = isSwapped ? i : j;
+                        long seed = settings.getSeed() + m / 2;
+                        completion.submit(() -> playGame(blue, orange, seed));
+                    }
+                }
+            }
+
+            for (int i = getMatchCount(); i > 0; i--) {
+                Game game;
+                try {
+                    game = completion.take().get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new RuntimeException("Failed to play a match.", e);
+                }
+                record(game);
+                if (onGame != null) onGame.accept(game);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return getStandings();
+    }
+
+    /** Helper method for {@link #play(Consumer)}. Builds new trees and plays a match between them. */
+    private Game playGame(int blue, int orange, long seed) throws IOException {
+        BehaviourTreeBuilder builder = new BehaviourTreeBuilder();
+        Match.Settings matchSettings = new Match.Settings().withDuration(settings.getDuration()).withSeed(seed);
+        Match match = new Match(builder.build(treeFiles.get(blue)), builder.build(treeFiles.get(orange)), matchSettings);
+        return new Game(blue, orange, seed, match.call());
+    }
+
+    /** Add a game to the standings. */
+    private void record(Game game) {
+        MatchResult result = game.result;
+        simulatedSeconds += result.getSimulatedSeconds();
+        standings[game.blue].record(result.getGoals(0), result.getGoals(1), result.getTouches(0));
+        standings[game.orange].record(result.getGoals(1), result.getGoals(0), result.getTouches(1));
+
+        // Pairings are seen from the tree with the lower index
+        int blueTeam = game.blue < game.orange ? 0 : 1;
+        pairings[Math.min(game.blue, game.orange)][Math.max(game.blue, game.orange)]
+                .record(result.getGoals(blueTeam), result.getGoals(1 - blueTeam), result.getTouches(blueTeam));
+    }
+
+    /** @return the game time of all finished matches. */
+    public double getSimulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    /** @return the standings of all trees, best score first. */
+    public List<Standing> getStandings() {
+        List<Standing> sorted = new ArrayList<>(Arrays.asList(standings));
+        sorted.sort(Comparator.comparingDouble(Standing::getScore).reversed());
+        return sorted;
+    }
+
+    /** @return the results of the first tree against the second, or the other way around if the first has the higher
+     * index. */
+    public Standing getPairing(int first, int second) {
+        if (first == second) throw new IllegalArgumentException("A tree does not play against itself.");
+        return pairings[Math.min(first, second)][Math.max(first, second)];
+    }
+
+    /** @return the .txt files in the directory that can be built as trees, sorted by name. A warning is printed for
+     * every file that can not be built, and it is left out. */
+    public static List<File> findTrees(File directory) {
+        File[] children = directory.listFiles((dir, name) -> name.endsWith(".txt"));
+        if (children == null) throw new IllegalArgumentException(directory + " is not a directory.");
+        Arrays.sort(children);
+
+        BehaviourTreeBuilder builder = new BehaviourTreeBuilder();
+        List<File> trees = new ArrayList<>();
+        for (File child : children) {
+            try {
+                builder.build(child);
+                trees.add(child);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping " + child.getName() + ", since it can not be built: " + e.getMessage());
+            }
+        }
+        return trees;
+    }
+
+    /** Play a round robin between tree files and print the standings. A directory argument adds every .txt file in it
+     * that can be built, see {@link #findTrees(File)}. Arguments: {@code <tree file or directory>... [--matches n]
+     * [--duration seconds] [--seed n] [--threads n] [--csv file] [--json file]}. */
+    public static void main(String[] args) throws IOException {
+        List<File> treeFiles = new ArrayList<>();
+        Settings settings = new Settings();
+        File csvFile = null;
+        File jsonFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--matches": settings.withMatchesPerPairing(Integer.parseInt(args[++i])); break;
+                case "--duration": settings.withDuration(Double.parseDouble(args[++i])); break;
+                case "--seed": settings.withSeed(Long.parseLong(args[++i])); break;
+                case "--threads": settings.withThreads(Integer.parseInt(args[++i])); break;
+                case "--csv": csvFile = new File(args[++i]); break;
+                case "--json": jsonFile = new File(args[++i]); break;
+                default:
+                    File file = new File(args[i]);
+                    if (file.isDirectory()) {
+                        treeFiles.addAll(findTrees(file));
+                    } else {
+                        treeFiles.add(file);
+                    }
+            }
+        }
+        if (treeFiles.size() < 2) {
+            System.out.println("A tournament needs at least two trees, but " + treeFiles.size() + " were given.");
+            System.out.println("Usage: Tournament <tree file or directory>... [--matches n] [--duration seconds] [--seed n] [--threads n] [--csv file] [--json file]");
+            System.exit(-1);
+        }
+
+        Tournament tournament = new Tournament(treeFiles, settings);
+        System.out.println(String.format("Playing %d matches between %d trees on %d threads.",
+                tournament.getMatchCount(), tournament.getTreeCount(), settings.getThreads()));
+
+        long startTime = System.nanoTime();
+        List<Standing> standings;
+        try (TournamentOutput output = new TournamentOutput(tournament, csvFile, jsonFile)) {
+            standings = tournament.play(output);
+            output.writeStandings(standings);
+        }
+        long wallNanos = System.nanoTime() - startTime;
+
+        for (Standing standing : standings) {
+            System.out.println(standing);
+        }
+        double simulatedSeconds = tournament.getSimulatedSeconds();
+        System.out.println(String.format("%.0f s simulated in %d ms (%.0fx real time).",
+                simulatedSeconds, wallNanos / 1_000_000, simulatedSeconds / (wallNanos / 1E9)));
+    }
+}
@@ -0,0 +1,135 @@
+package botenanna.tournament;
+
+import botenanna.game.simulation.MatchResult;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/** <p>The TournamentOutput writes the results of a {@link Tournament} while it is played. Every match is written as soon
+ * as it is finished, so the files can be read before the tournament is over, and nothing is lost if it is stopped.</p>
+ *
+ * <p>The CSV file has a header and a row per match. The JSON file has a JSON object per line: one per match with
+ * {@code "type": "match"}, where the winner is null for a draw, and when the tournament is over, one per tree with
+ * {@code "type": "standing"} and one per pair of trees with {@code "type": "pairing"}.</p> */
+public class TournamentOutput implements Consumer<Tournament.Game>, Closeable {
+
+    public static final String CSV_HEADER = "blue,orange,seed,blue_goals,orange_goals,blue_touches,orange_touches,winner,simulated_seconds,wall_ms";
+
+    private final Tournament tournament;
+    private final PrintWriter csv;
+    private final PrintWriter json;
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+
+    /** Create output files for the tournament. Existing files are overwritten.
+     * @param csvFile the CSV file, or null for no CSV output.
+     * @param jsonFile the JSON file, or null for no JSON output. */
+    public TournamentOutput(Tournament tournament, File csvFile, File jsonFile) throws IOException {
+        this(tournament, csvFile == null ? null : new PrintWriter(new FileWriter(csvFile)),
+                jsonFile == null ? null : new PrintWriter(new FileWriter(jsonFile)));
+    }
+
+    /** Create output to the given writers. They are closed when the output is closed.
+     * @param csv the writer of CSV, or null for no CSV output.
+     * @param json the writer of JSON, or null for no JSON output. */
+    public TournamentOutput(Tournament tournament, PrintWriter csv, PrintWriter json) {
+        this.tournament = tournament;
+        this.csv = csv;
+        this.json = json;
+        if (csv != null) {
+            csv.println(CSV_HEADER);
+            csv.flush();
+        }
+    }
+
+    /** Write a finished match. */
+    @Override
+    public void accept(Tournament.Game game) {
+        MatchResult result = game.result;
+        String winner = result.getWinner() == -1 ? "" : tournament.getName(result.getWinner() == 0 ? game.blue : game.orange);
+
+        if (csv != null) {
+            csv.println(String.join(",", escapeCsv(tournament.getName(game.blue)), escapeCsv(tournament.getName(game.orange)),
+                    Long.toString(game.seed),
+                    Integer.toString(result.getGoals(0)), Integer.toString(result.getGoals(1)),
+                    Integer.toString(result.getTouches(0)), Integer.toString(result.getTouches(1)),
+                    escapeCsv(winner),
+                    String.format(Locale.ROOT, "%.3f", result.getSimulatedSeconds()),
+                    Long.toString(result.getWallNanos() / 1_000_000)));
+            csv.flush();
+        }
+
+        if (json != null) {
+            JsonObject object = new JsonObject();
+            object.addProperty("type", "match");
+            object.addProperty("blue", tournament.getName(game.blue));
+            object.addProperty("orange", tournament.getName(game.orange));
+            object.addProperty("seed", game.seed);
+            object.addProperty("blueGoals", result.getGoals(0));
+            object.addProperty("orangeGoals", result.getGoals(1));
+            object.addProperty("blueTouches", result.getTouches(0));
+            object.addProperty("orangeTouches", result.getTouches(1));
+            object.addProperty("winner", winner.isEmpty() ? null : winner);
+            object.addProperty("simulatedSeconds", result.getSimulatedSeconds());
+            object.addProperty("wallMillis", result.getWallNanos() / 1_000_000);
+            json.println(gson.toJson(object));
+            json.flush();
+        }
+    }
+
+    /** Write the standings and the results of every pairing to the JSON file. Nothing is written to the CSV file. */
+    public void writeStandings(List<Standing> standings) {
+        if (json == null) return;
+        for (Standing standing : standings) {
+            json.println(gson.toJson(toJson("standing", standing)));
+        }
+        for (int i = 0; i < tournament.getTreeCount(); i++) {
+            for (int j = i + 1; j < tournament.getTreeCount(); j++) {
+                JsonObject object = toJson("pairing", tournament.getPairing(i, j));
+                object.addProperty("first", tournament.getName(i));
+                object.addProperty("second", tournament.getName(j));
+                json.println(gson.toJson(object));
+            }
+        }
+        json.flush();
+    }
+
+    private static JsonObject toJson(String type, Standing standing) {
+        JsonObject object = new JsonObject();
+        object.addProperty("type", type);
+        object.addProperty("name", standing.getName());
+        object.addProperty("matches", standing.getMatches());
+        object.addProperty("wins", standing.getWins());
+        object.addProperty("draws", standing.getDraws());
+        object.addProperty("losses", standing.getLosses());
+        object.addProperty("goalsFor", standing.getGoalsFor());
+        object.addProperty("goalsAgainst", standing.getGoalsAgainst());
+        object.addProperty("touches", standing.getTouches());
+        object.addProperty("score", standing.getScore());
+        object.addProperty("scoreLow", standing.getScoreLow());
+        object.addProperty("scoreHigh", standing.getScoreHigh());
+        return object;
+    }
+
+    /** @return the value quoted if it contains a comma, a quote or a line break. */
+    static String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        if (csv != null) csv.close();
+        if (json != null) json.close();
+    }
+}
@@ -0,0 +1,63 @@
+package botenanna;
+
+import botenanna.game.Situation;
+import org.junit.Test;
+import rlbot.api.GameData;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BotUpdateMailboxTest {
+
+    private static Situation createSituation(float gameTime) {
+        return new Situation(GameData.GameTickPacket.newBuilder()
+                .setGameInfo(GameData.GameInfo.newBuilder().setSecondsElapsed(gameTime)).build());
+    }
+
+    @Test
+    public void drain01() {
+        // Only the latest Situation is kept, and it is only given once
+        BotUpdateMailbox mailbox = new BotUpdateMailbox();
+        Bot bot = new Bot(0, 0, null);
+        Situation first = createSituation(1);
+        Situation second = createSituation(2);
+        mailbox.post(bot, first);
+        mailbox.post(bot, second);
+
+        Map<Bot, Situation> taken = new HashMap<>();
+        mailbox.drain((b, situation) -> assertNull(taken.put(b, situation)));
+        assertEquals(1, taken.size());
+        assertSame(second, taken.get(bot));
+
+        taken.clear();
+        mailbox.drain(taken::put);
+        assertTrue(taken.isEmpty());
+    }
+
+    @Test
+    public void drain02() {
+        // Each bot has its own slot
+        BotUpdateMailbox mailbox = new BotUpdateMailbox();
+        Bot blue = new Bot(0, 0, null);
+        Bot orange = new Bot(1, 1, null);
+        Situation blueSituation = createSituation(1);
+        Situation orangeSituation = createSituation(1);
+        mailbox.post(blue, blueSituation);
+        mailbox.post(orange, orangeSituation);
+
+        Map<Bot, Situation> taken = new HashMap<>();
+        mailbox.drain(taken::put);
+        assertEquals(2, taken.size());
+        assertSame(blueSituation, taken.get(blue));
+        assertSame(orangeSituation, taken.get(orange));
+
+        // A bot that posts again is given again, the other is skipped
+        taken.clear();
+        mailbox.post(orange, blueSituation);
+        mailbox.drain(taken::put);
+        assertEquals(1, taken.size());
+        assertSame(blueSituation, taken.get(orange));
+    }
+}
@@ -0,0 +1,170 @@
+package botenanna;
+
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rlbot.api.GameData;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class GrpcServiceTest {
+
+    private GrpcService service;
+
+    @Before
+    public void setUp() throws IOException {
+        service = new GrpcService(new BehaviourTreeBuilder(TestTrees.createFile(TestTrees.CHASE_BALL)));
+    }
+
+    @After
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    private static GameData.GameTickPacket createPacket(int playerIndex, int tick) {
+        GameData.GameTickPacket.Builder packet = GameData.GameTickPacket.newBuilder().setPlayerIndex(playerIndex);
+        for (int team = 0; team < 2; team++) {
+            packet.addPlayers(GameData.PlayerInfo.newBuilder()
+                    .setLocation(GameData.Vector3.newBuilder().setX(10 * tick).setY(team == 0 ? -3000 : 3000).setZ(17))
+                    .setTeam(team));
+        }
+        packet.setBall(GameData.BallInfo.newBuilder().setLocation(GameData.Vector3.newBuilder().setZ(93)));
+        packet.setGameInfo(GameData.GameInfo.newBuilder().setSecondsElapsed(tick / 60f).setIsRoundActive(true));
+        return packet.build();
+    }
+
+    /** @return a packet where the player's car is at the origin facing +x, and the ball is at an angle to it that
+     * grows with {@code order}. */
+    private static GameData.GameTickPacket createPacketWithBallAt(int playerIndex, int tick, int order) {
+        GameData.GameTickPacket packet = createPacket(playerIndex, tick);
+        return packet.toBuilder()
+                .setPlayers(playerIndex, packet.getPlayers(playerIndex).toBuilder()
+                        .setLocation(GameData.Vector3.newBuilder().setZ(17)))
+                .setBall(GameData.BallInfo.newBuilder()
+                        .setLocation(GameData.Vector3.newBuilder().setX(1000).setY(2 * order).setZ(93)))
+                .build();
+    }
+
+    @Test
+    public void evaluateGameTickAsync01() throws InterruptedException {
+        // Each player's ticks are answered in order on the player's own lane
+        int ticks = 200;
+        List<List<Integer>> answered = new ArrayList<>();
+        List<List<String>> threads = new ArrayList<>();
+        for (int player = 0; player < 2; player++) {
+            answered.add(Collections.synchronizedList(new ArrayList<>()));
+            threads.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(2 * ticks);
+
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int player = 0; player < 2; player++) {
+                int p = player;
+                int t = tick;
+                service.evaluateGameTickAsync(createPacket(player, tick), state -> {
+                    answered.get(p).add(t);
+                    threads.get(p).add(Thread.currentThread().getName());
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        for (int player = 0; player < 2; player++) {
+            assertEquals(ticks, answered.get(player).size());
+            for (int tick = 0; tick < ticks; tick++) {
+                assertEquals(tick, (int) answered.get(player).get(tick));
+                assertEquals("Bot lane #" + player, threads.get(player).get(tick));
+            }
+        }
+    }
+
+    @Test
+    public void evaluateGameTick01() {
+        assertNotNull(service.evaluateGameTick(createPacket(0, 0)));
+        // A player that is not in the packet gets the default state
+        GameData.GameTickPacket packet = createPacket(0, 0).toBuilder().setPlayerIndex(5).build();
+        assertEquals(0, service.evaluateGameTick(packet).getThrottle(), 1E-9);
+    }
+
+    @Test
+    public void streamControllerStates01() throws InterruptedException {
+        // Answers come back in the order the packets were sent, although the players' lanes run in parallel.
+        // The angle to the ball grows with every packet, so the steering does too
+        int ticks = 100;
+        List<Float> steering = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger answersWhenCompleted = new AtomicInteger(-1);
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<GameData.GameTickPacket> stream = service.streamControllerStates(new StreamObserver<GameData.ControllerState>() {
+            @Override
+            public void onNext(GameData.ControllerState state) {
+                steering.add(state.getSteer());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                answersWhenCompleted.set(steering.size());
+                completed.countDown();
+            }
+        });
+
+        for (int tick = 0; tick < ticks; tick++) {
+            stream.onNext(createPacketWithBallAt(0, tick, 2 * tick));
+            stream.onNext(createPacketWithBallAt(1, tick, 2 * tick + 1));
+        }
+        // Completing the stream does not wait for the answers, but the stream is completed after them
+        stream.onCompleted();
+
+        assertTrue(completed.await(30, TimeUnit.SECONDS));
+        assertEquals(2 * ticks, answersWhenCompleted.get());
+        for (int i = 1; i < steering.size(); i++) {
+            assertTrue(steering.get(i - 1) < steering.get(i));
+        }
+    }
+
+    @Test
+    public void streamControllerStates02() {
+        // After shutdown the stream fails with UNAVAILABLE
+        service.shutdown();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        StreamObserver<GameData.GameTickPacket> stream = service.streamControllerStates(new StreamObserver<GameData.ControllerState>() {
+            @Override
+            public void onNext(GameData.ControllerState state) {
+                fail("No answer is expected.");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.add(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                fail("The stream is expected to fail.");
+            }
+        });
+
+        stream.onNext(createPacket(0, 0));
+        stream.onNext(createPacket(0, 1));
+        stream.onCompleted();
+
+        assertEquals(1, errors.size());
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(errors.get(0)).getCode());
+    }
+}
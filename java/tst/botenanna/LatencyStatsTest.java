@@ -0,0 +1,34 @@
+package botenanna;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyStatsTest {
+
+    @Test
+    public void getPercentileMillis01() {
+        LatencyStats stats = new LatencyStats();
+        // 1 to 2000 ms in reverse order, more than the initial capacity
+        for (int i = 2000; i >= 1; i--) {
+            stats.record(i * 1_000_000L);
+        }
+        assertEquals(2000, stats.getCount());
+        assertEquals(1000, stats.getPercentileMillis(50), 1E-9);
+        assertEquals(1980, stats.getPercentileMillis(99), 1E-9);
+        assertEquals(2000, stats.getPercentileMillis(100), 1E-9);
+        assertEquals(1, stats.getPercentileMillis(0), 1E-9);
+        assertEquals(2000, stats.getMaxMillis(), 1E-9);
+        assertEquals(1000.5, stats.getMeanMillis(), 1E-9);
+    }
+
+    @Test
+    public void getPercentileMillis02() {
+        assertEquals(0, new LatencyStats().getPercentileMillis(50), 1E-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPercentileMillis03() {
+        new LatencyStats().getPercentileMillis(101);
+    }
+}
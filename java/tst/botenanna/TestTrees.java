@@ -0,0 +1,29 @@
+package botenanna;
+
+import botenanna.behaviortree.BehaviorTree;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/** Behaviour tree files for tests. The files are temporary and deleted when the tests are done. */
+public class TestTrees {
+
+    /** A tree that drives straight towards the ball. */
+    public static final String CHASE_BALL = "TaskGoTowardsPoint ball_pos";
+
+    /** @return a temporary file with the given lines of a behaviour tree. */
+    public static File createFile(String... lines) throws IOException {
+        File file = File.createTempFile("tree", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Arrays.asList(lines));
+        return file;
+    }
+
+    /** @return a new behaviour tree built from the given lines. */
+    public static BehaviorTree build(String... lines) throws IOException {
+        return new BehaviourTreeBuilder().build(createFile(lines));
+    }
+}
@@ -0,0 +1,29 @@
+package botenanna.behaviortree;
+
+import botenanna.UnknownBTKeyException;
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.math.Vector3;
+import botenanna.physics.Rigidbody;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArgumentTranslatorTest {
+
+    @Test
+    public void get01() throws UnknownBTKeyException {
+        // best_boost is a position, like the other positions
+        Car car = new Car(0, 0, new Vector3(), new Vector3(), new Vector3(), new Vector3(), new Vector3(), 0,
+                false, false, false, false, false, new Vector3());
+        Boostpad[] pads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
+        for (int i = 0; i < pads.length; i++) {
+            pads[i] = i == 5 ? new Boostpad(1000, 0, 0) : new Boostpad(-1000 - 50 * i, 100 * i, 0);
+        }
+        Situation situation = new Situation(car, new Car(car), new Rigidbody(), pads);
+
+        Object bestBoost = ArgumentTranslator.get("best_boost").apply(situation);
+        assertEquals(new Vector3(1000, 0), bestBoost);
+    }
+}
@@ -0,0 +1,29 @@
+package botenanna.behaviortree.intentions;
+
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.math.Vector3;
+import botenanna.physics.Rigidbody;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntentionCollectBoostTest {
+
+    @Test
+    public void getIntentionFunction01() {
+        // Every pad is behind the car, so there is no best pad
+        Car car = new Car(0, 0, new Vector3(), new Vector3(), new Vector3(), new Vector3(), new Vector3(), 0,
+                false, false, false, false, false, new Vector3());
+        Boostpad[] pads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
+        for (int i = 0; i < pads.length; i++) {
+            pads[i] = new Boostpad(-1000 - 50 * i, 100 * i, 0);
+        }
+        Situation situation = new Situation(car, new Car(car), new Rigidbody(), pads);
+        assertNull(situation.getBestBoostPad());
+
+        IntentionCollectBoost intention = new IntentionCollectBoost(new String[0]);
+        assertNotNull(intention.getIntentionFunction(situation));
+    }
+}
@@ -0,0 +1,43 @@
+package botenanna.behaviortree.tasks;
+
+import botenanna.behaviortree.MissingNodeException;
+import botenanna.behaviortree.NodeStatus;
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.math.Vector3;
+import botenanna.physics.Rigidbody;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TaskDashForwardTest {
+
+    private static Situation createSituation(double gameTime) {
+        Car car = new Car(0, 0, new Vector3(0, 0, Car.GROUND_OFFSET), new Vector3(), new Vector3(), new Vector3(),
+                new Vector3(), 0, false, false, false, false, false, new Vector3());
+        return new Situation(car, new Car(car), new Rigidbody(), new Boostpad[0], gameTime);
+    }
+
+    @Test
+    public void run01() throws MissingNodeException {
+        // The dash is timed by the game time, not by the wall clock
+        TaskDashForward task = new TaskDashForward(new String[0]);
+        assertFalse(task.run(createSituation(10)).output.isJumpDepressed());
+        assertTrue(task.run(createSituation(10.1)).output.isJumpDepressed());
+        assertFalse(task.run(createSituation(10.17)).output.isJumpDepressed());
+        assertTrue(task.run(createSituation(10.25)).output.isJumpDepressed());
+        assertFalse(task.run(createSituation(10.5)).output.isJumpDepressed());
+    }
+
+    @Test
+    public void run02() throws MissingNodeException {
+        // When the dash is over, the next run starts a new dash
+        TaskDashForward task = new TaskDashForward(new String[0]);
+        task.run(createSituation(10));
+        NodeStatus status = task.run(createSituation(11.4));
+        assertFalse(status.output.isJumpDepressed());
+        assertFalse(task.run(createSituation(11.45)).output.isJumpDepressed());
+        assertTrue(task.run(createSituation(11.5)).output.isJumpDepressed());
+    }
+}
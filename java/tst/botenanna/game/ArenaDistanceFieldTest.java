@@ -0,0 +1,61 @@
+package botenanna.game;
+
+import botenanna.math.Vector3;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArenaDistanceFieldTest {
+
+    private static void assertVectorEquals(Vector3 expected, Vector3 actual, double delta) {
+        assertEquals(expected.x, actual.x, delta);
+        assertEquals(expected.y, actual.y, delta);
+        assertEquals(expected.z, actual.z, delta);
+    }
+
+    @Test
+    public void getDistance01() {
+        // Flat parts of the floor, walls and ceiling
+        assertEquals(500, ArenaDistanceField.getDistance(0, 0, 500), 1E-9);
+        assertEquals(100, ArenaDistanceField.getDistance(Arena.WALL_X - 100, 0, 1000), 1E-9);
+        assertEquals(100, ArenaDistanceField.getDistance(0, -(Arena.WALL_Y - 100), 1000), 1E-9);
+        assertEquals(100, ArenaDistanceField.getDistance(0, 0, Arena.HEIGHT - 100), 1E-9);
+    }
+
+    @Test
+    public void getDistance02() {
+        // Behind the end wall is only free inside the goal
+        assertTrue(ArenaDistanceField.getDistance(0, Arena.WALL_Y + 100, 1000) < 0);
+        assertTrue(ArenaDistanceField.getDistance(1000, Arena.WALL_Y + 100, 300) < 0);
+        assertEquals(300, ArenaDistanceField.getDistance(0, Arena.WALL_Y + 100, 300), 1E-9);
+        assertEquals(100, ArenaDistanceField.getDistance(0, -(Arena.WALL_Y + Arena.GOAL_DEPHT - 100), 300), 1E-9);
+    }
+
+    @Test
+    public void getDistance03() {
+        // The curve between the floor and a wall is further from the edge than its radius
+        double r = ArenaDistanceField.CURVE_RADIUS;
+        double distance = ArenaDistanceField.getDistance(Arena.WALL_X - r / 2, 0, r / 2);
+        assertEquals(r - Math.sqrt(2) * r / 2, distance, 1E-9);
+
+        // The corners are cut
+        assertTrue(ArenaDistanceField.getDistance(Arena.WALL_X - 10, Arena.WALL_Y - 10, 1000) < 0);
+    }
+
+    @Test
+    public void getNormal01() {
+        assertVectorEquals(Vector3.UP, ArenaDistanceField.getNormal(new Vector3(0, 0, 50)), 1E-9);
+        assertVectorEquals(new Vector3(-1, 0, 0), ArenaDistanceField.getNormal(new Vector3(Arena.WALL_X - 50, 0, 1000)), 1E-9);
+        assertVectorEquals(Vector3.DOWN, ArenaDistanceField.getNormal(new Vector3(0, 0, Arena.HEIGHT - 50)), 1E-9);
+        Vector3 corner = ArenaDistanceField.getNormal(new Vector3(3900, 4100, 1000));
+        assertVectorEquals(new Vector3(-Math.sqrt(0.5), -Math.sqrt(0.5), 0), corner, 1E-9);
+    }
+
+    @Test
+    public void isNearWall01() {
+        assertTrue(ArenaDistanceField.isNearWall(new Vector3(Arena.WALL_X - 10, 0, 17), 28));
+        assertTrue(ArenaDistanceField.isNearWall(new Vector3(0, Arena.WALL_Y + 200, 17), 28));
+        assertFalse(ArenaDistanceField.isNearWall(new Vector3(0, 0, 17), 28));
+        assertFalse(ArenaDistanceField.isNearWall(new Vector3(Arena.WALL_X - 100, 0, 17), 28));
+    }
+}
@@ -0,0 +1,139 @@
+package botenanna.game;
+
+import botenanna.math.Vector3;
+import botenanna.physics.Rigidbody;
+import org.junit.Test;
+import rlbot.api.GameData;
+
+import static org.junit.Assert.*;
+
+public class SituationTest {
+
+    private static Situation createSituation() {
+        GameData.GameTickPacket.Builder packet = GameData.GameTickPacket.newBuilder().setPlayerIndex(0);
+        for (int team = 0; team < 2; team++) {
+            packet.addPlayers(GameData.PlayerInfo.newBuilder()
+                    .setLocation(GameData.Vector3.newBuilder().setY(team == 0 ? -3000 : 3000).setZ(17))
+                    .setBoost(33)
+                    .setTeam(team));
+        }
+        for (int i = 0; i <= Boostpad.COUNT_TOTAL_PADS; i++) {
+            packet.addBoostPads(GameData.BoostInfo.newBuilder()
+                    .setLocation(GameData.Vector3.newBuilder().setX(100 * i).setY(-100 * i)));
+        }
+        packet.setBall(GameData.BallInfo.newBuilder().setLocation(GameData.Vector3.newBuilder().setZ(93)));
+        packet.setGameInfo(GameData.GameInfo.newBuilder().setIsRoundActive(true));
+        return new Situation(packet.build());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getMyCar01() {
+        createSituation().getMyCar().setBoost(100);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getMyCar02() {
+        createSituation().getMyCar().setPosition(new Vector3(0, 0, 17));
+    }
+
+    @Test
+    public void getMyCar03() {
+        // A copy can be modified, and the original is unchanged
+        Situation situation = createSituation();
+        Car car = situation.getMyCar();
+        assertTrue(car.isFrozen());
+
+        Car copy = new Car(car);
+        assertFalse(copy.isFrozen());
+        copy.setBoost(100);
+        copy.setPosition(new Vector3(500, 0, 17));
+        assertEquals(100, copy.getBoost());
+        assertEquals(33, car.getBoost());
+        assertEquals(0, car.getPosition().x, 1E-9);
+        assertSame(car, situation.getMyCar());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getBall01() {
+        createSituation().getBall().setVelocity(new Vector3(100, 0, 0));
+    }
+
+    @Test
+    public void getBall02() {
+        Rigidbody ball = createSituation().getBall();
+        assertTrue(ball.isFrozen());
+        Rigidbody copy = ball.clone();
+        assertFalse(copy.isFrozen());
+        copy.setVelocity(new Vector3(100, 0, 0));
+        assertEquals(100, copy.getVelocity().x, 1E-9);
+        assertEquals(0, ball.getVelocity().x, 1E-9);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getBoostpads01() {
+        createSituation().getBoostpads()[0].refreshRespawnTimer();
+    }
+
+    @Test
+    public void getBoostpads02() {
+        Boostpad pad = createSituation().getBoostpads()[0];
+        Boostpad copy = new Boostpad(pad);
+        copy.refreshRespawnTimer();
+        assertFalse(copy.isActive());
+        assertTrue(pad.isActive());
+    }
+
+    /** Creates a Situation where myCar is at the origin facing +x and every boostpad is behind it. */
+    private static Situation createSituationWithPadsBehind(double respawnTimeLeft, int nearestPad) {
+        Car car = new Car(0, 0, new Vector3(), new Vector3(), new Vector3(), new Vector3(), new Vector3(), 0,
+                false, false, false, false, false, new Vector3());
+        Boostpad[] pads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
+        for (int i = 0; i < pads.length; i++) {
+            boolean isNearest = i == nearestPad;
+            double respawn = isNearest || respawnTimeLeft == 0 ? 0 : respawnTimeLeft + i;
+            pads[i] = new Boostpad(isNearest ? -500 : -1000 - 50 * i, 100 * i, respawn);
+        }
+        return new Situation(car, new Car(car), new Rigidbody(), pads);
+    }
+
+    @Test
+    public void getBestBoostPadPosition01() {
+        // No pad is ahead, so the nearest active pad is used
+        Situation situation = createSituationWithPadsBehind(0, 7);
+        assertNull(situation.getBestBoostPad());
+        assertEquals(new Vector3(-500, 700), situation.getBestBoostPadPosition());
+    }
+
+    @Test
+    public void getBestBoostPad01() {
+        // Finding no pad is remembered too. A pad placed ahead afterwards is not seen
+        Situation situation = createSituationWithPadsBehind(0, 7);
+        assertNull(situation.getBestBoostPad());
+        situation.getBoostpads()[0] = new Boostpad(1000, 0, 0);
+        assertNull(situation.getBestBoostPad());
+    }
+
+    @Test
+    public void getBestBoostPadPosition02() {
+        // Only pad 7 is active
+        Situation situation = createSituationWithPadsBehind(4, 7);
+        assertEquals(new Vector3(-500, 700), situation.getBestBoostPadPosition());
+    }
+
+    @Test
+    public void getBestBoostPadPosition03() {
+        // No pad is active, so the one that is active again first is used
+        Situation situation = createSituationWithPadsBehind(4, -1);
+        assertEquals(new Vector3(-1000, 0), situation.getBestBoostPadPosition());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void situation01() {
+        // The pieces given to a Situation are frozen too
+        Car car = new Car(0, 0, new Vector3(), new Vector3(), new Vector3(), new Vector3(), new Vector3(), 0,
+                false, false, false, false, false, new Vector3());
+        Car enemyCar = new Car(car);
+        new Situation(car, enemyCar, new Rigidbody(), new Boostpad[0]);
+        car.setBoost(50);
+    }
+}
@@ -0,0 +1,175 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.intentions.IntentionFunction;
+import botenanna.math.Vector3;
+import botenanna.physics.Rigidbody;
+import botenanna.physics.SteppedTimeLine;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class AStarTest {
+
+    /** Intention of driving to a point. Never fulfilled, so the search stops after its forced number of iterations. */
+    static final IntentionFunction DRIVE_TO_POINT = new IntentionFunction() {
+        @Override
+        public double compute(Situation situation, double timeSpent) {
+            return situation.getMyCar().getPosition().getDistanceTo(new Vector3(2000, 1000, 0));
+        }
+
+        @Override
+        public boolean isDeviationFulfilled(Situation situation, double timeSpent) {
+            return false;
+        }
+    };
+
+    static Situation createSituation() {
+        Vector3 ballPos = new Vector3(0, 0, 93);
+        Car myCar = new Car(0, 0, new Vector3(0, 0, Car.GROUND_OFFSET), new Vector3(500, 0, 0), new Vector3(),
+                new Vector3(), new Vector3(), 50, false, false, false, false, false, ballPos);
+        Car enemyCar = new Car(1, 1, new Vector3(0, 3000, Car.GROUND_OFFSET), new Vector3(), new Vector3(),
+                new Vector3(), new Vector3(), 50, false, false, false, false, false, ballPos);
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(ballPos);
+
+        Boostpad[] boostpads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
+        for (int i = 0; i < boostpads.length; i++) {
+            boostpads[i] = new Boostpad(-4000, -5000 + 300 * i, 0);
+        }
+
+        return new Situation(myCar, enemyCar, ball, boostpads);
+    }
+
+    @Test
+    public void search01() {
+        AStar search = new AStar(createSituation(), DRIVE_TO_POINT, 0.05);
+        assertFalse(search.isFinished());
+        assertNull(search.getSequence());
+
+        // A budget of zero still expands a node, so there is a best sequence so far
+        search.search(0);
+        assertNotNull(search.getSequence());
+    }
+
+    @Test
+    public void search02() {
+        // Searching in many small slices must give the same result as searching all at once
+        SteppedTimeLine<ActionSet> expected = AStar.findSequence(createSituation(), DRIVE_TO_POINT, 0.05);
+
+        AStar search = new AStar(createSituation(), DRIVE_TO_POINT, 0.05);
+        int calls = 0;
+        while (!search.search(0)) {
+            calls++;
+        }
+        SteppedTimeLine<ActionSet> actual = search.getSequence();
+
+        assertTrue(calls > 0);
+        assertEquals(expected.getLastTime(), actual.getLastTime(), 1E-9);
+        for (double time = 0; time <= expected.getLastTime(); time += 0.05) {
+            assertEquals(expected.evaluate(time), actual.evaluate(time));
+        }
+    }
+
+    @Test
+    public void search03() {
+        // Many actions lead to the same situation, e.g. jumping and sliding are not simulated
+        AStar search = new AStar(createSituation(), DRIVE_TO_POINT, 0.05);
+        search.search(Long.MAX_VALUE);
+        assertTrue(search.getExpandedCount() > 0);
+        assertTrue(search.getPrunedCount() > 0);
+    }
+
+    @Test
+    public void search04() {
+        // Parallel search must give the same result as serial search
+        AStar serial = new AStar(createSituation(), DRIVE_TO_POINT, 0.05);
+        serial.search(Long.MAX_VALUE);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        AStar parallel = new AStar(createSituation(), DRIVE_TO_POINT, 0.05, pool);
+        parallel.search(Long.MAX_VALUE);
+        pool.shutdown();
+
+        SteppedTimeLine<ActionSet> expected = serial.getSequence();
+        SteppedTimeLine<ActionSet> actual = parallel.getSequence();
+        assertEquals(serial.getExpandedCount(), parallel.getExpandedCount());
+        assertEquals(serial.getPrunedCount(), parallel.getPrunedCount());
+        assertEquals(expected.getLastTime(), actual.getLastTime(), 1E-9);
+        for (double time = 0; time <= expected.getLastTime(); time += 0.05) {
+            assertEquals(expected.evaluate(time), actual.evaluate(time));
+        }
+    }
+
+    @Test
+    public void search05() {
+        // A full arena finishes the search with the best sequence found so far
+        SearchArena arena = new SearchArena(20);
+        AStar search = new AStar(createSituation(), DRIVE_TO_POINT, 0.05, null, arena);
+        assertTrue(search.search(Long.MAX_VALUE));
+        assertTrue(arena.size() <= 20);
+        assertFalse(search.getSequence().isEmpty());
+    }
+
+    @Test
+    public void search06() {
+        // Successors are stepped in the slots of the arena, like the Simulation would step their parent
+        SearchArena arena = new SearchArena();
+        AStar search = new AStar(createSituation(), DRIVE_TO_POINT, 0.05, null, arena);
+        search.search(Long.MAX_VALUE);
+        for (int node = 1; node < arena.size(); node++) {
+            Situation parent = arena.getSituation(arena.getParent(node));
+            Situation expected = Simulation.simulate(parent, 0.05, ActionSetTable.get(arena.getAction(node)));
+            Situation actual = arena.getSituation(node);
+            assertEquals(0, expected.getMyCar().getPosition().getDistanceTo(actual.getMyCar().getPosition()), 1e-6);
+            assertEquals(0, expected.getMyCar().getVelocity().getDistanceTo(actual.getMyCar().getVelocity()), 1e-6);
+        }
+    }
+
+    @Test
+    public void search07() {
+        // The search stops at the first node fulfilling the intention function
+        IntentionFunction passPoint = new IntentionFunction() {
+            @Override
+            public double compute(Situation situation, double timeSpent) {
+                return DRIVE_TO_POINT.compute(situation, timeSpent);
+            }
+
+            @Override
+            public boolean isDeviationFulfilled(Situation situation, double timeSpent) {
+                return situation.getMyCar().getPosition().x > 40;
+            }
+        };
+        AStar search = new AStar(createSituation(), passPoint, 0.05);
+        assertTrue(search.search(Long.MAX_VALUE));
+
+        Situation situation = createSituation();
+        List<ActionSet> sequence = search.getSequence().getItems();
+        for (ActionSet action : sequence) {
+            situation = Simulation.simulate(situation, 0.05, action);
+        }
+        assertTrue(sequence.size() < 4);
+        assertTrue(passPoint.isDeviationFulfilled(situation, 0.05 * sequence.size()));
+    }
+
+    @Test
+    public void setIncumbent01() {
+        // Seeding a search with the rest of its own result must give the same plan with less work
+        AStar first = new AStar(createSituation(), DRIVE_TO_POINT, 0.05);
+        first.search(Long.MAX_VALUE);
+        List<ActionSet> plan = first.getSequence().getItems();
+
+        AStar seeded = new AStar(createSituation(), DRIVE_TO_POINT, 0.05);
+        seeded.setIncumbent(plan);
+        seeded.search(Long.MAX_VALUE);
+
+        assertEquals(plan, seeded.getSequence().getItems());
+        assertTrue(seeded.getExpandedCount() <= first.getExpandedCount());
+    }
+}
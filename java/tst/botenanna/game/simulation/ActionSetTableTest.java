@@ -0,0 +1,64 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ActionSetTableTest {
+
+    @Test
+    public void getId01() {
+        Set<ActionSet> seen = new HashSet<>();
+        for (int id = 0; id < ActionSetTable.COUNT; id++) {
+            ActionSet action = ActionSetTable.create(id);
+            assertEquals(id, ActionSetTable.getId(action));
+            assertEquals(action, ActionSetTable.get(id));
+            assertTrue("Two ids have the same ActionSet", seen.add(action));
+        }
+    }
+
+    @Test
+    public void getId02() {
+        assertEquals(new ActionSet(), ActionSetTable.get(ActionSetTable.NEUTRAL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getId03() {
+        ActionSetTable.getId(new ActionSet().withSteer(0.5));
+    }
+
+    @Test
+    public void getFollowing01() {
+        // On the ground with boost
+        int[] following = ActionSetTable.getFollowing(ActionSetTable.NEUTRAL, false, true, false);
+        assertEquals(36, following.length);
+        for (int id : following) {
+            ActionSet action = ActionSetTable.get(id);
+            assertEquals(0, action.getPitch(), 0);
+            assertEquals(0, action.getRoll(), 0);
+            if (action.isBoostDepressed()) {
+                assertEquals(1, action.getThrottle(), 0);
+                assertFalse(action.isSlideDepressed());
+            }
+        }
+    }
+
+    @Test
+    public void getFollowing02() {
+        // After full throttle and steering right, without boost, only small changes are allowed
+        int previous = ActionSetTable.getId(new ActionSet().withThrottle(1).withSteer(1));
+        int[] following = ActionSetTable.getFollowing(previous, false, false, true);
+        for (int id : following) {
+            ActionSet action = ActionSetTable.get(id);
+            assertTrue(action.getThrottle() >= 0);
+            assertTrue(action.getSteer() >= 0);
+            assertFalse(action.isBoostDepressed());
+            assertFalse(action.isJumpDepressed());
+        }
+        assertEquals(2 * 3, following.length);
+    }
+}
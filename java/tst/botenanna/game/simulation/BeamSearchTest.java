@@ -0,0 +1,64 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Situation;
+import botenanna.physics.SteppedTimeLine;
+import org.junit.Test;
+
+import java.util.List;
+
+import static botenanna.game.simulation.AStarTest.DRIVE_TO_POINT;
+import static botenanna.game.simulation.AStarTest.createSituation;
+import static org.junit.Assert.*;
+
+public class BeamSearchTest {
+
+    @Test
+    public void search01() {
+        BeamSearch.Settings settings = new BeamSearch.Settings().withWidth(4).withDepth(20);
+        BeamSearch search = new BeamSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings);
+        assertFalse(search.isFinished());
+        assertNull(search.getSequence());
+
+        assertTrue(search.search(Long.MAX_VALUE));
+        assertEquals(20, search.getDepth());
+
+        // The plan looks a full second ahead
+        SteppedTimeLine<ActionSet> sequence = search.getSequence();
+        assertEquals(20, sequence.getItems().size());
+        assertEquals(0.95, sequence.getLastTime(), 1e-9);
+    }
+
+    @Test
+    public void search02() {
+        // Driving towards the point for a second must get closer than standing still
+        Situation start = createSituation();
+        BeamSearch search = new BeamSearch(start, DRIVE_TO_POINT, 0.05, new BeamSearch.Settings().withWidth(4).withDepth(20));
+        search.search(Long.MAX_VALUE);
+
+        Situation end = start;
+        for (ActionSet action : search.getSequence().getItems()) {
+            end = Simulation.simulate(end, 0.05, action);
+        }
+        assertTrue(DRIVE_TO_POINT.compute(end, 1) < DRIVE_TO_POINT.compute(start, 0));
+    }
+
+    @Test
+    public void setIncumbent01() {
+        BeamSearch.Settings settings = new BeamSearch.Settings().withWidth(2).withDepth(6);
+        BeamSearch previous = new BeamSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings);
+        previous.search(Long.MAX_VALUE);
+        List<ActionSet> incumbent = previous.getSequence().getItems();
+
+        // The same search seeded with its own result finds the same sequence
+        BeamSearch search = new BeamSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings);
+        search.setIncumbent(incumbent);
+        search.search(Long.MAX_VALUE);
+        List<ActionSet> sequence = search.getSequence().getItems();
+
+        assertEquals(incumbent.size(), sequence.size());
+        for (int i = 0; i < sequence.size(); i++) {
+            assertEquals(ActionSetTable.getId(incumbent.get(i)), ActionSetTable.getId(sequence.get(i)));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package botenanna.game.simulation;
+
+import botenanna.Ball;
+import botenanna.TestTrees;
+import botenanna.game.Arena;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MatchTest {
+
+    private static Match createMatch(double duration, long seed) throws IOException {
+        return new Match(TestTrees.build(TestTrees.CHASE_BALL), TestTrees.build(TestTrees.CHASE_BALL), new Match.Settings().withDuration(duration).withSeed(seed));
+    }
+
+    private static Match createIntentionMatch() throws IOException {
+        return new Match(TestTrees.build("IntentionTouchBall"), TestTrees.build("IntentionCollectBoost"),
+                new Match.Settings().withDuration(20).withSeed(3));
+    }
+
+    @Test
+    public void call01() throws IOException {
+        MatchResult result = createMatch(20, 0).call();
+        assertEquals(20, result.getSimulatedSeconds(), 0.02);
+        assertEquals(1200, result.getSteps(), 1);
+        // Both cars drive to the ball at the kickoff
+        assertTrue(result.getTouches(0) > 0);
+        assertTrue(result.getTouches(1) > 0);
+    }
+
+    @Test
+    public void call02() throws IOException {
+        // The same seed gives the same match
+        MatchResult first = createMatch(30, 7).call();
+        MatchResult second = createMatch(30, 7).call();
+        assertEquals(first.getGoals(0), second.getGoals(0));
+        assertEquals(first.getGoals(1), second.getGoals(1));
+        assertEquals(first.getTouches(0), second.getTouches(0));
+        assertEquals(first.getTouches(1), second.getTouches(1));
+    }
+
+    @Test
+    public void call03() throws IOException {
+        // Intentions plan the same way however busy the computer is, so their matches can be repeated too
+        MatchResult first = createIntentionMatch().call();
+        for (int i = 0; i < 2; i++) {
+            MatchResult other = createIntentionMatch().call();
+            assertEquals(first.getGoals(0), other.getGoals(0));
+            assertEquals(first.getGoals(1), other.getGoals(1));
+            assertEquals(first.getTouches(0), other.getTouches(0));
+            assertEquals(first.getTouches(1), other.getTouches(1));
+        }
+    }
+
+    @Test
+    public void step01() throws IOException {
+        // Ball rolling into orange's goal is a goal for blue, followed by a kickoff
+        Match match = createMatch(300, 0);
+        match.kickoff();
+        SituationState state = match.getState();
+        state.set(SituationState.BALL + SituationState.BALL_POS + 1, Arena.WALL_Y - 200);
+        state.set(SituationState.BALL + SituationState.BALL_VEL + 1, 2000);
+        for (int i = 0; i < 30 && match.getGoals(0) == 0; i++) {
+            match.step();
+        }
+        assertEquals(1, match.getGoals(0));
+        assertEquals(0, match.getGoals(1));
+        assertEquals(0, state.get(SituationState.BALL + SituationState.BALL_POS + 1), 0);
+        assertEquals(Ball.RADIUS, state.get(SituationState.BALL + SituationState.BALL_POS + 2), 0);
+    }
+
+    @Test
+    public void step02() throws IOException {
+        // A car driving into a side wall stays inside
+        Match match = createMatch(300, 0);
+        match.kickoff();
+        SituationState state = match.getState();
+        state.set(SituationState.CAR_POS, Arena.WALL_X - 100);
+        state.set(SituationState.CAR_POS + 1, 0);
+        state.set(SituationState.CAR_VEL, 2000);
+        for (int i = 0; i < 10; i++) {
+            match.step();
+        }
+        assertTrue(state.get(SituationState.CAR_POS) <= Arena.WALL_X - Match.CAR_RADIUS + 1E-9);
+    }
+
+    @Test
+    public void playAll01() throws IOException {
+        List<Match> matches = Arrays.asList(createMatch(10, 1), createMatch(10, 2), createMatch(10, 3));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<MatchResult> results = Match.playAll(matches, pool);
+            assertEquals(3, results.size());
+            for (MatchResult result : results) {
+                assertEquals(10, result.getSimulatedSeconds(), 0.02);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void settings01() {
+        new Match.Settings().withDuration(0);
+    }
+}
@@ -0,0 +1,82 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Situation;
+import botenanna.physics.SteppedTimeLine;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static botenanna.game.simulation.AStarTest.DRIVE_TO_POINT;
+import static botenanna.game.simulation.AStarTest.createSituation;
+import static org.junit.Assert.*;
+
+public class MonteCarloTreeSearchTest {
+
+    private static List<ActionSet> searchFully(MonteCarloTreeSearch search) {
+        while (!search.search(Long.MAX_VALUE)) ;
+        return search.getSequence().getItems();
+    }
+
+    @Test
+    public void search01() {
+        MonteCarloTreeSearch.Settings settings = new MonteCarloTreeSearch.Settings().withIterations(200);
+        MonteCarloTreeSearch search = new MonteCarloTreeSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings, null);
+        assertFalse(search.isFinished());
+        assertNull(search.getSequence());
+
+        assertTrue(search.search(Long.MAX_VALUE));
+        assertTrue(search.isFinished());
+        assertEquals(200, search.getIterationCount());
+
+        SteppedTimeLine<ActionSet> sequence = search.getSequence();
+        assertNotNull(sequence);
+        assertTrue(sequence.getItems().size() <= settings.getDepth());
+    }
+
+    @Test
+    public void search02() {
+        // Same seed, same sequence
+        MonteCarloTreeSearch.Settings settings = new MonteCarloTreeSearch.Settings().withIterations(300).withSeed(42);
+        List<ActionSet> first = searchFully(new MonteCarloTreeSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings, null));
+        List<ActionSet> second = searchFully(new MonteCarloTreeSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings, null));
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(ActionSetTable.getId(first.get(i)), ActionSetTable.getId(second.get(i)));
+        }
+    }
+
+    @Test
+    public void searchParallel01() {
+        MonteCarloTreeSearch.Settings settings = new MonteCarloTreeSearch.Settings().withIterations(100).withThreads(4);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            MonteCarloTreeSearch search = new MonteCarloTreeSearch(createSituation(), DRIVE_TO_POINT, 0.05, settings, pool);
+            assertTrue(search.search(Long.MAX_VALUE));
+            assertEquals(400, search.getIterationCount());
+            assertNotNull(search.getSequence());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void reuse01() {
+        MonteCarloTreeSearch.Settings settings = new MonteCarloTreeSearch.Settings().withIterations(300);
+        Situation situation = createSituation();
+        MonteCarloTreeSearch previous = new MonteCarloTreeSearch(situation, DRIVE_TO_POINT, 0.05, settings, null);
+        List<ActionSet> sequence = searchFully(previous);
+
+        // Continue after performing the first action of the sequence
+        Situation next = Simulation.simulate(situation, 0.05, sequence.get(0));
+        MonteCarloTreeSearch search = new MonteCarloTreeSearch(next, DRIVE_TO_POINT, 0.05, settings, null,
+                previous, sequence.subList(0, 1));
+        search.setIncumbent(sequence.subList(1, sequence.size()));
+
+        // The sequence is known before searching, since the tree is reused
+        assertNotNull(search.getSequence());
+        assertEquals(ActionSetTable.getId(sequence.get(1)), ActionSetTable.getId(search.getSequence().getFirstItem()));
+    }
+}
@@ -0,0 +1,49 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Situation;
+import botenanna.physics.SteppedTimeLine;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PlanningServiceTest {
+
+    @Test
+    public void submit01() throws Exception {
+        SteppedTimeLine<ActionSet> expected = AStar.findSequence(AStarTest.createSituation(), AStarTest.DRIVE_TO_POINT, 0.05);
+
+        PlanningService service = new PlanningService(1);
+        Situation situation = AStarTest.createSituation();
+        Plan plan = service.submit(situation, new AStar(situation, AStarTest.DRIVE_TO_POINT, 0.05), null).get();
+        service.shutdown();
+
+        assertNotNull(plan);
+        assertEquals(0, plan.getStartTime(), 0);
+        assertEquals(expected.getItems(), plan.getSequence().getItems());
+    }
+
+    @Test
+    public void plan01() {
+        // A plan is followed relative to the game time of its situation
+        SteppedTimeLine<ActionSet> sequence = new SteppedTimeLine<>();
+        ActionSet first = new ActionSet().withThrottle(1);
+        ActionSet second = new ActionSet().withSteer(1);
+        ActionSet third = new ActionSet().withSteer(-1);
+        sequence.addTimeStep(0, first);
+        sequence.addTimeStep(0.05, second);
+        sequence.addTimeStep(0.10, third);
+        Plan plan = new Plan(sequence, 10);
+
+        assertEquals(first, plan.evaluate(10.01));
+        assertEquals(second, plan.evaluate(10.06));
+        assertEquals(third, plan.evaluate(11));
+        assertEquals(10.10, plan.getEndTime(), 1E-9);
+
+        List<ActionSet> remaining = plan.getActionsAfter(10.02);
+        assertEquals(2, remaining.size());
+        assertEquals(second, remaining.get(0));
+    }
+}
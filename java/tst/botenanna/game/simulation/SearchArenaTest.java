@@ -0,0 +1,87 @@
+package botenanna.game.simulation;
+
+import botenanna.game.Situation;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SearchArenaTest {
+
+    @Test
+    public void poll01() {
+        SearchArena arena = new SearchArena(1000);
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            arena.add(0, SearchArena.NO_PARENT, 0, random.nextInt(100));
+        }
+        assertEquals(1000, arena.size());
+
+        int previous = arena.poll();
+        while (!arena.isOpenSetEmpty()) {
+            int node = arena.poll();
+            double previousValue = arena.getIntentionValue(previous);
+            double value = arena.getIntentionValue(node);
+            assertTrue(previousValue <= value);
+            if (previousValue == value) {
+                assertTrue("Ties must be broken by insertion order", previous < node);
+            }
+            previous = node;
+        }
+    }
+
+    @Test
+    public void clear01() {
+        SearchArena arena = new SearchArena();
+        arena.add(3, SearchArena.NO_PARENT, 0, 5);
+        arena.clear();
+        assertTrue(arena.isOpenSetEmpty());
+        assertEquals(0, arena.size());
+
+        int node = arena.add(7, SearchArena.NO_PARENT, 0.05, 1);
+        assertEquals(0, node);
+        assertEquals(7, arena.getAction(node));
+        assertEquals(0.05, arena.getTimeSpent(node), 0);
+        assertEquals(node, arena.peek());
+    }
+
+    @Test
+    public void add01() {
+        // The situation is kept in a slot, and converted back without losing anything
+        Situation situation = AStarTest.createSituation();
+        SearchArena arena = new SearchArena(4);
+        int node = arena.add(situation, 2, SearchArena.NO_PARENT, 0.1, 3);
+        Situation copy = arena.getSituation(node);
+        assertNotSame(situation, copy);
+        assertEquals(situation.getMyCar().getPosition(), copy.getMyCar().getPosition());
+        assertEquals(situation.getMyCar().getVelocity(), copy.getMyCar().getVelocity());
+        assertEquals(situation.getBall().getPosition(), copy.getBall().getPosition());
+        assertEquals(situation.getMyCar().getBoost(), copy.getMyCar().getBoost());
+    }
+
+    @Test
+    public void add03() {
+        // The next slot is filled before its node is added, and a new node is not fulfilled until told so
+        SearchArena arena = new SearchArena(4);
+        arena.add(0, SearchArena.NO_PARENT, 0, 1);
+        arena.setFulfilled(0, true);
+        arena.clear();
+
+        SituationState next = arena.getNextState();
+        next.set(AStarTest.createSituation());
+        int node = arena.add(2, SearchArena.NO_PARENT, 0.1, 3);
+        assertSame(next, arena.getState(node));
+        assertFalse(arena.isFulfilled(node));
+        assertNotSame(next, arena.getNextState());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add02() {
+        SearchArena arena = new SearchArena(2);
+        arena.add(0, SearchArena.NO_PARENT, 0, 1);
+        arena.add(0, 0, 0.05, 1);
+        assertEquals(0, arena.getFreeCapacity());
+        arena.add(0, 0, 0.05, 1);
+    }
+}
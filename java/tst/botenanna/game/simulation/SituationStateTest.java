@@ -0,0 +1,212 @@
+package botenanna.game.simulation;
+
+import botenanna.game.ActionSet;
+import botenanna.game.Boostpad;
+import botenanna.game.Car;
+import botenanna.game.Situation;
+import botenanna.math.Vector3;
+import botenanna.physics.Rigidbody;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SituationStateTest {
+
+    private static final double EPSILON = 1E-9;
+
+    private static Situation createSituation(Vector3 myPos, Vector3 myVel, Vector3 myRot, boolean myMidAir, int myBoost,
+                                             Vector3 ballPos, Vector3 ballVel) {
+        Car myCar = new Car(1, 0, myPos, myVel, new Vector3(), myRot, new Vector3(), myBoost,
+                false, false, false, false, myMidAir, ballPos);
+        Car enemyCar = new Car(0, 1, new Vector3(-1000, 3000, Car.GROUND_OFFSET), new Vector3(200, -500, 0),
+                new Vector3(), new Vector3(0, 0, -1.2), new Vector3(), 33, false, false, false, false, false, ballPos);
+
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(ballPos);
+        ball.setVelocity(ballVel);
+        ball.setAcceleration(new Vector3(0, 0, -650));
+
+        Boostpad[] boostpads = new Boostpad[Boostpad.COUNT_TOTAL_PADS];
+        for (int i = 0; i < Boostpad.COUNT_BIG_PADS; i++) {
+            Vector3 pos = Boostpad.BIG_BOOST_PADS_POSITIONS[i];
+            boostpads[i] = new Boostpad(pos.x, pos.y, i % 2 == 0 ? 0 : 4);
+        }
+        for (int i = Boostpad.COUNT_BIG_PADS; i < boostpads.length; i++) {
+            boostpads[i] = new Boostpad(-3000 + 200 * i, 500 - 40 * i, i % 3 == 0 ? 1.5 : 0);
+        }
+
+        return new Situation(myCar, enemyCar, ball, boostpads);
+    }
+
+    private static void assertVectorEquals(Vector3 expected, Vector3 actual) {
+        assertEquals(expected.x, actual.x, EPSILON);
+        assertEquals(expected.y, actual.y, EPSILON);
+        assertEquals(expected.z, actual.z, EPSILON);
+    }
+
+    private static void assertCarEquals(Car expected, Car actual) {
+        assertEquals(expected.getPlayerIndex(), actual.getPlayerIndex());
+        assertEquals(expected.getTeam(), actual.getTeam());
+        assertVectorEquals(expected.getPosition(), actual.getPosition());
+        assertVectorEquals(expected.getVelocity(), actual.getVelocity());
+        assertVectorEquals(expected.getAcceleration(), actual.getAcceleration());
+        assertVectorEquals(expected.getRotation(), actual.getRotation());
+        assertVectorEquals(expected.getAngularVelocity(), actual.getAngularVelocity());
+        assertEquals(expected.getBoost(), actual.getBoost());
+        assertEquals(expected.isHasJumped(), actual.isHasJumped());
+        assertEquals(expected.hasDoubleJumped(), actual.hasDoubleJumped());
+        assertEquals(expected.isDemolished(), actual.isDemolished());
+        assertEquals(expected.isSupersonic(), actual.isSupersonic());
+        assertEquals(expected.isMidAir(), actual.isMidAir());
+    }
+
+    private static void assertSituationEquals(Situation expected, Situation actual) {
+        assertEquals(expected.getGameTime(), actual.getGameTime(), EPSILON);
+        assertCarEquals(expected.getMyCar(), actual.getMyCar());
+        assertCarEquals(expected.getEnemyCar(), actual.getEnemyCar());
+        assertVectorEquals(expected.getBall().getPosition(), actual.getBall().getPosition());
+        assertVectorEquals(expected.getBall().getVelocity(), actual.getBall().getVelocity());
+        assertVectorEquals(expected.getBall().getAcceleration(), actual.getBall().getAcceleration());
+        for (int i = 0; i < Boostpad.COUNT_TOTAL_PADS; i++) {
+            Boostpad expectedPad = expected.getBoostpads()[i];
+            Boostpad actualPad = actual.getBoostpads()[i];
+            assertVectorEquals(expectedPad.getPosition(), actualPad.getPosition());
+            assertEquals(expectedPad.getRespawnTimeLeft(), actualPad.getRespawnTimeLeft(), EPSILON);
+            assertEquals(expectedPad.getBoostAmount(), actualPad.getBoostAmount());
+        }
+    }
+
+    /** Step both with Simulation and SituationState and compare after every step. */
+    private static void assertStepsLikeSimulation(Situation situation, ActionSet action, int steps) {
+        SituationState state = new SituationState(situation);
+        for (int i = 0; i < steps; i++) {
+            situation = Simulation.simulate(situation, 0.05, action);
+            state.step(action, 0.05);
+            assertSituationEquals(situation, state.toSituation());
+        }
+    }
+
+    @Test
+    public void roundTrip01() {
+        Situation situation = createSituation(new Vector3(100, -200, 300), new Vector3(500, 20, -100),
+                new Vector3(0.1, 0.2, 0.3), true, 45, new Vector3(0, 0, 93), new Vector3(300, 400, 500));
+        Situation converted = new SituationState(situation).toSituation();
+        assertSituationEquals(situation, converted);
+    }
+
+    @Test
+    public void roundTrip02() {
+        Situation situation = createSituation(new Vector3(100, -200, 300), new Vector3(500, 20, -100),
+                new Vector3(0.1, 0.2, 0.3), true, 45, new Vector3(0, 0, 93), new Vector3(300, 400, 500));
+        SituationState state = new SituationState(situation);
+        Situation enemyView = state.toSituation(1);
+        assertCarEquals(situation.getEnemyCar(), enemyView.getMyCar());
+        assertCarEquals(situation.getMyCar(), enemyView.getEnemyCar());
+    }
+
+    @Test
+    public void copyFrom01() {
+        Situation situation = createSituation(new Vector3(100, -200, Car.GROUND_OFFSET), new Vector3(500, 20, 0),
+                new Vector3(0, 0, 0.3), false, 45, new Vector3(0, 0, 93), new Vector3(300, 400, 500));
+        SituationState state = new SituationState(situation);
+        SituationState copy = state.copy();
+        copy.step(new ActionSet().withThrottle(1), 0.1);
+        assertSituationEquals(situation, state.toSituation());
+    }
+
+    @Test
+    public void stepLikeSimulation01() {
+        // Throttle over a big boost pad
+        Vector3 pad = Boostpad.BIG_BOOST_PADS_POSITIONS[0];
+        Situation situation = createSituation(new Vector3(pad.x - 300, pad.y, Car.GROUND_OFFSET), new Vector3(1000, 0, 0),
+                new Vector3(0, 0, 0), false, 10, new Vector3(0, 0, 93), new Vector3(0, 0, 0));
+        assertStepsLikeSimulation(situation, new ActionSet().withThrottle(1), 20);
+    }
+
+    @Test
+    public void stepLikeSimulation02() {
+        // Boosting and steering, ball bouncing towards a wall
+        Situation situation = createSituation(new Vector3(0, 0, Car.GROUND_OFFSET), new Vector3(0, 800, 0),
+                new Vector3(0, 0, 1.5), false, 100, new Vector3(3800, 0, 800), new Vector3(1500, 300, -200));
+        assertStepsLikeSimulation(situation, new ActionSet().withThrottle(1).withBoost(true).withSteer(-1), 40);
+    }
+
+    @Test
+    public void stepLikeSimulation03() {
+        // Mid air car falling to the ground
+        Situation situation = createSituation(new Vector3(200, 200, 400), new Vector3(300, 0, 200),
+                new Vector3(0, 0.2, 0), true, 0, new Vector3(0, 0, 93), new Vector3(0, 0, 0));
+        assertStepsLikeSimulation(situation, new ActionSet().withThrottle(1), 40);
+    }
+
+    @Test
+    public void stepLikeSimulation04() {
+        // No throttle, reversing and standing still
+        Situation situation = createSituation(new Vector3(200, 200, Car.GROUND_OFFSET), new Vector3(0, 0, 0),
+                new Vector3(0, 0, -2), false, 0, new Vector3(0, 0, 93), new Vector3(0, 0, 0));
+        assertStepsLikeSimulation(situation, new ActionSet(), 10);
+        assertStepsLikeSimulation(situation, new ActionSet().withThrottle(-1).withSteer(1), 10);
+    }
+
+    @Test
+    public void stepLikeSimulation05() {
+        // Steering past PI, where the yaw wraps around
+        Situation situation = createSituation(new Vector3(0, 0, Car.GROUND_OFFSET), new Vector3(-1000, 100, 0),
+                new Vector3(0, 0, 3.0), false, 0, new Vector3(0, 0, 93), new Vector3(0, 0, 0));
+        assertStepsLikeSimulation(situation, new ActionSet().withThrottle(1).withSteer(1), 10);
+
+        SituationState state = new SituationState(situation);
+        for (int i = 0; i < 10; i++) {
+            state.step(new ActionSet().withThrottle(1).withSteer(1), 0.05);
+        }
+        double yaw = state.get(SituationState.CAR_ROT + 2);
+        assertTrue(yaw < -2 && yaw > -Math.PI);
+    }
+
+    @Test
+    public void stepLikeSimulation06() {
+        // A car in the air keeps its acceleration, and so does the enemy car, which has no action
+        Situation situation = createSituation(new Vector3(200, 200, 400), new Vector3(300, 0, 200),
+                new Vector3(0, 0.2, 0), true, 0, new Vector3(0, 0, 93), new Vector3(0, 0, 0));
+        SituationState state = new SituationState(situation);
+        int enemy = SituationState.getCarOffset(1);
+        state.set(SituationState.CAR_ACC, 100);
+        state.set(SituationState.CAR_ACC + 2, 300);
+        state.set(enemy + SituationState.CAR_ACC, 200);
+        state.set(enemy + SituationState.CAR_ACC + 1, -100);
+        situation = state.toSituation();
+        assertStepsLikeSimulation(situation, new ActionSet().withThrottle(1), 20);
+
+        Situation next = Simulation.simulate(situation, 0.05, new ActionSet().withThrottle(1));
+        assertEquals(100, next.getMyCar().getAcceleration().x, EPSILON);
+        assertEquals(200, next.getEnemyCar().getAcceleration().x, EPSILON);
+    }
+
+    @Test
+    public void stepBoostpads01() {
+        // Big pad 1 is inactive, so no boost is picked up
+        Vector3 pad = Boostpad.BIG_BOOST_PADS_POSITIONS[1];
+        Situation situation = createSituation(new Vector3(pad.x, pad.y, Car.GROUND_OFFSET), new Vector3(),
+                new Vector3(), false, 10, new Vector3(0, 0, 93), new Vector3(0, 0, 0));
+        SituationState state = new SituationState(situation);
+        state.step(new ActionSet(), 0.05);
+        assertEquals(10, state.get(SituationState.CAR_BOOST), EPSILON);
+        assertStepsLikeSimulation(situation, new ActionSet(), 3);
+    }
+
+    @Test
+    public void stepCars01() {
+        // Both cars are controlled and the ball is left alone
+        Situation situation = createSituation(new Vector3(0, 0, Car.GROUND_OFFSET), new Vector3(),
+                new Vector3(), false, 0, new Vector3(0, 0, 500), new Vector3(0, 0, 0));
+        SituationState state = new SituationState(situation);
+        int enemy = SituationState.getCarOffset(1);
+        double enemySpeed = state.getVector(enemy + SituationState.CAR_VEL).getMagnitude();
+
+        state.stepCars(new ActionSet().withThrottle(1), new ActionSet().withThrottle(-1), 0.1);
+        assertTrue(state.get(SituationState.CAR_VEL) > 0);
+        assertTrue(state.getVector(enemy + SituationState.CAR_VEL).getMagnitude() < enemySpeed);
+        assertEquals(500, state.get(SituationState.BALL + SituationState.BALL_POS + 2), EPSILON);
+        assertEquals(0.1, state.getGameTime(), EPSILON);
+    }
+}
@@ -53,6 +53,20 @@ public class RLMathTest {
         assertEquals(expectedAngDiff, RLMath.carsAngleToPoint(testCarPosition, testCarYaw, testPointPosition), 1E-8);
     }
 
+    @Test
+    public void carsAngleToPoint02() {
+        // The point is just behind the car's left side, across the -PI/PI seam
+        Vector2 testPointPosition = new Vector2(Math.cos(3) * 1000, Math.sin(3) * 1000);
+        assertEquals(6 - 2 * Math.PI, RLMath.carsAngleToPoint(new Vector2(0, 0), -3, testPointPosition), 1E-8);
+    }
+
+    @Test
+    public void carsAngleToPoint03() {
+        // The same, mirrored
+        Vector2 testPointPosition = new Vector2(Math.cos(-3) * 1000, Math.sin(-3) * 1000);
+        assertEquals(2 * Math.PI - 6, RLMath.carsAngleToPoint(new Vector2(0, 0), 3, testPointPosition), 1E-8);
+    }
+
     @Test
     public void carUpVector01() {
         Vector3 testCarRotation = new Vector3(0.6687197685241699, 0.0607839897274971, -0.5040085911750793);
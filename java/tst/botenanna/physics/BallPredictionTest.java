@@ -0,0 +1,73 @@
+package botenanna.physics;
+
+import botenanna.Ball;
+import botenanna.math.Vector3;
+import botenanna.math.zone.Box;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BallPredictionTest {
+
+    private static Rigidbody createBall(Vector3 position, Vector3 velocity) {
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(position);
+        ball.setVelocity(velocity);
+        return ball;
+    }
+
+    @Test
+    public void getBall01() {
+        // Same as simulating directly, both at and between stored states
+        Rigidbody ball = createBall(new Vector3(0, 0, 500), new Vector3(1500, 800, 300));
+        BallPrediction prediction = new BallPrediction(ball, 0);
+        for (double time : new double[]{0, 0.5, 1.01, 2.345, 4}) {
+            Vector3 expected = BallPhysics.step(ball.clone(), time).getPosition();
+            Vector3 actual = prediction.getPosition(time);
+            assertEquals(expected.x, actual.x, 1);
+            assertEquals(expected.y, actual.y, 1);
+            assertEquals(expected.z, actual.z, 1);
+        }
+    }
+
+    @Test
+    public void getFirstTimeAtHeight01() {
+        Rigidbody ball = createBall(Vector3.UP.scale(500), new Vector3());
+        BallPrediction prediction = new BallPrediction(ball, 0);
+        double expected = SimplePhysics.predictArrivalAtHeight(ball, Ball.RADIUS, true);
+        assertEquals(expected, prediction.getFirstTimeAtHeight(Ball.RADIUS), 1E-9);
+    }
+
+    @Test
+    public void getFirstTimeAtHeight02() {
+        // Never that high
+        Rigidbody ball = createBall(Vector3.UP.scale(500), new Vector3());
+        BallPrediction prediction = new BallPrediction(ball, 0);
+        assertTrue(Double.isNaN(prediction.getFirstTimeAtHeight(1000)));
+    }
+
+    @Test
+    public void getFirstTimeAtWallYPositive01() {
+        Rigidbody ball = createBall(new Vector3(0, 0, Ball.RADIUS), new Vector3(0, 1000, 0));
+        BallPrediction prediction = new BallPrediction(ball, 0);
+        double expected = SimplePhysics.predictArrivalAtWallYPositive(ball, Ball.RADIUS);
+        assertEquals(expected, prediction.getFirstTimeAtWallYPositive(), 1E-9);
+        assertEquals(expected, prediction.getFirstTimeAtAnyWall(), 1E-9);
+    }
+
+    @Test
+    public void getFirstTimeInside01() {
+        Rigidbody ball = createBall(new Vector3(0, 0, Ball.RADIUS), new Vector3(0, 1000, 0));
+        BallPrediction prediction = new BallPrediction(ball, 0);
+        Box box = new Box(new Vector3(-100, 1000, 0), new Vector3(100, 1200, 500));
+        assertEquals(1, prediction.getFirstTimeInside(box), BallPrediction.STEPSIZE);
+    }
+
+    @Test
+    public void get01() {
+        Rigidbody ball = createBall(new Vector3(100, 200, 300), new Vector3(10, 20, 30));
+        BallPrediction prediction = BallPrediction.get(ball, 12.5);
+        assertSame(prediction, BallPrediction.get(ball.clone(), 12.5));
+        assertNotSame(prediction, BallPrediction.get(ball, 12.6));
+    }
+}
@@ -0,0 +1,151 @@
+package botenanna.physics;
+
+import botenanna.Ball;
+import botenanna.game.Arena;
+import botenanna.game.ArenaDistanceField;
+import botenanna.math.Vector3;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BallSimulatorTest {
+
+    private static Rigidbody createBall(Vector3 position, Vector3 velocity) {
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(position);
+        ball.setVelocity(velocity);
+        return ball;
+    }
+
+    @Test
+    public void step01() {
+        // Resting on the ground
+        Rigidbody ball = createBall(new Vector3(0, 0, Ball.RADIUS), new Vector3());
+        BallSimulator.step(ball, 3);
+        assertEquals(Ball.RADIUS, ball.getPosition().z, 1);
+        assertEquals(0, ball.getPosition().x, 1E-9);
+        assertEquals(0, ball.getPosition().y, 1E-9);
+    }
+
+    @Test
+    public void step02() {
+        // Dropped ball bounces, but lower each time
+        Rigidbody ball = createBall(new Vector3(0, 0, 1000), new Vector3());
+        double highest = 0;
+        boolean hasBounced = false;
+        for (int i = 0; i < 480; i++) {
+            BallSimulator.step(ball, BallSimulator.TICK);
+            if (ball.getVelocity().z > 0) hasBounced = true;
+            if (hasBounced) highest = Math.max(highest, ball.getPosition().z);
+        }
+        assertTrue(hasBounced);
+        assertTrue(highest > 300);
+        assertTrue(highest < 1000);
+    }
+
+    @Test
+    public void step03() {
+        // Air drag slows the ball in the air
+        Rigidbody ball = createBall(new Vector3(0, 0, 1000), new Vector3(1000, 0, 0));
+        BallSimulator.step(ball, 1);
+        assertTrue(ball.getVelocity().x < 1000);
+        assertTrue(ball.getVelocity().x > 950);
+    }
+
+    @Test
+    public void step04() {
+        // Hits the side wall and comes back
+        Rigidbody ball = createBall(new Vector3(3000, 0, 1000), new Vector3(2000, 0, 0));
+        BallSimulator.step(ball, 1.5);
+        assertTrue(ball.getVelocity().x < 0);
+        assertTrue(ball.getPosition().x < Arena.WALL_X - Ball.RADIUS + 1);
+    }
+
+    @Test
+    public void step05() {
+        // Hits the ceiling and comes back down
+        Rigidbody ball = createBall(new Vector3(0, 0, 3000), new Vector3(0, 0, 2000));
+        BallSimulator.step(ball, 1);
+        assertTrue(ball.getVelocity().z < 0);
+        assertTrue(ball.getPosition().z < Arena.HEIGHT - Ball.RADIUS + 1);
+    }
+
+    @Test
+    public void step06() {
+        // Rolls into the goal and stops at its back
+        Rigidbody ball = createBall(new Vector3(0, 4000, Ball.RADIUS), new Vector3(0, 1500, 0));
+        BallSimulator.step(ball, 1.2);
+        assertTrue(ball.getPosition().y > Arena.WALL_Y);
+        assertTrue(ball.getPosition().y < Arena.WALL_Y + Arena.GOAL_DEPHT - Ball.RADIUS + 1);
+    }
+
+    @Test
+    public void step07() {
+        // Rolling up the curve between the ground and a wall
+        Rigidbody ball = createBall(new Vector3(3000, 0, Ball.RADIUS), new Vector3(2000, 0, 0));
+        double highest = 0;
+        for (int i = 0; i < 120; i++) {
+            BallSimulator.step(ball, BallSimulator.TICK);
+            highest = Math.max(highest, ball.getPosition().z);
+        }
+        assertTrue(highest > 300);
+    }
+
+    @Test
+    public void step08() {
+        // The ball never leaves the arena
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            double[] state = new double[BallSimulator.STATE_SIZE];
+            state[BallSimulator.POS + 2] = 500 + random.nextDouble() * 1000;
+            for (int j = 0; j < 3; j++) {
+                state[BallSimulator.VEL + j] = (random.nextDouble() * 2 - 1) * 3000;
+                state[BallSimulator.ANG + j] = (random.nextDouble() * 2 - 1) * 6;
+            }
+            for (int tick = 0; tick < 1200; tick++) {
+                BallSimulator.tick(state, 0, 1);
+                double distance = ArenaDistanceField.getDistance(state[BallSimulator.POS], state[BallSimulator.POS + 1], state[BallSimulator.POS + 2]);
+                assertTrue(distance > Ball.RADIUS - 60);
+            }
+        }
+    }
+
+    @Test
+    public void step09() {
+        // Friction with the ground makes a sliding ball spin
+        Rigidbody ball = createBall(new Vector3(0, 0, Ball.RADIUS), new Vector3(0, 1000, 0));
+        BallSimulator.step(ball, 0.5);
+        assertTrue(ball.getAngularVelocity().x < 0);
+        assertTrue(ball.getVelocity().y < 1000);
+    }
+
+    @Test
+    public void getPath01() {
+        Rigidbody ball = createBall(new Vector3(0, 0, 500), new Vector3(1500, 800, 300));
+        Path path = BallSimulator.getPath(ball, 2, 0.1);
+        Vector3 expected = BallSimulator.step(ball.clone(), 2).getPosition();
+        Vector3 actual = path.evaluate(2);
+        assertEquals(expected.x, actual.x, 1E-9);
+        assertEquals(expected.y, actual.y, 1E-9);
+        assertEquals(expected.z, actual.z, 1E-9);
+    }
+
+    @Test
+    public void getMeanError01() {
+        // A recording made by the simulator itself is predicted perfectly
+        int count = 240;
+        double[] times = new double[count];
+        Rigidbody[] balls = new Rigidbody[count];
+        Rigidbody ball = createBall(new Vector3(0, 0, 800), new Vector3(1200, -700, 500));
+        for (int i = 0; i < count; i++) {
+            times[i] = i * BallSimulator.TICK;
+            balls[i] = ball.clone();
+            BallSimulator.step(ball, BallSimulator.TICK);
+        }
+        BallAccuracy accuracy = new BallAccuracy(times, balls);
+        assertEquals(0, accuracy.getMeanError(0.5, (b, time) -> BallSimulator.step(b, time).getPosition()), 1E-6);
+        assertTrue(Double.isNaN(accuracy.getMeanError(3, (b, time) -> BallSimulator.step(b, time).getPosition())));
+    }
+}
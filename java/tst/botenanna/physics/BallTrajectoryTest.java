@@ -0,0 +1,72 @@
+package botenanna.physics;
+
+import botenanna.Ball;
+import botenanna.math.Vector3;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BallTrajectoryTest {
+
+    private static Rigidbody createBall(Vector3 position, Vector3 velocity) {
+        Rigidbody ball = new Rigidbody();
+        ball.setPosition(position);
+        ball.setVelocity(velocity);
+        return ball;
+    }
+
+    private static void assertVectorEquals(Vector3 expected, Vector3 actual, double delta) {
+        assertEquals(expected.x, actual.x, delta);
+        assertEquals(expected.y, actual.y, delta);
+        assertEquals(expected.z, actual.z, delta);
+    }
+
+    @Test
+    public void getBall01() {
+        // Same as stepping, through several bounces off walls and the ground
+        Rigidbody ball = createBall(new Vector3(0, 0, 1500), new Vector3(2000, -1200, 300));
+        BallTrajectory trajectory = BallPhysics.getTrajectory(ball, 10);
+        assertTrue(trajectory.getEventCount() > 3);
+
+        for (double time = 0; time < 10; time += 0.37) {
+            Rigidbody expected = BallPhysics.step(ball.clone(), time);
+            Rigidbody actual = trajectory.getBall(time);
+            assertVectorEquals(expected.getPosition(), actual.getPosition(), 1E-6);
+            assertVectorEquals(expected.getVelocity(), actual.getVelocity(), 1E-6);
+        }
+    }
+
+    @Test
+    public void getEvent01() {
+        // Rolling straight into the positive y wall
+        Rigidbody ball = createBall(new Vector3(0, 0, Ball.RADIUS), new Vector3(0, 1000, 0));
+        BallTrajectory trajectory = BallPhysics.getTrajectory(ball, 6);
+
+        double expected = SimplePhysics.predictArrivalAtWallYPositive(ball, Ball.RADIUS);
+        assertEquals(1, trajectory.getEventCount());
+        assertEquals(BallTrajectory.WALL_Y_POSITIVE, trajectory.getEvent(0));
+        assertEquals(expected, trajectory.getEventTime(0), 1E-9);
+        assertEquals(expected, trajectory.getFirstTimeOf(BallTrajectory.WALL_Y_POSITIVE), 1E-9);
+        assertEquals(expected, trajectory.getFirstTimeAtAnyWall(), 1E-9);
+        assertTrue(Double.isNaN(trajectory.getFirstTimeOf(BallTrajectory.GROUND)));
+    }
+
+    @Test
+    public void getFirstTimeAtHeight01() {
+        Rigidbody ball = createBall(new Vector3(0, 0, 500), new Vector3(0, 0, 300));
+        BallTrajectory trajectory = BallPhysics.getTrajectory(ball, 6);
+        assertEquals(SimplePhysics.predictArrivalAtHeight(ball, 550, true), trajectory.getFirstTimeAtHeight(550), 1E-9);
+        assertEquals(SimplePhysics.predictArrivalAtHeight(ball, Ball.RADIUS, true), trajectory.getFirstTimeAtHeight(Ball.RADIUS), 1E-9);
+        assertEquals(trajectory.getFirstTimeOf(BallTrajectory.GROUND), trajectory.getFirstTimeAtHeight(Ball.RADIUS), 1E-9);
+        assertTrue(Double.isNaN(trajectory.getFirstTimeAtHeight(1000)));
+    }
+
+    @Test
+    public void bounce01() {
+        // The ball bounces a few times and then rolls, instead of bouncing endlessly
+        Rigidbody ball = createBall(new Vector3(0, 0, 500), new Vector3());
+        BallTrajectory trajectory = BallPhysics.getTrajectory(ball, 30);
+        assertTrue(trajectory.getEventCount() < 30);
+        assertEquals(Ball.RADIUS, trajectory.getPosition(29).z, 1E-9);
+    }
+}
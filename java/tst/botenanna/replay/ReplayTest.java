@@ -0,0 +1,129 @@
+package botenanna.replay;
+
+import botenanna.GrpcService;
+import botenanna.LatencyStats;
+import botenanna.TestTrees;
+import botenanna.behaviortree.builder.BehaviourTreeBuilder;
+import botenanna.behaviortree.intentions.Intention;
+import org.junit.Test;
+import rlbot.api.GameData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ReplayTest {
+
+    private static GameData.GameTickPacket createPacket(int tick) {
+        GameData.GameTickPacket.Builder packet = GameData.GameTickPacket.newBuilder().setPlayerIndex(0);
+        for (int team = 0; team < 2; team++) {
+            packet.addPlayers(GameData.PlayerInfo.newBuilder()
+                    .setLocation(GameData.Vector3.newBuilder().setX(100 * tick).setY(team == 0 ? -3000 : 3000).setZ(17))
+                    .setTeam(team));
+        }
+        packet.setBall(GameData.BallInfo.newBuilder().setLocation(GameData.Vector3.newBuilder().setZ(93)));
+        packet.setGameInfo(GameData.GameInfo.newBuilder().setSecondsElapsed(tick / 60f).setIsRoundActive(true));
+        return packet.build();
+    }
+
+    private static File record(String suffix, int packetCount) throws IOException {
+        File file = File.createTempFile("replay", suffix);
+        file.deleteOnExit();
+        try (ReplayRecorder recorder = ReplayRecorder.open(file)) {
+            for (int i = 0; i < packetCount; i++) {
+                recorder.record(createPacket(i));
+            }
+            assertEquals(packetCount, recorder.getPacketCount());
+        }
+        return file;
+    }
+
+    private static void assertReplayEquals(File file, int packetCount) throws IOException {
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            for (int i = 0; i < packetCount; i++) {
+                assertEquals(createPacket(i), reader.next());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void record01() throws IOException {
+        File file = record(".bin", 20);
+        assertReplayEquals(file, 20);
+    }
+
+    @Test
+    public void record02() throws IOException {
+        // Compressed
+        File file = record(".bin.gz", 20);
+        assertReplayEquals(file, 20);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals(0x1f, bytes[0] & 0xff);
+        assertEquals(0x8b, bytes[1] & 0xff);
+    }
+
+    @Test
+    public void record03() throws IOException {
+        File file = record(".bin", 0);
+        assertReplayEquals(file, 0);
+    }
+
+    @Test
+    public void replay01() throws Exception {
+        File treeFile = TestTrees.createFile(TestTrees.CHASE_BALL);
+        File replayFile = record(".bin.gz", 30);
+
+        GrpcService service = new GrpcService(new BehaviourTreeBuilder(treeFile));
+        try (ReplayReader reader = ReplayReader.open(replayFile)) {
+            StringWriter output = new StringWriter();
+            Replayer replayer = new Replayer(service);
+            replayer.setOutput(new PrintWriter(output));
+            LatencyStats latency = replayer.replay(reader);
+
+            assertEquals(30, latency.getCount());
+            String[] lines = output.toString().split("\\R");
+            assertEquals(30, lines.length);
+            assertTrue(lines[0].startsWith("0 0 "));
+            assertTrue(lines[29].startsWith("29 0 "));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void replay02() throws Exception {
+        // Without a time limit on the searches, two replays give the same ControllerStates
+        File treeFile = TestTrees.createFile("IntentionCollectBoost");
+        File replayFile = record(".bin", 20);
+        Intention.setPlanningBudget(Long.MAX_VALUE);
+        try {
+            assertEquals(replayOutput(treeFile, replayFile), replayOutput(treeFile, replayFile));
+        } finally {
+            Intention.setPlanningBudget(Intention.PLANNING_BUDGET_NANOS);
+        }
+    }
+
+    private static String replayOutput(File treeFile, File replayFile) throws Exception {
+        GrpcService service = new GrpcService(new BehaviourTreeBuilder(treeFile));
+        try (ReplayReader reader = ReplayReader.open(replayFile)) {
+            StringWriter output = new StringWriter();
+            Replayer replayer = new Replayer(service);
+            replayer.setOutput(new PrintWriter(output));
+            replayer.replay(reader);
+            return output.toString();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void format01() {
+        GameData.ControllerState state = GameData.ControllerState.newBuilder().setThrottle(1).setSteer(-0.5f).setBoost(true).build();
+        assertEquals("7 0 1.0000 -0.5000 0.0000 0.0000 0.0000 false true false", Replayer.format(7, createPacket(0), state));
+    }
+}
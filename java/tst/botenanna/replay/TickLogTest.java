@@ -0,0 +1,130 @@
+package botenanna.replay;
+
+import botenanna.game.Boostpad;
+import botenanna.game.Situation;
+import botenanna.game.simulation.SituationState;
+import org.junit.Test;
+import rlbot.api.GameData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TickLogTest {
+
+    private static Situation createSituation(int tick) {
+        GameData.GameTickPacket.Builder packet = GameData.GameTickPacket.newBuilder().setPlayerIndex(1);
+        for (int team = 0; team < 2; team++) {
+            packet.addPlayers(GameData.PlayerInfo.newBuilder()
+                    .setLocation(GameData.Vector3.newBuilder().setX(10 * tick).setY(team == 0 ? -3000 : 3000).setZ(17))
+                    .setVelocity(GameData.Vector3.newBuilder().setX(600))
+                    .setTeam(team)
+                    .setBoost(tick % 100));
+        }
+        for (int i = 0; i <= Boostpad.COUNT_TOTAL_PADS; i++) {
+            packet.addBoostPads(GameData.BoostInfo.newBuilder().setLocation(GameData.Vector3.newBuilder().setX(100 * i)));
+        }
+        packet.setBall(GameData.BallInfo.newBuilder().setLocation(GameData.Vector3.newBuilder().setY(tick).setZ(93)));
+        packet.setGameInfo(GameData.GameInfo.newBuilder().setSecondsElapsed(tick / 60f));
+        return new Situation(packet.build());
+    }
+
+    private static File createFile() throws IOException {
+        File file = File.createTempFile("ticks", ".log");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static File write(long... ticks) throws IOException {
+        File file = createFile();
+        try (TickLogWriter writer = new TickLogWriter(file)) {
+            for (long tick : ticks) {
+                writer.write(tick, createSituation((int) tick));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void read01() throws IOException {
+        File file = write(0, 1, 2, 3, 4);
+        try (TickLog log = new TickLog(file)) {
+            assertEquals(5, log.getRecordCount());
+
+            SituationState expected = new SituationState(createSituation(3));
+            SituationState actual = new SituationState();
+            log.read(3, actual);
+            assertEquals(3, log.getTick(3));
+            assertEquals(expected.getGameTime(), actual.getGameTime(), 1E-9);
+            assertEquals(expected.getPlayerIndex(0), actual.getPlayerIndex(0));
+            assertEquals(expected.getPlayerIndex(1), actual.getPlayerIndex(1));
+            for (int i = 0; i < SituationState.SIZE; i++) {
+                assertEquals((float) expected.get(i), (float) actual.get(i), 0);
+            }
+        }
+    }
+
+    @Test
+    public void read02() throws IOException {
+        // A single value, and the situation
+        File file = write(0, 1, 2);
+        try (TickLog log = new TickLog(file)) {
+            assertEquals(2, log.get(2, SituationState.BALL + SituationState.BALL_POS + 1), 0);
+            Situation situation = log.getSituation(2);
+            assertEquals(20, situation.getMyCar().getPosition().x, 1E-6);
+            assertEquals(1, situation.getMyCar().getPlayerIndex());
+        }
+    }
+
+    @Test
+    public void indexOf01() throws IOException {
+        File file = write(10, 11, 12, 13);
+        try (TickLog log = new TickLog(file)) {
+            assertEquals(0, log.indexOf(10));
+            assertEquals(3, log.indexOf(13));
+            assertEquals(-1, log.indexOf(9));
+            assertEquals(-1, log.indexOf(14));
+        }
+    }
+
+    @Test
+    public void indexOf02() throws IOException {
+        // Ticks with gaps are found by binary search
+        File file = write(1, 5, 6, 20, 21, 40);
+        try (TickLog log = new TickLog(file)) {
+            assertEquals(3, log.indexOf(20));
+            assertEquals(5, log.indexOf(40));
+            assertEquals(-1, log.indexOf(7));
+        }
+    }
+
+    @Test
+    public void open01() throws IOException {
+        // A partly written record is ignored
+        File file = write(0, 1);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() + TickLog.RECORD_SIZE / 2);
+        }
+        try (TickLog log = new TickLog(file)) {
+            assertEquals(2, log.getRecordCount());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open02() throws IOException {
+        File file = createFile();
+        Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        new TickLog(file).close();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getTick01() throws IOException {
+        File file = write(0, 1);
+        try (TickLog log = new TickLog(file)) {
+            log.getTick(2);
+        }
+    }
+}
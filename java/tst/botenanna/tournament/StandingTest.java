@@ -0,0 +1,50 @@
+package botenanna.tournament;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StandingTest {
+
+    @Test
+    public void record01() {
+        Standing standing = new Standing("tree");
+        standing.record(3, 1, 10);
+        standing.record(0, 2, 5);
+        standing.record(1, 1, 7);
+        assertEquals(3, standing.getMatches());
+        assertEquals(1, standing.getWins());
+        assertEquals(1, standing.getDraws());
+        assertEquals(1, standing.getLosses());
+        assertEquals(4, standing.getGoalsFor());
+        assertEquals(4, standing.getGoalsAgainst());
+        assertEquals(22, standing.getTouches());
+        assertEquals(0.5, standing.getScore(), 1E-9);
+    }
+
+    @Test
+    public void wilson01() {
+        assertEquals(0.2366, Standing.wilsonLow(5, 10, Standing.Z_95), 1E-4);
+        assertEquals(0.7634, Standing.wilsonHigh(5, 10, Standing.Z_95), 1E-4);
+    }
+
+    @Test
+    public void wilson02() {
+        // All wins still leave room below 1, and no trials says nothing
+        assertEquals(0.7225, Standing.wilsonLow(10, 10, Standing.Z_95), 1E-4);
+        assertEquals(1, Standing.wilsonHigh(10, 10, Standing.Z_95), 1E-9);
+        assertEquals(0, Standing.wilsonLow(0, 0, Standing.Z_95), 1E-9);
+        assertEquals(1, Standing.wilsonHigh(0, 0, Standing.Z_95), 1E-9);
+    }
+
+    @Test
+    public void getScoreLow01() {
+        Standing standing = new Standing("tree");
+        for (int i = 0; i < 100; i++) {
+            standing.record(i % 4 == 0 ? 0 : 2, 1, 0);
+        }
+        assertTrue(standing.getScoreLow() < standing.getScore());
+        assertTrue(standing.getScoreHigh() > standing.getScore());
+        assertEquals(0.75, standing.getScore(), 1E-9);
+    }
+}
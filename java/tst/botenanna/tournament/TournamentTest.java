@@ -0,0 +1,114 @@
+package botenanna.tournament;
+
+import botenanna.TestTrees;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    private static Tournament createTournament() throws IOException {
+        List<File> trees = Arrays.asList(TestTrees.createFile(TestTrees.CHASE_BALL),
+                TestTrees.createFile("TaskGoTowardsPoint ball_pos false true"),
+                TestTrees.createFile("TaskGoTowardsPoint my_goal_pos"));
+        return new Tournament(trees, new Tournament.Settings().withMatchesPerPairing(2).withDuration(5).withThreads(2));
+    }
+
+    private static File writeTree(File directory, String name, String... lines) throws IOException {
+        File file = new File(directory, name);
+        file.deleteOnExit();
+        Files.write(file.toPath(), Arrays.asList(lines));
+        return file;
+    }
+
+    @Test
+    public void play01() throws IOException {
+        Tournament tournament = createTournament();
+        assertEquals(6, tournament.getMatchCount());
+
+        List<Tournament.Game> games = new ArrayList<>();
+        List<Standing> standings = tournament.play(games::add);
+        assertEquals(6, games.size());
+        assertEquals(3, standings.size());
+
+        int matches = 0;
+        for (Standing standing : standings) {
+            matches += standing.getMatches();
+            assertEquals(4, standing.getMatches());
+        }
+        assertEquals(12, matches);
+        assertTrue(standings.get(0).getScore() >= standings.get(2).getScore());
+        assertEquals(2, tournament.getPairing(0, 1).getMatches());
+        assertEquals(30, tournament.getSimulatedSeconds(), 0.1);
+    }
+
+    @Test
+    public void play02() throws IOException {
+        // Trees switch sides and both sides get the same seed
+        Tournament tournament = createTournament();
+        List<Tournament.Game> games = new ArrayList<>();
+        tournament.play(games::add);
+        int blueCount = 0;
+        for (Tournament.Game game : games) {
+            if (game.blue == 0) blueCount++;
+            assertEquals(0, game.seed);
+        }
+        assertEquals(2, blueCount);
+    }
+
+    @Test
+    public void output01() throws IOException {
+        Tournament tournament = createTournament();
+        StringWriter csv = new StringWriter();
+        StringWriter json = new StringWriter();
+        try (TournamentOutput output = new TournamentOutput(tournament, new PrintWriter(csv), new PrintWriter(json))) {
+            output.writeStandings(tournament.play(output));
+        }
+
+        String[] csvLines = csv.toString().split("\\R");
+        assertEquals(7, csvLines.length);
+        assertEquals(TournamentOutput.CSV_HEADER, csvLines[0]);
+        assertEquals(10, csvLines[1].split(",", -1).length);
+
+        String[] jsonLines = json.toString().split("\\R");
+        assertEquals(6 + 3 + 3, jsonLines.length);
+        assertTrue(jsonLines[0].startsWith("{\"type\":\"match\""));
+        assertTrue(jsonLines[6].startsWith("{\"type\":\"standing\""));
+        assertTrue(jsonLines[11].startsWith("{\"type\":\"pairing\""));
+    }
+
+    @Test
+    public void escapeCsv01() {
+        assertEquals("tree.txt", TournamentOutput.escapeCsv("tree.txt"));
+        assertEquals("\"a,b\"", TournamentOutput.escapeCsv("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", TournamentOutput.escapeCsv("say \"hi\""));
+    }
+
+    @Test
+    public void findTrees01() throws IOException {
+        // The tree that can not be built is left out, and so are files that are not .txt
+        File directory = Files.createTempDirectory("trees").toFile();
+        directory.deleteOnExit();
+        File chase = writeTree(directory, "chase.txt", TestTrees.CHASE_BALL);
+        writeTree(directory, "broken.txt", "TaskGoTowardsPoint no_such_key");
+        File defend = writeTree(directory, "defend.txt", "TaskGoTowardsPoint my_goal_pos");
+        writeTree(directory, "notes.md", TestTrees.CHASE_BALL);
+
+        assertEquals(Arrays.asList(chase, defend), Tournament.findTrees(directory));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tournament01() throws IOException {
+        new Tournament(Collections.singletonList(TestTrees.createFile(TestTrees.CHASE_BALL)), new Tournament.Settings());
+    }
+}